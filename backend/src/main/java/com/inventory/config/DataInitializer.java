@@ -8,6 +8,8 @@ import com.inventory.repository.StoreRepository;
 import com.inventory.repository.ProductRepository;
 import com.inventory.repository.InventoryRepository;
 import com.inventory.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -21,6 +23,8 @@ import java.util.Random;
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
     @Autowired
     private StoreRepository storeRepository;
     
@@ -43,7 +47,7 @@ public class DataInitializer implements CommandLineRunner {
     }
 
     private void initializeSampleData() {
-        System.out.println("🚀 Initializing comprehensive sample data...");
+        log.info("Initializing sample data...");
         
         // Create Stores (8 stores with different characteristics)
         List<Store> stores = createStores();
@@ -59,10 +63,8 @@ public class DataInitializer implements CommandLineRunner {
         // Create Transaction history
         createTransactionHistory(stores, products);
         
-        System.out.println("✅ Comprehensive sample data initialized successfully!");
-        System.out.println("📊 Created " + stores.size() + " stores, " + products.size() + " products");
-        System.out.println("📦 Generated inventory records and transaction history");
-        System.out.println("🎯 System ready for testing with realistic data scenarios!");
+        log.info("Sample data initialized: {} stores, {} products, inventory records and transaction history",
+                stores.size(), products.size());
     }
 
     private List<Store> createStores() {
@@ -153,7 +155,7 @@ public class DataInitializer implements CommandLineRunner {
             }
         }
         
-        System.out.println("📦 Created " + inventoryRecordsCreated + " inventory records");
+        log.info("Created {} inventory records", inventoryRecordsCreated);
     }
 
     private int generateRealisticQuantity(Store store, Product product) {
@@ -234,7 +236,7 @@ public class DataInitializer implements CommandLineRunner {
             }
         }
         
-        System.out.println("📊 Created " + transactionsCreated + " transaction history records");
+        log.info("Created {} transaction history records", transactionsCreated);
     }
 
     private String generateReferenceId(Transaction.TransactionType type) {
@@ -1,85 +1,294 @@
 package com.inventory.config;
 
+import com.inventory.event.InventoryEvent;
+import com.inventory.logging.KafkaMdcInterceptor;
+import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.serialization.InventoryEventDeserializer;
+import com.inventory.serialization.InventoryEventSerializer;
 import org.apache.kafka.clients.admin.NewTopic;
-import org.apache.kafka.clients.admin.TopicConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.config.SslConfigs;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
 public class KafkaConfig {
 
+    // Parked retries: a record that fails is moved off its partition to the next retry topic, waits
+    // there for the stage's delay and is then re-sent to the topic it came from. After the last stage
+    // (or straight away for errors that cannot succeed on retry) it goes to inventory.dlq.
+    public static final String[] RETRY_TOPICS = {"inventory.retry.1s", "inventory.retry.10s", "inventory.retry.1m"};
+    public static final long[] RETRY_DELAYS_MS = {1_000L, 10_000L, 60_000L};
+    public static final String RETRY_ATTEMPT_HEADER = "inventory-retry-attempt";
+    public static final String RETRY_DUE_HEADER = "inventory-retry-due";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${inventory.kafka.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    // Partitions of the keyed topics; listener containers run one consumer thread per partition
+    @Value("${inventory.kafka.partitions:3}")
+    private int partitions;
+
+    // Producer tuning; the "throughput" profile (application-throughput.yml) raises these for bulk load
+    @Value("${inventory.kafka.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${inventory.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${inventory.kafka.producer.compression-type:none}")
+    private String compressionType;
+
+    @Value("${inventory.kafka.producer.buffer-memory:33554432}")
+    private long bufferMemory;
+
+    @Value("${inventory.kafka.producer.idempotence:true}")
+    private boolean idempotence;
+
+    @Value("${inventory.kafka.producer.acks:all}")
+    private String acks;
+
+    @Value("${inventory.kafka.producer.max-in-flight:5}")
+    private int maxInFlight;
+
+    // Topics whose values are written with the compact binary codec instead of JSON (comma separated);
+    // consumers read both formats, so a topic can be switched without draining it first
+    @Value("${inventory.kafka.serialization.binary-topics:}")
+    private String binaryTopics;
+
     // Producer factory
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
+        // Values are JSON without type headers (no consumer type coupling), or binary on the topics
+        // listed in inventory.kafka.serialization.binary-topics
+        return instrumented(new DefaultKafkaProducerFactory<>(producerProps()));
+    }
+
+    // Outbox rows already hold the JSON the JsonSerializer would produce, so they go out as-is
+    // (re-encoded only for topics switched to the binary format)
+    @Bean
+    public KafkaTemplate<String, String> outboxKafkaTemplate() {
+        KafkaTemplate<String, String> template =
+                new KafkaTemplate<>(instrumented(new DefaultKafkaProducerFactory<>(producerProps())));
+        template.setObservationEnabled(false);
+        return template;
+    }
+
+    private Map<String, Object> producerProps() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        // Do not add type headers to avoid consumer type coupling
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, InventoryEventSerializer.class);
+        configProps.put(InventoryEventSerializer.BINARY_TOPICS, binaryTopics);
+        // Let records sent back to back (outbox batches, consumer audits) share produce requests
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        // Idempotence keeps per-partition order and drops broker-side duplicates on retry, with up to
+        // 5 requests in flight per connection
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+        configProps.put(ProducerConfig.ACKS_CONFIG, acks);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlight);
+        return configProps;
+    }
+
+    // Client metrics of every producer and consumer (kafka.producer.*, kafka.consumer.*, including
+    // kafka.consumer.fetch.manager.records.lag per partition), tagged with the client id; listeners set
+    // their id as clientIdPrefix so lag and spring.kafka.listener timings line up per listener
+    private <K, V> DefaultKafkaProducerFactory<K, V> instrumented(DefaultKafkaProducerFactory<K, V> factory) {
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private <K, V> DefaultKafkaConsumerFactory<K, V> instrumented(DefaultKafkaConsumerFactory<K, V> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
+    @Primary
     public KafkaTemplate<String, Object> kafkaTemplate() {
         KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory());
         template.setObservationEnabled(false);
         return template;
     }
 
-    // Consumer factory (generic JSON)
+    // Dead-letter and retry traffic: failed events are re-serialized as JSON (readable in the DLQ, and
+    // accepted again by every topic), records that never deserialized and parked retries keep their raw bytes
+    @Bean
+    public KafkaTemplate<String, Object> deadLetterKafkaTemplate() {
+        Map<Class<?>, Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(byte[].class, new ByteArraySerializer());
+        delegates.put(String.class, new StringSerializer());
+        delegates.put(Object.class, new JsonSerializer<>().noTypeInfo());
+        Map<String, Object> configProps = producerProps();
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps,
+                new StringSerializer(), new DelegatingByTypeSerializer(delegates, true));
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(instrumented(factory));
+        template.setObservationEnabled(false);
+        return template;
+    }
+
+    // Consumer factory (JSON or binary, see InventoryEventDeserializer)
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        // A payload that cannot be read reaches the error handler (and the DLQ) instead of failing every poll
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, InventoryEventDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaConsumerFactory<>(props);
+        // No type headers are sent; the eventType property selects the InventoryEvent subclass
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, InventoryEvent.class.getName());
+        return instrumented(new DefaultKafkaConsumerFactory<>(props));
+    }
+
+    // Listener failures are not retried in place: the record is recovered to its next retry topic at once,
+    // so the rest of its partition keeps flowing
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler() {
+        DeadLetterPublishingRecoverer recoverer =
+                new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate(), KafkaConfig::retryDestination);
+        recoverer.setHeadersFunction(KafkaConfig::retryHeaders);
+        DefaultErrorHandler handler = new DefaultErrorHandler(recoverer, new FixedBackOff(0L, 0L));
+        handler.setCommitRecovered(true);
+        return handler;
+    }
+
+    static TopicPartition retryDestination(ConsumerRecord<?, ?> record, Exception exception) {
+        int attempt = retryAttempt(record.headers());
+        if (attempt >= RETRY_TOPICS.length || !isRetryable(exception)) {
+            return new TopicPartition(InventoryEventPublisher.DLQ_TOPIC, -1);
+        }
+        return new TopicPartition(RETRY_TOPICS[attempt], -1);
+    }
+
+    static Headers retryHeaders(ConsumerRecord<?, ?> record, Exception exception) {
+        int attempt = retryAttempt(record.headers());
+        Headers headers = new RecordHeaders();
+        headers.add(RETRY_ATTEMPT_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(attempt + 1).array());
+        if (attempt < RETRY_DELAYS_MS.length) {
+            long due = System.currentTimeMillis() + RETRY_DELAYS_MS[attempt];
+            headers.add(RETRY_DUE_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(due).array());
+        }
+        return headers;
+    }
+
+    public static int retryAttempt(Headers headers) {
+        Header header = headers.lastHeader(RETRY_ATTEMPT_HEADER);
+        return header != null ? ByteBuffer.wrap(header.value()).getInt() : 0;
+    }
+
+    // Bad payloads and broken stock invariants fail the same way every time; park only the rest
+    static boolean isRetryable(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException || cause instanceof IllegalArgumentException) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(partitions);
+        // correlationId / eventId of the record in the MDC while the listener runs
+        factory.setRecordInterceptor(new KafkaMdcInterceptor<>());
+        factory.getContainerProperties().setAckMode(org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(kafkaErrorHandler());
+        factory.setMissingTopicsFatal(false);
+        return factory;
+    }
+
+    // Retry topics are read as raw bytes and forwarded untouched; broker errors while forwarding
+    // are retried in place since the record is only acknowledged once it is back on its topic
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> retryKafkaListenerContainerFactory() {
+        Map<String, Object> props = new HashMap<>(consumerFactory().getConfigurationProperties());
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(instrumented(new DefaultKafkaConsumerFactory<String, byte[]>(props)));
+        factory.getContainerProperties().setAckMode(org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1_000L, FixedBackOff.UNLIMITED_ATTEMPTS)));
+        factory.setMissingTopicsFatal(false);
+        return factory;
+    }
+
+    // Batch listener factory: each poll is handed over as one List and acknowledged once
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory() {
+        Map<String, Object> props = new HashMap<>(consumerFactory().getConfigurationProperties());
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(instrumented(new DefaultKafkaConsumerFactory<String, Object>(props)));
+        factory.setBatchListener(true);
+        factory.setConcurrency(partitions);
         factory.getContainerProperties().setAckMode(org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(kafkaErrorHandler());
         factory.setMissingTopicsFatal(false);
         return factory;
     }
 
-    // Topics (3 partitions + DLQ)
+    // Topics (inventory.kafka.partitions + retry stages + DLQ)
     @Bean
     public NewTopic inventoryEventsTopic() {
         Map<String, String> configs = new HashMap<>();
         configs.put(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_DELETE);
-        return TopicBuilder.name("inventory.events").partitions(3).replicas(1).configs(configs).build();
+        return TopicBuilder.name("inventory.events").partitions(partitions).replicas(1).configs(configs).build();
     }
 
     @Bean
     public NewTopic inventoryCommandsStockTopic() {
-        return TopicBuilder.name("inventory.commands.stock").partitions(3).replicas(1).build();
+        return TopicBuilder.name("inventory.commands.stock").partitions(partitions).replicas(1).build();
     }
 
     @Bean
     public NewTopic transfersCommandsTopic() {
-        return TopicBuilder.name("transfers.commands").partitions(3).replicas(1).build();
+        return TopicBuilder.name("transfers.commands").partitions(partitions).replicas(1).build();
     }
 
     @Bean
@@ -87,6 +296,21 @@ public class KafkaConfig {
         return TopicBuilder.name("notifications.events").partitions(1).replicas(1).build();
     }
 
+    @Bean
+    public NewTopic inventoryRetry1sTopic() {
+        return TopicBuilder.name(RETRY_TOPICS[0]).partitions(partitions).replicas(1).build();
+    }
+
+    @Bean
+    public NewTopic inventoryRetry10sTopic() {
+        return TopicBuilder.name(RETRY_TOPICS[1]).partitions(partitions).replicas(1).build();
+    }
+
+    @Bean
+    public NewTopic inventoryRetry1mTopic() {
+        return TopicBuilder.name(RETRY_TOPICS[2]).partitions(partitions).replicas(1).build();
+    }
+
     @Bean
     public NewTopic inventoryDlqTopic() {
         return TopicBuilder.name("inventory.dlq").partitions(1).replicas(1).build();
@@ -0,0 +1,111 @@
+package com.inventory.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+// Near cache: a bounded in-process Caffeine L1 in front of the shared Redis L2.
+// Puts are cache fills and go to both tiers without a broadcast; evictions and clears, which is how
+// writes reach the caches, are broadcast so other nodes drop their L1 copy.
+public class LayeredCache implements Cache {
+
+    private final CaffeineCache local;
+    private final Cache remote;
+    private final LayeredCacheManager manager;
+
+    public LayeredCache(CaffeineCache local, Cache remote, LayeredCacheManager manager) {
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = remote.get(key);
+        if (value != null) {
+            local.put(key, shared(value.get()));
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object stored = value.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        T loaded = remote.get(key, valueLoader);
+        local.put(key, shared(loaded));
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, shared(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.evict(key);
+        manager.publishInvalidation(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+        manager.publishInvalidation(getName(), null);
+    }
+
+    // Every L1 hit returns the same instance, so lists are held as unmodifiable copies
+    private static Object shared(Object value) {
+        if (value instanceof List<?> list) {
+            return Collections.unmodifiableList(new ArrayList<>(list));
+        }
+        return value;
+    }
+
+    // Applied when another node changed this cache; the Redis tier is already up to date
+    void evictLocal(Object key) {
+        if (key == null) {
+            local.clear();
+        } else {
+            local.evict(key);
+        }
+    }
+}
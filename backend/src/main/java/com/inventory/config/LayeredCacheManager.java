@@ -0,0 +1,120 @@
+package com.inventory.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wraps the Redis cache manager so every cache gets a local L1 with its own size bound and TTL.
+// L1 invalidations are exchanged between backend instances over a Redis pub/sub channel.
+// Both tiers of every cache report cache.gets/puts/evictions tagged with cache and tier=local|remote;
+// Spring's registrar cannot bind the layered caches itself, and creates them lazily anyway.
+public class LayeredCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LayeredCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "inventory:cache-invalidation";
+
+    private final CacheManager remoteCacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Map<String, Duration> localTtls;
+    private final Duration defaultLocalTtl;
+    private final long localMaxSize;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, LayeredCache> caches = new ConcurrentHashMap<>();
+
+    public LayeredCacheManager(CacheManager remoteCacheManager, RedisTemplate<String, Object> redisTemplate,
+                               Map<String, Duration> localTtls, Duration defaultLocalTtl, long localMaxSize,
+                               MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.localTtls = localTtls;
+        this.defaultLocalTtl = defaultLocalTtl;
+        this.localMaxSize = localMaxSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        LayeredCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> {
+            CaffeineCache local = createLocalCache(n);
+            bindMetrics(local, remote);
+            return new LayeredCache(local, remote, this);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private CaffeineCache createLocalCache(String name) {
+        Duration ttl = localTtls.getOrDefault(name, defaultLocalTtl);
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+
+    private void bindMetrics(CaffeineCache local, Cache remote) {
+        if (meterRegistry == null) {
+            return;
+        }
+        CaffeineCacheMetrics.monitor(meterRegistry, local.getNativeCache(), local.getName(), Tags.of("tier", "local"));
+        if (remote instanceof RedisCache redisCache) {
+            new RedisCacheMetrics(redisCache, Tags.of("tier", "remote")).bindTo(meterRegistry);
+        }
+    }
+
+    void publishInvalidation(String cacheName, Object key) {
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("node", nodeId);
+            message.put("cache", cacheName);
+            message.put("key", key != null ? key.toString() : null);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            // Peers fall back to their L1 TTL when a broadcast is lost
+            log.warn("Failed to broadcast cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof Map<?, ?> invalidation) || nodeId.equals(invalidation.get("node"))) {
+            return;
+        }
+        LayeredCache cache = caches.get(String.valueOf(invalidation.get("cache")));
+        if (cache != null) {
+            cache.evictLocal(invalidation.get("key"));
+        }
+    }
+}
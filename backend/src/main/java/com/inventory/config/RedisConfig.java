@@ -1,5 +1,8 @@
 package com.inventory.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +11,8 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,12 +21,24 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    @Value("${inventory.cache.local.enabled:true}")
+    private boolean localCacheEnabled;
+
+    @Value("${inventory.cache.local.max-size:10000}")
+    private long localCacheMaxSize;
+
+    @Value("${inventory.cache.local.max-ttl:5m}")
+    private Duration localCacheMaxTtl;
+
     @Bean
     public ObjectMapper redisObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -49,45 +66,74 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, RedisTemplate<String, Object> redisTemplate,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
         // Default configuration with custom ObjectMapper
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10)) // 10 minutes default TTL
+                .entryTtl(DEFAULT_TTL) // 10 minutes default TTL
                 .serializeKeysWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
                         .fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
                         .fromSerializer(new GenericJackson2JsonRedisSerializer(redisObjectMapper())));
 
-        // Specific cache configurations with different TTLs
-        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        // Specific cache TTLs
+        Map<String, Duration> cacheTtls = new LinkedHashMap<>();
         
         // Inventory cache - 5 minutes (frequent updates)
-        cacheConfigurations.put("inventory", 
-            defaultConfig.entryTtl(Duration.ofMinutes(5)));
+        cacheTtls.put("inventory", Duration.ofMinutes(5));
             
         // Products cache - 30 minutes (relatively stable)
-        cacheConfigurations.put("products", 
-            defaultConfig.entryTtl(Duration.ofMinutes(30)));
+        cacheTtls.put("products", Duration.ofMinutes(30));
             
         // Stores cache - 1 hour (very stable)
-        cacheConfigurations.put("stores", 
-            defaultConfig.entryTtl(Duration.ofHours(1)));
+        cacheTtls.put("stores", Duration.ofHours(1));
             
         // Low stock cache - 2 minutes (critical data)
-        cacheConfigurations.put("low-stock", 
-            defaultConfig.entryTtl(Duration.ofMinutes(2)));
+        cacheTtls.put("low-stock", Duration.ofMinutes(2));
             
         // Metrics cache - 1 minute (dashboard data)
-        cacheConfigurations.put("metrics", 
-            defaultConfig.entryTtl(Duration.ofMinutes(1)));
+        cacheTtls.put("metrics", Duration.ofMinutes(1));
+            
+        // Inventory page totals - 1 minute (returned as estimates)
+        cacheTtls.put("inventory-count", Duration.ofMinutes(1));
             
         // Transfer state cache - 30 minutes (saga state)
-        cacheConfigurations.put("transfer-state", 
-            defaultConfig.entryTtl(Duration.ofMinutes(30)));
+        cacheTtls.put("transfer-state", Duration.ofMinutes(30));
+
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        cacheTtls.forEach((name, ttl) -> cacheConfigurations.put(name, defaultConfig.entryTtl(ttl)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
+                // Hit/miss/eviction counts for cache.* metrics
+                .enableStatistics()
                 .build();
+        if (!localCacheEnabled) {
+            return redisCacheManager;
+        }
+        redisCacheManager.afterPropertiesSet();
+
+        // L1 entries never outlive their Redis counterpart and are capped so a lost
+        // invalidation broadcast cannot keep a stale value around for long
+        Map<String, Duration> localTtls = new HashMap<>();
+        cacheTtls.forEach((name, ttl) -> localTtls.put(name, min(ttl, localCacheMaxTtl)));
+        return new LayeredCacheManager(redisCacheManager, redisTemplate, localTtls,
+                min(DEFAULT_TTL, localCacheMaxTtl), localCacheMaxSize, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof LayeredCacheManager layeredCacheManager) {
+            container.addMessageListener(layeredCacheManager, new ChannelTopic(LayeredCacheManager.INVALIDATION_CHANNEL));
+        }
+        return container;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.inventory.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.retry.RetryCallback;
@@ -17,6 +19,8 @@ import java.util.Collections;
 @EnableRetry
 public class SqliteRetryConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SqliteRetryConfig.class);
+
     @Bean
     public RetryTemplate sqliteRetryTemplate() {
         RetryTemplate retryTemplate = new RetryTemplate();
@@ -41,8 +45,7 @@ public class SqliteRetryConfig {
                         RetryCallback<T, E> callback, Throwable throwable) {
                     if (throwable.getMessage() != null && 
                         throwable.getMessage().contains("database is locked")) {
-                        System.out.println("🔄 SQLite retry attempt " + context.getRetryCount() + 
-                                         " due to lock: " + throwable.getMessage());
+                        log.info("SQLite retry attempt {} due to lock: {}", context.getRetryCount(), throwable.getMessage());
                     }
                 }
             }
@@ -4,7 +4,10 @@ package com.inventory.consumer;
 import com.inventory.event.InventoryAuditEvent;
 import com.inventory.model.SyncEvent;
 import com.inventory.repository.SyncEventRepository;
+import com.inventory.logging.EventSamplingFilter;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,18 +21,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Service
 public class InventoryAuditConsumer {
 
+    private static final Logger log = LoggerFactory.getLogger(InventoryAuditConsumer.class);
+
     @Autowired
     private SyncEventRepository syncEventRepository;
     
     @Autowired
     private ObjectMapper objectMapper;
 
-    @KafkaListener(topics = {"notifications.events"}, groupId = "inventory-service")
+    @KafkaListener(id = "inventory-audit", clientIdPrefix = "inventory-audit",
+            topics = {"notifications.events"}, groupId = "inventory-service", concurrency = "1")
     @Transactional
     public void handleInventoryAudit(ConsumerRecord<String, InventoryAuditEvent> record, Acknowledgment ack) {
         InventoryAuditEvent event = record.value();
         try {
-            System.out.println("📝 Processing inventory audit event: " + event.getEventId() + " - Action: " + event.getAction());
+            log.debug("Processing inventory audit event {} - action {}", event.getEventId(), event.getAction());
             
             // Create audit record in sync_events table for persistence
             SyncEvent auditRecord = new SyncEvent();
@@ -46,10 +52,10 @@ public class InventoryAuditConsumer {
 
             if (ack != null) ack.acknowledge();
             
-            System.out.println("✅ Successfully processed audit event: " + event.getEventId());
+            log.info(EventSamplingFilter.EVENT, "Processed audit event {} - action {}", event.getEventId(), event.getAction());
 
         } catch (Exception e) {
-            System.err.println("❌ Failed to process audit event: " + event.getEventId() + " - " + e.getMessage());
+            log.error("Failed to process audit event {}: {}", event.getEventId(), e.getMessage());
             if (ack != null) {
                 try { ack.acknowledge(); } catch (Exception ignore) {}
             }
@@ -3,54 +3,61 @@ package com.inventory.consumer;
 // RabbitMQConfig removed after Kafka migration
 import com.inventory.event.InventoryTransferEvent;
 import com.inventory.saga.InventoryTransferSaga;
+import com.inventory.service.ProcessedEventStore;
+import com.inventory.logging.EventSamplingFilter;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 
 @Service
 public class InventoryTransferConsumer {
 
+    private static final Logger log = LoggerFactory.getLogger(InventoryTransferConsumer.class);
+
     @Autowired
     private InventoryTransferSaga transferSaga;
 
-    @KafkaListener(topics = {"transfers.commands"}, groupId = "inventory-service")
+    @Autowired
+    private ProcessedEventStore processedEvents;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @KafkaListener(id = "inventory-transfers", clientIdPrefix = "inventory-transfers",
+            topics = {"transfers.commands"}, groupId = "inventory-service")
     public void handleInventoryTransfer(ConsumerRecord<String, InventoryTransferEvent> record, Acknowledgment ack) { 
         InventoryTransferEvent event = record.value();
         try {
-            System.out.println("🔄 Processing inventory transfer event: " + event.getEventId() + " - Type: " + event.getTransferType());
+            log.debug("Processing inventory transfer event {} - type {}", event.getEventId(), event.getTransferType());
             
-            // Route to appropriate saga step based on transfer type
-            switch (event.getTransferType().toUpperCase()) {
-                case "START":
-                    transferSaga.startTransfer(event);
-                    break;
-                case "RESERVE":
-                    transferSaga.reserveInventory(event);
-                    break;
-                case "CONFIRM":
-                    transferSaga.confirmTransfer(event);
-                    break;
-                case "ROLLBACK":
-                    transferSaga.rollbackTransfer(event);
-                    break;
-                default:
-                    throw new RuntimeException("Unknown transfer type: " + event.getTransferType());
-            }
-
-            if (ack != null) ack.acknowledge();
+            // The saga step joins this transaction, so its writes, the saga's progress, the next command
+            // (outbox) and the processed-event row commit together
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (processedEvents.isDuplicate(event.getEventId())) {
+                    log.debug("Skipping already processed transfer event {}", event.getEventId());
+                    return;
+                }
+                transferSaga.handleCommand(event);
+                processedEvents.markProcessed(event.getEventId());
+            });
             
-            System.out.println("✅ Successfully processed transfer event: " + event.getEventId());
+            log.info(EventSamplingFilter.EVENT, "Processed transfer event {} - type {}", event.getEventId(), event.getTransferType());
 
-        } catch (Exception e) {
-            System.err.println("❌ Failed to process transfer event: " + event.getEventId() + " - " + e.getMessage());
-            if (ack != null) {
-                try { ack.nack(1000); } catch (Exception ignore) {}
-            }
+        } catch (RuntimeException e) {
+            // Rolled back; a failed step starts compensation, anything else goes to the retry topics (or the DLQ)
+            log.warn("Failed to process transfer event {}: {}", event.getEventId(), e.getMessage());
+            transferSaga.failCommand(event, e);
         }
+
+        if (ack != null) ack.acknowledge();
     }
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+package com.inventory.consumer;
+
+import com.inventory.event.InventoryAuditEvent;
+import com.inventory.event.InventoryChangedEvent;
+import com.inventory.event.InventoryUpdateEvent;
+import com.inventory.model.Inventory;
+import com.inventory.model.Transaction;
+import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StoreRepository;
+import com.inventory.repository.TransactionRepository;
+import com.inventory.service.ProcessedEventStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class InventoryUpdateBatchProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryUpdateBatchProcessor.class);
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Autowired
+    private ProcessedEventStore processedEvents;
+    @Autowired
+    private InventoryEventPublisher eventPublisher;
+
+    // Applies one poll worth of stock commands in a single transaction. Events are grouped by
+    // (store, product) so each row is loaded once and flushed once with its net quantity, while
+    // every event still gets its own transactions row (inserted through Hibernate JDBC batching).
+    // Applied event ids and the audit records are written in the same transaction, so a redelivered
+    // poll is a no-op and a rolled-back one announces nothing.
+    // An event that cannot be applied (unknown store or product, stale version, broken stock rule)
+    // rolls the whole batch back with a BatchListenerFailedException carrying the index of the
+    // earliest such event; the events ahead of it apply the same way when replayed on their own.
+    @Transactional
+    public List<AppliedUpdate> applyBatch(List<InventoryUpdateEvent> events) {
+        Map<String, List<Integer>> indexesByKey = new LinkedHashMap<>();
+        Set<Long> storeIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        Set<String> seenEventIds = new HashSet<>();
+        // Redelivered records (already committed, or repeated within this poll) are dropped up front;
+        // the committed ones are found with one lookup for the whole poll
+        Set<String> processed = processedEvents.findDuplicates(events.stream().map(InventoryUpdateEvent::getEventId).toList());
+        for (int index = 0; index < events.size(); index++) {
+            InventoryUpdateEvent event = events.get(index);
+            if (event.getEventId() != null
+                    && (processed.contains(event.getEventId()) || !seenEventIds.add(event.getEventId()))) {
+                log.debug("Skipping already processed inventory update {}", event.getEventId());
+                continue;
+            }
+            indexesByKey.computeIfAbsent(key(event.getStoreId(), event.getProductId()), k -> new ArrayList<>()).add(index);
+            storeIds.add(event.getStoreId());
+            productIds.add(event.getProductId());
+        }
+        if (indexesByKey.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Inventory> inventoryByKey = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findByStoreIdInAndProductIdInWithDetails(storeIds, productIds)) {
+            inventoryByKey.put(key(inventory.getStore().getId(), inventory.getProduct().getId()), inventory);
+        }
+
+        List<Transaction> transactions = new ArrayList<>(events.size());
+        List<String> appliedEventIds = new ArrayList<>(events.size());
+        List<AppliedUpdate> applied = new ArrayList<>(indexesByKey.size());
+        // Groups are applied independently, so the earliest failure across all of them is kept
+        int failedIndex = events.size();
+        RuntimeException failure = null;
+
+        for (List<Integer> group : indexesByKey.values()) {
+            InventoryUpdateEvent first = events.get(group.get(0));
+            Inventory inventory = inventoryByKey.get(key(first.getStoreId(), first.getProductId()));
+            boolean isNew = inventory == null;
+            if (isNew) {
+                var store = storeRepository.findById(first.getStoreId()).orElse(null);
+                var product = productRepository.findById(first.getProductId()).orElse(null);
+                if (store == null || product == null) {
+                    if (group.get(0) < failedIndex) {
+                        failedIndex = group.get(0);
+                        failure = new RuntimeException(store == null
+                                ? "Store not found: " + first.getStoreId()
+                                : "Product not found: " + first.getProductId());
+                    }
+                    continue;
+                }
+                inventory = new Inventory(store, product, 0);
+            }
+
+            int oldQuantity = inventory.getQuantity();
+            Long loadedVersion = inventory.getVersion();
+            int appliedCount = 0;
+            for (int index : group) {
+                if (index > failedIndex) {
+                    break;
+                }
+                InventoryUpdateEvent event = events.get(index);
+                try {
+                    // A versioned command holds against the row as the events before it in this batch left it,
+                    // i.e. the version it would carry had each of them been applied in its own transaction
+                    Long currentVersion = runningVersion(loadedVersion, appliedCount);
+                    if (event.getVersion() != null && !event.getVersion().equals(currentVersion)) {
+                        throw new RuntimeException("Inventory was modified by another transaction. Expected version: "
+                                + event.getVersion() + ", actual: " + currentVersion);
+                    }
+                    int recordedQuantity = Math.abs(event.getQuantityChange());
+                    Transaction.TransactionType type = applyOperation(inventory, event);
+                    transactions.add(new Transaction(
+                            inventory.getStore(),
+                            inventory.getProduct(),
+                            type,
+                            recordedQuantity,
+                            event.getReferenceId(),
+                            event.getNotes()
+                    ));
+                    appliedEventIds.add(event.getEventId());
+                    appliedCount++;
+                } catch (RuntimeException e) {
+                    failedIndex = index;
+                    failure = e;
+                    break;
+                }
+            }
+
+            if (appliedCount == 0) {
+                continue;
+            }
+            if (isNew) {
+                inventory = inventoryRepository.save(inventory);
+            }
+            if (appliedCount > 1) {
+                // The row is written once for the whole group; catch its version up with the events it absorbed
+                inventoryRepository.flush();
+                inventoryRepository.incrementVersion(inventory.getId(), appliedCount - 1);
+            }
+            applied.add(new AppliedUpdate(first.getStoreId(), first.getProductId(), oldQuantity,
+                    inventory.getQuantity(), appliedCount));
+            applicationEventPublisher.publishEvent(new InventoryChangedEvent(
+                    first.getStoreId(), first.getProductId(), oldQuantity, inventory.getQuantity()));
+            // One audit record per touched row, committed with the batch through the outbox
+            eventPublisher.enqueueInventoryAudit(new InventoryAuditEvent(
+                    "UPDATE",
+                    first.getStoreId(),
+                    first.getProductId(),
+                    oldQuantity,
+                    inventory.getQuantity()
+            ));
+        }
+
+        if (failure != null) {
+            log.warn("Rejected inventory update {} at batch index {}: {}",
+                    events.get(failedIndex).getEventId(), failedIndex, failure.getMessage());
+            throw new BatchListenerFailedException(failure.getMessage(), failure, failedIndex);
+        }
+
+        transactionRepository.saveAll(transactions);
+        processedEvents.markProcessed(appliedEventIds);
+        return applied;
+    }
+
+    // Version the row would carry after appliedCount single-record updates: every update bumps it once,
+    // and a row created by the batch starts at 0 with its first update
+    private static Long runningVersion(Long loadedVersion, int appliedCount) {
+        if (loadedVersion == null) {
+            return appliedCount == 0 ? null : (long) appliedCount - 1;
+        }
+        return loadedVersion + appliedCount;
+    }
+
+    // Shared by the single-record and batch listeners so both interpret operations identically
+    static Transaction.TransactionType applyOperation(Inventory inventory, InventoryUpdateEvent event) {
+        switch (event.getOperation().toUpperCase()) {
+            case "ADD":
+                inventory.adjustQuantity(event.getQuantityChange());
+                return Transaction.TransactionType.ADJUSTMENT;
+            case "SUBTRACT":
+                inventory.adjustQuantity(-Math.abs(event.getQuantityChange()));
+                return Transaction.TransactionType.ADJUSTMENT;
+            case "SET":
+                inventory.setQuantity(event.getNewQuantity());
+                return Transaction.TransactionType.ADJUSTMENT;
+            case "STOCK_IN":
+                inventory.adjustQuantity(Math.abs(event.getQuantityChange()));
+                return Transaction.TransactionType.STOCK_IN;
+            case "STOCK_OUT":
+                inventory.adjustQuantity(-Math.abs(event.getQuantityChange()));
+                return Transaction.TransactionType.STOCK_OUT;
+            case "RESERVE":
+                inventory.adjustQuantity(-Math.abs(event.getQuantityChange()));
+                return Transaction.TransactionType.RESERVATION;
+            case "RELEASE":
+                inventory.adjustQuantity(Math.abs(event.getQuantityChange()));
+                return Transaction.TransactionType.RELEASE;
+            default:
+                throw new RuntimeException("Unknown operation: " + event.getOperation());
+        }
+    }
+
+    private static String key(Long storeId, Long productId) {
+        return storeId + ":" + productId;
+    }
+
+    public static class AppliedUpdate {
+        private final Long storeId;
+        private final Long productId;
+        private final int oldQuantity;
+        private final int newQuantity;
+        private final int eventCount;
+
+        AppliedUpdate(Long storeId, Long productId, int oldQuantity, int newQuantity, int eventCount) {
+            this.storeId = storeId;
+            this.productId = productId;
+            this.oldQuantity = oldQuantity;
+            this.newQuantity = newQuantity;
+            this.eventCount = eventCount;
+        }
+
+        public Long getStoreId() { return storeId; }
+        public Long getProductId() { return productId; }
+        public int getOldQuantity() { return oldQuantity; }
+        public int getNewQuantity() { return newQuantity; }
+        public int getEventCount() { return eventCount; }
+    }
+}
@@ -1,6 +1,10 @@
 package com.inventory.consumer;
 
+import com.inventory.event.InventoryAuditEvent;
+import com.inventory.event.InventoryChangedEvent;
 import com.inventory.event.InventoryUpdateEvent;
+import com.inventory.logging.EventLogContext;
+import com.inventory.logging.EventSamplingFilter;
 import com.inventory.model.Inventory;
 import com.inventory.model.Transaction;
 import com.inventory.repository.InventoryRepository;
@@ -8,16 +12,32 @@ import com.inventory.repository.ProductRepository;
 import com.inventory.repository.StoreRepository;
 import com.inventory.repository.TransactionRepository;
 import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.service.InventoryLedger;
+import com.inventory.service.ProcessedEventStore;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 @Service
-public class InventoryUpdateConsumer {
+public class InventoryUpdateConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryUpdateConsumer.class);
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(InventoryUpdateConsumer.class);
 
     @Autowired
     private InventoryRepository inventoryRepository;
@@ -30,14 +50,33 @@ public class InventoryUpdateConsumer {
     @Autowired
     private InventoryEventPublisher eventPublisher;
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private InventoryUpdateBatchProcessor batchProcessor;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Autowired
+    private InventoryLedger ledger;
+    @Autowired
+    private ProcessedEventStore processedEvents;
 
-    @KafkaListener(topics = {"inventory.commands.stock"}, groupId = "inventory-service")
+    // Only one of the two listeners runs; inventory.kafka.batch.enabled switches to the batch path
+    @KafkaListener(id = "inventory-updates", clientIdPrefix = "inventory-updates",
+            topics = {"inventory.commands.stock"}, groupId = "inventory-service",
+            autoStartup = "#{!${inventory.kafka.batch.enabled:false}}")
     @Transactional
     public void handleInventoryUpdate(ConsumerRecord<String, InventoryUpdateEvent> record, Acknowledgment ack) {
         InventoryUpdateEvent event = record.value();
+        if (ledger.isEnabled()) {
+            applyToLedger(record);
+            if (ack != null) ack.acknowledge();
+            return;
+        }
         try {
-            System.out.println("🔄 Processing inventory update event (Kafka): " + event.getEventId());
+            log.debug("Processing inventory update event {}", event.getEventId());
+            if (processedEvents.isDuplicate(event.getEventId())) {
+                log.debug("Skipping already processed inventory update {}", event.getEventId());
+                if (ack != null) ack.acknowledge();
+                return;
+            }
 
             Inventory inventory = inventoryRepository
                     .findByStoreIdAndProductId(event.getStoreId(), event.getProductId())
@@ -55,41 +94,11 @@ public class InventoryUpdateConsumer {
             }
 
             int oldQuantity = inventory.getQuantity();
-            Transaction.TransactionType transactionType;
-            switch (event.getOperation().toUpperCase()) {
-                case "ADD":
-                    inventory.adjustQuantity(event.getQuantityChange());
-                    transactionType = Transaction.TransactionType.ADJUSTMENT;
-                    break;
-                case "SUBTRACT":
-                    inventory.adjustQuantity(-Math.abs(event.getQuantityChange()));
-                    transactionType = Transaction.TransactionType.ADJUSTMENT;
-                    break;
-                case "SET":
-                    inventory.setQuantity(event.getNewQuantity());
-                    transactionType = Transaction.TransactionType.ADJUSTMENT;
-                    break;
-                case "STOCK_IN":
-                    inventory.adjustQuantity(Math.abs(event.getQuantityChange()));
-                    transactionType = Transaction.TransactionType.STOCK_IN;
-                    break;
-                case "STOCK_OUT":
-                    inventory.adjustQuantity(-Math.abs(event.getQuantityChange()));
-                    transactionType = Transaction.TransactionType.STOCK_OUT;
-                    break;
-                case "RESERVE":
-                    inventory.adjustQuantity(-Math.abs(event.getQuantityChange()));
-                    transactionType = Transaction.TransactionType.RESERVATION;
-                    break;
-                case "RELEASE":
-                    inventory.adjustQuantity(Math.abs(event.getQuantityChange()));
-                    transactionType = Transaction.TransactionType.RELEASE;
-                    break;
-                default:
-                    throw new RuntimeException("Unknown operation: " + event.getOperation());
-            }
+            Transaction.TransactionType transactionType = InventoryUpdateBatchProcessor.applyOperation(inventory, event);
 
             inventory = inventoryRepository.save(inventory);
+            applicationEventPublisher.publishEvent(new InventoryChangedEvent(
+                    event.getStoreId(), event.getProductId(), oldQuantity, inventory.getQuantity()));
 
             Transaction transaction = new Transaction(
                     inventory.getStore(),
@@ -100,25 +109,140 @@ public class InventoryUpdateConsumer {
                     event.getNotes()
             );
             transactionRepository.save(transaction);
+            processedEvents.markProcessed(event.getEventId());
 
-            eventPublisher.publishAuditEvent(
+            // Audit record committed with the update through the outbox
+            eventPublisher.enqueueInventoryAudit(new InventoryAuditEvent(
                     "UPDATE",
                     event.getStoreId(),
                     event.getProductId(),
                     oldQuantity,
                     inventory.getQuantity()
-            );
+            ));
 
-            messagingTemplate.convertAndSend("/topic/inventory-updates", inventory);
+            if (ack != null) ack.acknowledge();
+            log.info(EventSamplingFilter.EVENT, "Processed inventory update {}: store {} product {} qty {} -> {}",
+                    event.getEventId(), event.getStoreId(), event.getProductId(), oldQuantity, inventory.getQuantity());
+        } catch (RuntimeException e) {
+            // Rolled back; the container's error handler parks the record on a retry topic (or the DLQ)
+            log.warn("Failed to process inventory update event {}: {}", event.getEventId(), e.getMessage());
+            throw e;
+        }
+    }
 
+    @KafkaListener(id = "inventory-updates-batch", clientIdPrefix = "inventory-updates-batch",
+            topics = {"inventory.commands.stock"}, groupId = "inventory-service",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${inventory.kafka.batch.enabled:false}")
+    public void handleInventoryUpdateBatch(List<ConsumerRecord<String, InventoryUpdateEvent>> records, Acknowledgment ack) {
+        // A record whose payload could not be read reaches the listener with a null value; the batch is
+        // applied up to it and the error handler sends it to inventory.dlq by index
+        int readable = readablePrefix(records);
+        if (ledger.isEnabled()) {
+            for (int index = 0; index < readable; index++) {
+                try {
+                    applyToLedger(records.get(index));
+                } catch (RuntimeException e) {
+                    // The records ahead of it are in the ledger; the error handler recovers this one
+                    throw new BatchListenerFailedException(e.getMessage(), e, index);
+                }
+            }
+            rejectUnreadable(records, readable);
             if (ack != null) ack.acknowledge();
-            System.out.println("✅ Successfully processed inventory update (Kafka): " + event.getEventId() +
-                    " - Qty: " + oldQuantity + " -> " + inventory.getQuantity());
-        } catch (Exception e) {
-            System.err.println("❌ Failed to process inventory update event (Kafka): " + event.getEventId() + " - " + e.getMessage());
-            if (ack != null) {
-                try { ack.nack(1000); } catch (Exception ignore) {}
+            log.info(EventSamplingFilter.EVENT, "Applied inventory update batch to ledger: {} records", records.size());
+            return;
+        }
+        List<InventoryUpdateEvent> events = records.subList(0, readable).stream().map(ConsumerRecord::value).toList();
+        try {
+            List<InventoryUpdateBatchProcessor.AppliedUpdate> applied;
+            try {
+                applied = batchProcessor.applyBatch(events);
+            } catch (BatchListenerFailedException e) {
+                // Rolled back as a whole: commit the events ahead of the failed one, then let the error handler
+                // recover that record (retry topic or DLQ) and redeliver the ones after it
+                batchProcessor.applyBatch(events.subList(0, e.getIndex()));
+                throw e;
             }
+
+            rejectUnreadable(records, readable);
+            if (ack != null) ack.acknowledge();
+            log.info(EventSamplingFilter.EVENT, "Processed inventory update batch: {} records -> {} inventory rows",
+                    records.size(), applied.size());
+        } catch (BatchListenerFailedException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // No single record to blame: the error handler moves every record of the poll to the retry topics
+            log.warn("Failed to process inventory update batch of {} records: {}", records.size(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private static int readablePrefix(List<ConsumerRecord<String, InventoryUpdateEvent>> records) {
+        for (int index = 0; index < records.size(); index++) {
+            if (records.get(index).value() == null) {
+                return index;
+            }
+        }
+        return records.size();
+    }
+
+    private void rejectUnreadable(List<ConsumerRecord<String, InventoryUpdateEvent>> records, int index) {
+        if (index == records.size()) {
+            return;
+        }
+        ConsumerRecord<String, InventoryUpdateEvent> record = records.get(index);
+        Exception cause = SerializationUtils.getExceptionFromHeader(
+                record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        if (cause == null) {
+            cause = new IllegalArgumentException("Empty inventory update payload");
+        }
+        log.warn("Unreadable inventory update at {}-{}@{}: {}",
+                record.topic(), record.partition(), record.offset(), cause.getMessage());
+        throw new BatchListenerFailedException(cause.getMessage(), cause, index);
+    }
+
+    // Ledger path: the change is durable once the ledger flushes it together with this record's
+    // offset, so the Kafka commit here only advances the group position
+    private void applyToLedger(ConsumerRecord<String, InventoryUpdateEvent> record) {
+        InventoryUpdateEvent event = record.value();
+        if (event == null) {
+            return;
+        }
+        try (var ignored = EventLogContext.open(event)) {
+            // No table lookup per record: the ledger remembers every id it applies, and after a restart
+            // consumption resumes at the checkpoint flushed together with those ids
+            if (processedEvents.isRecentlyProcessed(event.getEventId())) {
+                log.debug("Skipping already processed inventory update {} (ledger)", event.getEventId());
+                return;
+            }
+            // Audited by the ledger when the change is flushed
+            ledger.apply(event, record.partition(), record.offset());
+        } catch (RuntimeException e) {
+            // Not in the ledger and not in its checkpoint; the error handler parks the record
+            log.warn("Rejected inventory update {} (ledger): {}", event.getEventId(), e.getMessage());
+            throw e;
+        }
+    }
+
+    // Resume from the ledger checkpoint so anything applied in memory but not yet flushed is replayed
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (!ledger.isEnabled()) {
+            return;
+        }
+        Map<Integer, Long> checkpoints = ledger.checkpoints(InventoryLedger.TOPIC);
+        assignments.keySet().forEach(partition -> {
+            Long checkpoint = checkpoints.get(partition.partition());
+            if (InventoryLedger.TOPIC.equals(partition.topic()) && checkpoint != null) {
+                callback.seek(partition.topic(), partition.partition(), checkpoint + 1);
+            }
+        });
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        if (ledger.isEnabled()) {
+            ledger.flush();
         }
     }
-}
\ No newline at end of file
+}
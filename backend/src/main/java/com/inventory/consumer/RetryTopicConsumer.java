@@ -0,0 +1,55 @@
+package com.inventory.consumer;
+
+import com.inventory.config.KafkaConfig;
+import com.inventory.publisher.InventoryEventPublisher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+// Holds records on the retry topics until their stage delay has passed, then sends them back to the
+// topic they failed on. Every stage has its own container: records in one stage share the same delay,
+// so the head of each partition is always the next one due and parking it (nack) delays nothing else.
+@Service
+public class RetryTopicConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryTopicConsumer.class);
+
+    @Autowired
+    private KafkaTemplate<String, Object> deadLetterKafkaTemplate;
+
+    @KafkaListener(id = "inventory-retry-1s", clientIdPrefix = "inventory-retry-1s",
+            topics = "inventory.retry.1s", groupId = "inventory-retry", containerFactory = "retryKafkaListenerContainerFactory")
+    @KafkaListener(id = "inventory-retry-10s", clientIdPrefix = "inventory-retry-10s",
+            topics = "inventory.retry.10s", groupId = "inventory-retry", containerFactory = "retryKafkaListenerContainerFactory")
+    @KafkaListener(id = "inventory-retry-1m", clientIdPrefix = "inventory-retry-1m",
+            topics = "inventory.retry.1m", groupId = "inventory-retry", containerFactory = "retryKafkaListenerContainerFactory")
+    public void handleRetry(ConsumerRecord<String, byte[]> record, Acknowledgment ack) throws Exception {
+        Header due = record.headers().lastHeader(KafkaConfig.RETRY_DUE_HEADER);
+        long wait = due != null ? ByteBuffer.wrap(due.value()).getLong() - System.currentTimeMillis() : 0;
+        if (wait > 0) {
+            ack.nack(Duration.ofMillis(wait));
+            return;
+        }
+
+        Header origin = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        String target = origin != null
+                ? new String(origin.value(), StandardCharsets.UTF_8)
+                : InventoryEventPublisher.DLQ_TOPIC;
+        deadLetterKafkaTemplate.send(new ProducerRecord<>(target, null, record.key(), record.value(), record.headers())).get();
+        ack.acknowledge();
+        log.info("Retrying record from {} on {} (attempt {})", record.topic(), target,
+                KafkaConfig.retryAttempt(record.headers()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.inventory.controller;
+
+import com.inventory.service.DeadLetterReplayService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/dlq")
+@Tag(name = "Dead Letters", description = "APIs for inspecting and replaying the inventory.dlq topic")
+public class DeadLetterController {
+
+    @Autowired
+    private DeadLetterReplayService replayService;
+
+    @GetMapping
+    @Operation(summary = "Describe DLQ", description = "Offset range and record count per inventory.dlq partition")
+    public ResponseEntity<Map<String, Object>> describe() {
+        return ResponseEntity.ok(replayService.describe());
+    }
+
+    @PostMapping("/replay")
+    @Operation(summary = "Replay DLQ range", description = "Send records in [fromOffset, toOffset) of a DLQ partition back to the topics they failed on; " +
+            "responds 502 with the unacknowledged offsets in failedOffsets when some sends failed")
+    public ResponseEntity<Map<String, Object>> replay(
+            @Parameter(description = "DLQ partition", required = true)
+            @RequestParam int partition,
+            @Parameter(description = "First offset to replay (inclusive)", required = true)
+            @RequestParam long fromOffset,
+            @Parameter(description = "Offset to stop at (exclusive)", required = true)
+            @RequestParam long toOffset) {
+        try {
+            Map<String, Object> result = replayService.replay(partition, fromOffset, toOffset);
+            // Some sends were not acknowledged: the body lists their offsets so they can be replayed again
+            if (!((List<?>) result.get("failedOffsets")).isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(result);
+            }
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.inventory.controller;
 
+import com.inventory.dto.BulkTransferRequest;
 import com.inventory.dto.InventoryDTO;
+import com.inventory.dto.InventoryFilter;
 import com.inventory.dto.InventoryUpdateRequest;
 import com.inventory.service.InventoryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,10 +25,35 @@ public class InventoryController {
     private InventoryService inventoryService;
 
     @GetMapping
-    @Operation(summary = "Get all inventory", description = "Retrieve complete inventory across all stores")
-    public ResponseEntity<List<InventoryDTO>> getAllInventory() {
-        List<InventoryDTO> inventory = inventoryService.getAllInventory();
-        return ResponseEntity.ok(inventory);
+    @Operation(summary = "Get inventory", description = "Retrieve inventory across all stores one page at a time, optionally filtered and sorted by the database")
+    public ResponseEntity<?> getInventory(
+            @Parameter(description = "Filter by store ID")
+            @RequestParam(required = false) Long storeId,
+            @Parameter(description = "Filter by product category")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Filter by SKU prefix")
+            @RequestParam(required = false) String skuPrefix,
+            @Parameter(description = "Case-insensitive text matched against product name, SKU and store name")
+            @RequestParam(required = false) String search,
+            @Parameter(description = "Minimum quantity (inclusive)")
+            @RequestParam(required = false) Integer minQuantity,
+            @Parameter(description = "Maximum quantity (inclusive)")
+            @RequestParam(required = false) Integer maxQuantity,
+            @Parameter(description = "Only rows with unreserved stock")
+            @RequestParam(required = false, defaultValue = "false") boolean availableOnly,
+            @Parameter(description = "property[,asc|desc] with property one of id, quantity, availableQuantity, reservedQuantity, storeName, productName, productSku, productCategory (default: id,asc)")
+            @RequestParam(required = false, defaultValue = "id") String sort,
+            @Parameter(description = "Token returned as nextPageToken by the previous page")
+            @RequestParam(required = false) String pageToken,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        InventoryFilter filter = new InventoryFilter(storeId, category, skuPrefix, minQuantity, maxQuantity, availableOnly);
+        filter.setSearch(search);
+        try {
+            return ResponseEntity.ok(inventoryService.getInventoryPage(filter, sort, pageToken, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/store/{storeId}")
@@ -91,11 +118,33 @@ public class InventoryController {
         }
     }
 
+    @PostMapping("/transfer/bulk")
+    @Operation(summary = "Bulk transfer inventory", description = "Transfer many products between two stores in one saga (e.g. store replenishment)")
+    public ResponseEntity<Map<String, Object>> transferInventoryBulk(
+            @Parameter(description = "Source and destination store plus one line per product", required = true)
+            @Valid @RequestBody BulkTransferRequest request) {
+        try {
+            return ResponseEntity.ok(inventoryService.transferInventoryBulk(request));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/transfer/{sagaId}")
+    @Operation(summary = "Get transfer status", description = "Progress of a transfer saga: mode (LOCAL/ASYNC), status and current step")
+    public ResponseEntity<Map<String, Object>> getTransferStatus(
+            @Parameter(description = "Saga ID returned by POST /transfer", required = true)
+            @PathVariable String sagaId) {
+        return inventoryService.getTransferStatus(sagaId)
+                .map(status -> ResponseEntity.ok(status))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/low-stock")
-    @Operation(summary = "Get low stock items", description = "Retrieve inventory items below specified threshold")
+    @Operation(summary = "Get low stock items", description = "Retrieve inventory items below the specified threshold, lowest quantity first")
     public ResponseEntity<List<InventoryDTO>> getLowStockItems(
-            @Parameter(description = "Stock threshold (default: 10)")
-            @RequestParam(required = false, defaultValue = "10") Integer threshold) {
+            @Parameter(description = "Stock threshold (default: each product's own low-stock threshold)")
+            @RequestParam(required = false) Integer threshold) {
         List<InventoryDTO> lowStockItems = inventoryService.getLowStockItems(threshold);
         return ResponseEntity.ok(lowStockItems);
     }
@@ -156,7 +205,7 @@ public class InventoryController {
     }
 
     @PostMapping("/stock-out")
-    @Operation(summary = "Stock Out - Product Exit", description = "Record product exit/sale from store inventory via event-driven processing")
+    @Operation(summary = "Stock Out - Product Exit", description = "Record product exit/sale from store inventory; fails atomically when available stock is insufficient")
     public ResponseEntity<Map<String, String>> stockOut(
             @Parameter(description = "Stock out request", required = true)
             @RequestBody Map<String, Object> stockOutRequest) {
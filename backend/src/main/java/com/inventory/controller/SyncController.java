@@ -26,7 +26,9 @@ public class SyncController {
             @Parameter(description = "Store ID", required = true)
             @PathVariable Long storeId) {
         try {
-            syncService.triggerSync(storeId);
+            if (!syncService.triggerSync(storeId)) {
+                return ResponseEntity.ok(Map.of("message", "Sync already in progress for store " + storeId));
+            }
             return ResponseEntity.ok(Map.of("message", "Sync triggered successfully for store " + storeId));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -36,8 +38,8 @@ public class SyncController {
     @PostMapping("/trigger/global")
     @Operation(summary = "Trigger global sync", description = "Trigger synchronization for all active stores")
     public ResponseEntity<Map<String, String>> triggerGlobalSync() {
-        syncService.triggerGlobalSync();
-        return ResponseEntity.ok(Map.of("message", "Global sync triggered successfully"));
+        int queued = syncService.triggerGlobalSync();
+        return ResponseEntity.ok(Map.of("message", "Global sync triggered successfully for " + queued + " store(s)"));
     }
 
     @GetMapping("/status")
@@ -1,6 +1,7 @@
 package com.inventory.controller;
 
 import com.inventory.dto.TransactionDTO;
+import com.inventory.dto.TransactionFilter;
 import com.inventory.model.Transaction;
 import com.inventory.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -8,11 +9,15 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -23,10 +28,25 @@ public class TransactionController {
     private TransactionService transactionService;
 
     @GetMapping
-    @Operation(summary = "Get all transactions", description = "Retrieve all inventory transactions")
-    public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
-        List<TransactionDTO> transactions = transactionService.getAllTransactions();
-        return ResponseEntity.ok(transactions);
+    @Operation(summary = "Get transactions", description = "Retrieve inventory transactions newest first, one cursor page at a time, optionally filtered")
+    public ResponseEntity<?> getTransactions(
+            @Parameter(description = "Filter by store ID")
+            @RequestParam(required = false) Long storeId,
+            @Parameter(description = "Filter by product ID")
+            @RequestParam(required = false) Long productId,
+            @Parameter(description = "Filter by transaction type")
+            @RequestParam(required = false) Transaction.TransactionType type,
+            @Parameter(description = "Filter by reference ID")
+            @RequestParam(required = false) String referenceId,
+            @Parameter(description = "Start date (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        return page(new TransactionFilter(storeId, productId, type, referenceId, startDate, endDate), cursor, limit);
     }
 
     @GetMapping("/{id}")
@@ -40,84 +60,141 @@ public class TransactionController {
     }
 
     @GetMapping("/store/{storeId}")
-    @Operation(summary = "Get transactions by store", description = "Retrieve all transactions for a specific store")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByStore(
+    @Operation(summary = "Get transactions by store", description = "Retrieve transactions for a specific store, one cursor page at a time")
+    public ResponseEntity<?> getTransactionsByStore(
             @Parameter(description = "Store ID", required = true)
-            @PathVariable Long storeId) {
-        List<TransactionDTO> transactions = transactionService.getTransactionsByStore(storeId);
-        return ResponseEntity.ok(transactions);
+            @PathVariable Long storeId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        return page(new TransactionFilter(storeId, null, null, null, null, null), cursor, limit);
     }
 
     @GetMapping("/product/{productId}")
-    @Operation(summary = "Get transactions by product", description = "Retrieve all transactions for a specific product")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByProduct(
+    @Operation(summary = "Get transactions by product", description = "Retrieve transactions for a specific product, one cursor page at a time")
+    public ResponseEntity<?> getTransactionsByProduct(
             @Parameter(description = "Product ID", required = true)
-            @PathVariable Long productId) {
-        List<TransactionDTO> transactions = transactionService.getTransactionsByProduct(productId);
-        return ResponseEntity.ok(transactions);
+            @PathVariable Long productId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        return page(new TransactionFilter(null, productId, null, null, null, null), cursor, limit);
     }
 
     @GetMapping("/type/{type}")
-    @Operation(summary = "Get transactions by type", description = "Retrieve all transactions of a specific type")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByType(
+    @Operation(summary = "Get transactions by type", description = "Retrieve transactions of a specific type, one cursor page at a time")
+    public ResponseEntity<?> getTransactionsByType(
             @Parameter(description = "Transaction type", required = true)
-            @PathVariable Transaction.TransactionType type) {
-        List<TransactionDTO> transactions = transactionService.getTransactionsByType(type);
-        return ResponseEntity.ok(transactions);
+            @PathVariable Transaction.TransactionType type,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        return page(new TransactionFilter(null, null, type, null, null, null), cursor, limit);
     }
 
     @GetMapping("/reference/{referenceId}")
-    @Operation(summary = "Get transactions by reference ID", description = "Retrieve all transactions with a specific reference ID")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByReferenceId(
+    @Operation(summary = "Get transactions by reference ID", description = "Retrieve transactions with a specific reference ID, one cursor page at a time")
+    public ResponseEntity<?> getTransactionsByReferenceId(
             @Parameter(description = "Reference ID", required = true)
-            @PathVariable String referenceId) {
-        List<TransactionDTO> transactions = transactionService.getTransactionsByReferenceId(referenceId);
-        return ResponseEntity.ok(transactions);
+            @PathVariable String referenceId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        return page(new TransactionFilter(null, null, null, referenceId, null, null), cursor, limit);
     }
 
     @GetMapping("/date-range")
-    @Operation(summary = "Get transactions by date range", description = "Retrieve transactions within a specific date range")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByDateRange(
+    @Operation(summary = "Get transactions by date range", description = "Retrieve transactions within a specific date range, one cursor page at a time")
+    public ResponseEntity<?> getTransactionsByDateRange(
             @Parameter(description = "Start date (yyyy-MM-dd'T'HH:mm:ss)", required = true)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @Parameter(description = "End date (yyyy-MM-dd'T'HH:mm:ss)", required = true)
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<TransactionDTO> transactions = transactionService.getTransactionsByDateRange(startDate, endDate);
-        return ResponseEntity.ok(transactions);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        return page(new TransactionFilter(null, null, null, null, startDate, endDate), cursor, limit);
     }
 
     @GetMapping("/store/{storeId}/date-range")
-    @Operation(summary = "Get store transactions by date range", description = "Retrieve transactions for a specific store within a date range")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByStoreAndDateRange(
+    @Operation(summary = "Get store transactions by date range", description = "Retrieve transactions for a specific store within a date range, one cursor page at a time")
+    public ResponseEntity<?> getTransactionsByStoreAndDateRange(
             @Parameter(description = "Store ID", required = true)
             @PathVariable Long storeId,
             @Parameter(description = "Start date (yyyy-MM-dd'T'HH:mm:ss)", required = true)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @Parameter(description = "End date (yyyy-MM-dd'T'HH:mm:ss)", required = true)
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<TransactionDTO> transactions = transactionService.getTransactionsByStoreAndDateRange(storeId, startDate, endDate);
-        return ResponseEntity.ok(transactions);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        return page(new TransactionFilter(storeId, null, null, null, startDate, endDate), cursor, limit);
     }
 
     @GetMapping("/product/{productId}/date-range")
-    @Operation(summary = "Get product transactions by date range", description = "Retrieve transactions for a specific product within a date range")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByProductAndDateRange(
+    @Operation(summary = "Get product transactions by date range", description = "Retrieve transactions for a specific product within a date range, one cursor page at a time")
+    public ResponseEntity<?> getTransactionsByProductAndDateRange(
             @Parameter(description = "Product ID", required = true)
             @PathVariable Long productId,
             @Parameter(description = "Start date (yyyy-MM-dd'T'HH:mm:ss)", required = true)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @Parameter(description = "End date (yyyy-MM-dd'T'HH:mm:ss)", required = true)
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<TransactionDTO> transactions = transactionService.getTransactionsByProductAndDateRange(productId, startDate, endDate);
-        return ResponseEntity.ok(transactions);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        return page(new TransactionFilter(null, productId, null, null, startDate, endDate), cursor, limit);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export transactions", description = "Stream all transactions in a date range as NDJSON or CSV, oldest first")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "Start date (yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date (yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Restrict the export to one store")
+            @RequestParam(required = false) Long storeId,
+            @Parameter(description = "Output format: ndjson (default) or csv")
+            @RequestParam(required = false, defaultValue = "ndjson") String format) {
+        boolean csv;
+        if ("csv".equalsIgnoreCase(format)) {
+            csv = true;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            csv = false;
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream ->
+                transactionService.exportTransactions(startDate, endDate, storeId, csv, outputStream);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
 
     @GetMapping("/recent")
     @Operation(summary = "Get recent transactions", description = "Retrieve the most recent transactions")
     public ResponseEntity<List<TransactionDTO>> getRecentTransactions(
-            @Parameter(description = "Number of transactions to retrieve (default: 50)")
+            @Parameter(description = "Number of transactions to retrieve (default: 50, max: 500)")
             @RequestParam(required = false, defaultValue = "50") int limit) {
         List<TransactionDTO> transactions = transactionService.getRecentTransactions(limit);
         return ResponseEntity.ok(transactions);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<?> page(TransactionFilter filter, String cursor, int limit) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactions(filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.inventory.dto;
+
+import com.inventory.event.TransferLine;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class BulkTransferRequest {
+    
+    @NotNull(message = "Source store ID is required")
+    private Long fromStoreId;
+    
+    @NotNull(message = "Destination store ID is required")
+    private Long toStoreId;
+    
+    @NotEmpty(message = "At least one transfer line is required")
+    private List<TransferLine> lines;
+    
+    private String notes;
+    
+    // Constructors
+    public BulkTransferRequest() {}
+    
+    public BulkTransferRequest(Long fromStoreId, Long toStoreId, List<TransferLine> lines) {
+        this.fromStoreId = fromStoreId;
+        this.toStoreId = toStoreId;
+        this.lines = lines;
+    }
+    
+    // Getters and Setters
+    public Long getFromStoreId() { return fromStoreId; }
+    public void setFromStoreId(Long fromStoreId) { this.fromStoreId = fromStoreId; }
+    
+    public Long getToStoreId() { return toStoreId; }
+    public void setToStoreId(Long toStoreId) { this.toStoreId = toStoreId; }
+    
+    public List<TransferLine> getLines() { return lines; }
+    public void setLines(List<TransferLine> lines) { this.lines = lines; }
+    
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+}
@@ -43,6 +43,25 @@ public class InventoryDTO {
         this.reservedQuantity = 0;
     }
     
+    // Read paths build the DTO straight from a JPQL constructor expression (InventoryRepository.DETAILS)
+    public InventoryDTO(Long id, Long storeId, Long productId, Integer quantity, Integer reservedQuantity,
+                        LocalDateTime lastUpdated, Long version, String storeName, String storeLocation,
+                        String productName, String productSku, String productCategory) {
+        this.id = id;
+        this.storeId = storeId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.reservedQuantity = reservedQuantity;
+        this.lastUpdated = lastUpdated;
+        this.version = version;
+        this.storeName = storeName;
+        this.storeLocation = storeLocation;
+        this.productName = productName;
+        this.productSku = productSku;
+        this.productCategory = productCategory;
+        this.availableQuantity = quantity - reservedQuantity;
+    }
+    
     // Static factory methods
     public static InventoryDTO fromEntity(Inventory inventory) {
         InventoryDTO dto = new InventoryDTO();
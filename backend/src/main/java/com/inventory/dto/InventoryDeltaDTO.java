@@ -0,0 +1,51 @@
+package com.inventory.dto;
+
+import java.time.LocalDateTime;
+
+// Compact WebSocket frame for /topic/inventory-updates: net change of one store/product
+// row over a broadcast window
+public class InventoryDeltaDTO {
+    
+    private Long storeId;
+    private Long productId;
+    private Integer oldQuantity;
+    private Integer quantity;
+    private Integer delta;
+    private Integer changes; // committed changes folded into this frame
+    private LocalDateTime timestamp;
+    
+    // Constructors
+    public InventoryDeltaDTO() {}
+    
+    public InventoryDeltaDTO(Long storeId, Long productId, Integer oldQuantity, Integer quantity, Integer changes) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.oldQuantity = oldQuantity;
+        this.quantity = quantity;
+        this.delta = quantity - oldQuantity;
+        this.changes = changes;
+        this.timestamp = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+    
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    
+    public Integer getOldQuantity() { return oldQuantity; }
+    public void setOldQuantity(Integer oldQuantity) { this.oldQuantity = oldQuantity; }
+    
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+    
+    public Integer getChanges() { return changes; }
+    public void setChanges(Integer changes) { this.changes = changes; }
+    
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,53 @@
+package com.inventory.dto;
+
+// Optional filters for inventory page queries; null fields are not applied
+public class InventoryFilter {
+    
+    private Long storeId;
+    private String category;
+    private String skuPrefix;
+    private Integer minQuantity;
+    private Integer maxQuantity;
+    private boolean availableOnly;
+    private String search; // case-insensitive substring of product name, SKU or store name
+    
+    // Constructors
+    public InventoryFilter() {}
+    
+    public InventoryFilter(Long storeId, String category, String skuPrefix, Integer minQuantity, Integer maxQuantity,
+                           boolean availableOnly) {
+        this.storeId = storeId;
+        this.category = category;
+        this.skuPrefix = skuPrefix;
+        this.minQuantity = minQuantity;
+        this.maxQuantity = maxQuantity;
+        this.availableOnly = availableOnly;
+    }
+    
+    // Identifies the filtered row set, e.g. for cached counts
+    public String cacheKey() {
+        return storeId + "|" + category + "|" + skuPrefix + "|" + minQuantity + "|" + maxQuantity + "|" + availableOnly + "|" + search;
+    }
+    
+    // Getters and Setters
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public String getSkuPrefix() { return skuPrefix; }
+    public void setSkuPrefix(String skuPrefix) { this.skuPrefix = skuPrefix; }
+    
+    public Integer getMinQuantity() { return minQuantity; }
+    public void setMinQuantity(Integer minQuantity) { this.minQuantity = minQuantity; }
+    
+    public Integer getMaxQuantity() { return maxQuantity; }
+    public void setMaxQuantity(Integer maxQuantity) { this.maxQuantity = maxQuantity; }
+    
+    public boolean isAvailableOnly() { return availableOnly; }
+    public void setAvailableOnly(boolean availableOnly) { this.availableOnly = availableOnly; }
+    
+    public String getSearch() { return search; }
+    public void setSearch(String search) { this.search = search != null && !search.isBlank() ? search.trim() : null; }
+}
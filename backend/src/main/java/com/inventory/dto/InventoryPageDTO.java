@@ -0,0 +1,35 @@
+package com.inventory.dto;
+
+import java.util.List;
+
+// One keyset page of inventory rows in the requested sort order
+public class InventoryPageDTO {
+    
+    private List<InventoryDTO> items;
+    private String nextPageToken; // null on the last page
+    private boolean hasMore;
+    private long totalEstimate; // rows matching the filters when the first page was read
+    
+    // Constructors
+    public InventoryPageDTO() {}
+    
+    public InventoryPageDTO(List<InventoryDTO> items, String nextPageToken, boolean hasMore, long totalEstimate) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+        this.hasMore = hasMore;
+        this.totalEstimate = totalEstimate;
+    }
+    
+    // Getters and Setters
+    public List<InventoryDTO> getItems() { return items; }
+    public void setItems(List<InventoryDTO> items) { this.items = items; }
+    
+    public String getNextPageToken() { return nextPageToken; }
+    public void setNextPageToken(String nextPageToken) { this.nextPageToken = nextPageToken; }
+    
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+    
+    public long getTotalEstimate() { return totalEstimate; }
+    public void setTotalEstimate(long totalEstimate) { this.totalEstimate = totalEstimate; }
+}
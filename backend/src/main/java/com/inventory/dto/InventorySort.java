@@ -0,0 +1,47 @@
+package com.inventory.dto;
+
+import java.util.function.Function;
+
+// Columns GET /api/inventory can be sorted by. Pages are ordered by the column and then by id,
+// so the page token only needs the last row's value and id. All columns are non-null.
+public enum InventorySort {
+    
+    ID("id", "i.id", InventoryDTO::getId, Long::valueOf),
+    QUANTITY("quantity", "i.quantity", InventoryDTO::getQuantity, Integer::valueOf),
+    AVAILABLE_QUANTITY("availableQuantity", "(i.quantity - i.reservedQuantity)", InventoryDTO::getAvailableQuantity, Integer::valueOf),
+    RESERVED_QUANTITY("reservedQuantity", "i.reservedQuantity", InventoryDTO::getReservedQuantity, Integer::valueOf),
+    STORE_NAME("storeName", "s.name", InventoryDTO::getStoreName, value -> value),
+    PRODUCT_NAME("productName", "p.name", InventoryDTO::getProductName, value -> value),
+    PRODUCT_SKU("productSku", "p.sku", InventoryDTO::getProductSku, value -> value),
+    PRODUCT_CATEGORY("productCategory", "p.category", InventoryDTO::getProductCategory, value -> value);
+    
+    private final String property;
+    private final String expression;
+    private final Function<InventoryDTO, Object> value;
+    private final Function<String, Object> parser;
+    
+    InventorySort(String property, String expression, Function<InventoryDTO, Object> value, Function<String, Object> parser) {
+        this.property = property;
+        this.expression = expression;
+        this.value = value;
+        this.parser = parser;
+    }
+    
+    public static InventorySort fromProperty(String property) {
+        for (InventorySort sort : values()) {
+            if (sort.property.equals(property)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort property: " + property);
+    }
+    
+    public String getProperty() { return property; }
+    
+    // JPQL over Inventory i JOIN i.store s JOIN i.product p
+    public String getExpression() { return expression; }
+    
+    public Object valueOf(InventoryDTO row) { return value.apply(row); }
+    
+    public Object parse(String raw) { return parser.apply(raw); }
+}
@@ -2,6 +2,7 @@ package com.inventory.dto;
 
 import com.inventory.model.Product;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 import java.math.BigDecimal;
@@ -25,6 +26,9 @@ public class ProductDTO {
     @NotBlank(message = "SKU is required")
     private String sku;
     
+    @Min(value = 0, message = "Low stock threshold cannot be negative")
+    private Integer lowStockThreshold;
+    
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Integer totalQuantity;
@@ -51,6 +55,7 @@ public class ProductDTO {
         dto.setCategory(product.getCategory());
         dto.setPrice(product.getPrice());
         dto.setSku(product.getSku());
+        dto.setLowStockThreshold(product.getLowStockThreshold());
         dto.setCreatedAt(product.getCreatedAt());
         dto.setUpdatedAt(product.getUpdatedAt());
         return dto;
@@ -64,6 +69,7 @@ public class ProductDTO {
         product.setCategory(this.category);
         product.setPrice(this.price);
         product.setSku(this.sku);
+        product.setLowStockThreshold(this.lowStockThreshold);
         return product;
     }
     
@@ -86,6 +92,9 @@ public class ProductDTO {
     public String getSku() { return sku; }
     public void setSku(String sku) { this.sku = sku; }
     
+    public Integer getLowStockThreshold() { return lowStockThreshold; }
+    public void setLowStockThreshold(Integer lowStockThreshold) { this.lowStockThreshold = lowStockThreshold; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -0,0 +1,26 @@
+package com.inventory.dto;
+
+// Per-product inventory aggregates, produced by a grouped JPQL constructor expression
+public class ProductStockSummary {
+    
+    private final Long productId;
+    private final long totalQuantity;
+    private final long availableQuantity;
+    private final long storeCount;
+    
+    public ProductStockSummary(Long productId, Long totalQuantity, Long availableQuantity, Long storeCount) {
+        this.productId = productId;
+        this.totalQuantity = totalQuantity != null ? totalQuantity : 0;
+        this.availableQuantity = availableQuantity != null ? availableQuantity : 0;
+        this.storeCount = storeCount != null ? storeCount : 0;
+    }
+    
+    public static ProductStockSummary empty(Long productId) {
+        return new ProductStockSummary(productId, 0L, 0L, 0L);
+    }
+    
+    public Long getProductId() { return productId; }
+    public long getTotalQuantity() { return totalQuantity; }
+    public long getAvailableQuantity() { return availableQuantity; }
+    public long getStoreCount() { return storeCount; }
+}
@@ -0,0 +1,25 @@
+package com.inventory.dto;
+
+// One inventory row as the low-stock index keeps it, produced by a JPQL constructor expression
+public class StockLevel {
+    
+    private final Long inventoryId;
+    private final Long storeId;
+    private final Long productId;
+    private final int quantity;
+    private final Integer lowStockThreshold;
+    
+    public StockLevel(Long inventoryId, Long storeId, Long productId, Integer quantity, Integer lowStockThreshold) {
+        this.inventoryId = inventoryId;
+        this.storeId = storeId;
+        this.productId = productId;
+        this.quantity = quantity != null ? quantity : 0;
+        this.lowStockThreshold = lowStockThreshold;
+    }
+    
+    public Long getInventoryId() { return inventoryId; }
+    public Long getStoreId() { return storeId; }
+    public Long getProductId() { return productId; }
+    public int getQuantity() { return quantity; }
+    public Integer getLowStockThreshold() { return lowStockThreshold; }
+}
@@ -0,0 +1,23 @@
+package com.inventory.dto;
+
+// Per-store inventory aggregates, produced by a grouped JPQL constructor expression
+public class StoreStockSummary {
+    
+    private final Long storeId;
+    private final long productCount;
+    private final long totalQuantity;
+    
+    public StoreStockSummary(Long storeId, Long productCount, Long totalQuantity) {
+        this.storeId = storeId;
+        this.productCount = productCount != null ? productCount : 0;
+        this.totalQuantity = totalQuantity != null ? totalQuantity : 0;
+    }
+    
+    public static StoreStockSummary empty(Long storeId) {
+        return new StoreStockSummary(storeId, 0L, 0L);
+    }
+    
+    public Long getStoreId() { return storeId; }
+    public long getProductCount() { return productCount; }
+    public long getTotalQuantity() { return totalQuantity; }
+}
@@ -0,0 +1,48 @@
+package com.inventory.dto;
+
+import com.inventory.model.Transaction;
+
+import java.time.LocalDateTime;
+
+// Optional filters for transaction history queries; null fields are not applied
+public class TransactionFilter {
+    
+    private Long storeId;
+    private Long productId;
+    private Transaction.TransactionType type;
+    private String referenceId;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    
+    // Constructors
+    public TransactionFilter() {}
+    
+    public TransactionFilter(Long storeId, Long productId, Transaction.TransactionType type, String referenceId,
+                             LocalDateTime startDate, LocalDateTime endDate) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.type = type;
+        this.referenceId = referenceId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+    
+    // Getters and Setters
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+    
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    
+    public Transaction.TransactionType getType() { return type; }
+    public void setType(Transaction.TransactionType type) { this.type = type; }
+    
+    public String getReferenceId() { return referenceId; }
+    public void setReferenceId(String referenceId) { this.referenceId = referenceId; }
+    
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+    
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+}
@@ -0,0 +1,30 @@
+package com.inventory.dto;
+
+import java.util.List;
+
+// One keyset page of transaction history, newest first
+public class TransactionPageDTO {
+    
+    private List<TransactionDTO> items;
+    private String nextCursor; // null when there are no older rows
+    private boolean hasMore;
+    
+    // Constructors
+    public TransactionPageDTO() {}
+    
+    public TransactionPageDTO(List<TransactionDTO> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters and Setters
+    public List<TransactionDTO> getItems() { return items; }
+    public void setItems(List<TransactionDTO> items) { this.items = items; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
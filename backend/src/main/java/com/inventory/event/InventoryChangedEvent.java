@@ -0,0 +1,23 @@
+package com.inventory.event;
+
+// In-process application event raised inside the transaction that changes an inventory row.
+// Listeners bound to AFTER_COMMIT only see changes that were actually persisted.
+public class InventoryChangedEvent {
+
+    private final Long storeId;
+    private final Long productId;
+    private final int oldQuantity;
+    private final int newQuantity;
+
+    public InventoryChangedEvent(Long storeId, Long productId, int oldQuantity, int newQuantity) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.oldQuantity = oldQuantity;
+        this.newQuantity = newQuantity;
+    }
+
+    public Long getStoreId() { return storeId; }
+    public Long getProductId() { return productId; }
+    public int getOldQuantity() { return oldQuantity; }
+    public int getNewQuantity() { return newQuantity; }
+}
@@ -59,4 +59,16 @@ public abstract class InventoryEvent {
     
     public Integer getPriority() { return priority; }
     public void setPriority(Integer priority) { this.priority = priority; }
+    
+    // Kafka record key: every event for one (store, product) lands on the same partition and is
+    // therefore applied by a single consumer thread, in publish order
+    public String partitionKey() {
+        if (storeId != null && productId != null) {
+            return storeId + ":" + productId;
+        }
+        if (storeId != null) {
+            return storeId.toString();
+        }
+        return correlationId != null ? correlationId : eventId;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.inventory.event;
 
+import java.util.Comparator;
+import java.util.List;
+
 public class InventoryTransferEvent extends InventoryEvent {
     
     private Long fromStoreId;
@@ -8,6 +11,7 @@ public class InventoryTransferEvent extends InventoryEvent {
     private String transferType; // START, RESERVE, CONFIRM, ROLLBACK
     private String sagaId; // For saga orchestration
     private String notes;
+    private List<TransferLine> lines; // bulk transfers; null for a single productId/quantity line
     
     public InventoryTransferEvent() {
         super();
@@ -42,4 +46,15 @@ public class InventoryTransferEvent extends InventoryEvent {
     
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
+    
+    public List<TransferLine> getLines() { return lines; }
+    public void setLines(List<TransferLine> lines) { this.lines = lines; }
+    
+    // Every product line, ordered by product id (the order rows are locked in)
+    public List<TransferLine> transferLines() {
+        if (lines == null) {
+            return List.of(new TransferLine(getProductId(), quantity));
+        }
+        return lines.stream().sorted(Comparator.comparing(TransferLine::getProductId)).toList();
+    }
 }
\ No newline at end of file
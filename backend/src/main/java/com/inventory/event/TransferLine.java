@@ -0,0 +1,22 @@
+package com.inventory.event;
+
+// One product of a bulk transfer
+public class TransferLine {
+    
+    private Long productId;
+    private Integer quantity;
+    
+    public TransferLine() {}
+    
+    public TransferLine(Long productId, Integer quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+    
+    // Getters and Setters
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+}
@@ -0,0 +1,47 @@
+package com.inventory.logging;
+
+import com.inventory.event.InventoryEvent;
+import org.slf4j.MDC;
+
+// MDC entries (correlationId, eventId) for everything logged while an event is handled, so the lines
+// of one request, saga or batch can be followed across threads, listeners and nodes
+public final class EventLogContext {
+
+    public static final String CORRELATION_ID = "correlationId";
+    public static final String EVENT_ID = "eventId";
+
+    private EventLogContext() {
+    }
+
+    public static void put(InventoryEvent event) {
+        if (event == null) {
+            return;
+        }
+        putOrRemove(CORRELATION_ID, event.getCorrelationId());
+        putOrRemove(EVENT_ID, event.getEventId());
+    }
+
+    public static void clear() {
+        MDC.remove(CORRELATION_ID);
+        MDC.remove(EVENT_ID);
+    }
+
+    // try (var ignored = EventLogContext.open(event)) { ... } for records handled inside a batch
+    public static Scope open(InventoryEvent event) {
+        put(event);
+        return EventLogContext::clear;
+    }
+
+    private static void putOrRemove(String key, String value) {
+        if (value != null) {
+            MDC.put(key, value);
+        } else {
+            MDC.remove(key);
+        }
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,41 @@
+package com.inventory.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-event logs (marked EVENT) are let through once every sampleRate calls per logger, so a busy
+// listener logs a steady trickle instead of one line per record. The decision is taken before the
+// message is formatted; warnings and errors are never sampled away.
+public class EventSamplingFilter extends TurboFilter {
+
+    public static final Marker EVENT = MarkerFactory.getMarker("EVENT");
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private int sampleRate = 1;
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (sampleRate == 1 || marker == null || level == null || !marker.contains(EVENT)
+                || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        // Calls below the logger's level are dropped anyway and do not count towards the sample
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        long seen = counters.computeIfAbsent(logger.getName(), name -> new AtomicLong()).getAndIncrement();
+        return seen % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,48 @@
+package com.inventory.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.LayoutBase;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.time.Instant;
+import java.util.Map;
+
+// One JSON object per line: timestamp, level, thread, logger, the MDC (correlationId, eventId),
+// the formatted message and the stack trace, if any. Used by the "prod" logging profile.
+public class JsonLineLayout extends LayoutBase<ILoggingEvent> {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+
+    @Override
+    public String doLayout(ILoggingEvent event) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"timestamp\":\"").append(Instant.ofEpochMilli(event.getTimeStamp())).append('"');
+        field(json, "level", event.getLevel().toString());
+        field(json, "thread", event.getThreadName());
+        field(json, "logger", event.getLoggerName());
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc != null) {
+            mdc.forEach((key, value) -> field(json, key, value));
+        }
+        field(json, "message", event.getFormattedMessage());
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            field(json, "stackTrace", ThrowableProxyUtil.asString(throwable));
+        }
+        return json.append('}').append(CoreConstants.LINE_SEPARATOR).toString();
+    }
+
+    private static void field(StringBuilder json, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        json.append(",\"");
+        ENCODER.quoteAsString(name, json);
+        json.append("\":\"");
+        ENCODER.quoteAsString(value, json);
+        json.append('"');
+    }
+}
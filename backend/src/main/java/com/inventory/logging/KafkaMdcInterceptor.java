@@ -0,0 +1,23 @@
+package com.inventory.logging;
+
+import com.inventory.event.InventoryEvent;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+// Sets the event's MDC entries on the listener thread for the time one record is handled
+public class KafkaMdcInterceptor<K, V> implements RecordInterceptor<K, V> {
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        if (record.value() instanceof InventoryEvent event) {
+            EventLogContext.put(event);
+        }
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        EventLogContext.clear();
+    }
+}
@@ -0,0 +1,59 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// Last Kafka offset per partition whose effects the in-memory ledger has written to the inventory table.
+// Written in the same database transaction as the write-behind batch it describes.
+@Entity
+@Table(name = "ledger_checkpoints")
+public class LedgerCheckpoint {
+    
+    @Id
+    private String id; // topic:partition
+    
+    @NotNull
+    @Column(nullable = false)
+    private String topic;
+    
+    @NotNull
+    @Column(name = "partition_id", nullable = false)
+    private Integer partitionId;
+    
+    @NotNull
+    @Column(name = "checkpoint_offset", nullable = false)
+    private Long checkpointOffset;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public LedgerCheckpoint() {}
+    
+    public LedgerCheckpoint(String topic, Integer partitionId, Long checkpointOffset) {
+        this.id = topic + ":" + partitionId;
+        this.topic = topic;
+        this.partitionId = partitionId;
+        this.checkpointOffset = checkpointOffset;
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+    
+    public Integer getPartitionId() { return partitionId; }
+    public void setPartitionId(Integer partitionId) { this.partitionId = partitionId; }
+    
+    public Long getCheckpointOffset() { return checkpointOffset; }
+    public void setCheckpointOffset(Long checkpointOffset) { this.checkpointOffset = checkpointOffset; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,93 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Kafka record waiting to be relayed. Written in the same transaction as the change it announces,
+// so a committed change always gets its event (at least once) and a rolled-back one never does.
+// A relay leases the rows it is about to send (lease_owner/lease_until), so two relays never send the
+// same row at once; a row that keeps failing is dead-lettered after inventory.outbox.max-attempts.
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_events_sent_at", columnList = "sent_at, id")
+})
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+    
+    @NotNull
+    @Column(nullable = false)
+    private String topic;
+    
+    @Column(name = "message_key")
+    private String messageKey;
+    
+    @NotNull
+    @Lob
+    @Column(nullable = false)
+    private String payload; // JSON, same shape the Kafka JsonSerializer produces
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+    
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+    
+    @Column(nullable = false)
+    private int attempts = 0;
+    
+    @Column(name = "dead_lettered_at")
+    private LocalDateTime deadLetteredAt; // set once attempts reach the limit; never relayed again
+    
+    // Constructors
+    public OutboxEvent() {}
+    
+    public OutboxEvent(String topic, String messageKey, String payload) {
+        this.topic = topic;
+        this.messageKey = messageKey;
+        this.payload = payload;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+    
+    public String getMessageKey() { return messageKey; }
+    public void setMessageKey(String messageKey) { this.messageKey = messageKey; }
+    
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+    
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+    
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+    
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    
+    public LocalDateTime getDeadLetteredAt() { return deadLetteredAt; }
+    public void setDeadLetteredAt(LocalDateTime deadLetteredAt) { this.deadLetteredAt = deadLetteredAt; }
+}
@@ -0,0 +1,39 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+// Kafka event ids whose effects are already committed. Inserted in the same transaction as the
+// inventory write, so a redelivered record is recognised even after a restart; rows older than
+// inventory.idempotency.retention are compacted away.
+@Entity
+@Table(name = "processed_events", indexes = {
+    @Index(name = "idx_processed_events_processed_at", columnList = "processed_at")
+})
+public class ProcessedEvent {
+    
+    @Id
+    @Column(name = "event_id", length = 64)
+    private String eventId;
+    
+    @NotNull
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+    
+    // Constructors
+    public ProcessedEvent() {}
+    
+    public ProcessedEvent(String eventId, LocalDateTime processedAt) {
+        this.eventId = eventId;
+        this.processedAt = processedAt;
+    }
+    
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+    
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+}
@@ -0,0 +1,113 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// Progress of one saga run by SagaOrchestrator. Local sagas are written once, completed or failed;
+// async ones are updated in the same transaction as each step they run.
+@Entity
+@Table(name = "saga_instances", indexes = {
+    @Index(name = "idx_saga_instances_status_updated", columnList = "status, updated_at")
+})
+public class SagaInstance {
+    
+    @Id
+    private String id; // sagaId
+    
+    @NotNull
+    @Column(name = "saga_type", nullable = false)
+    private String sagaType;
+    
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Mode mode;
+    
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.RUNNING;
+    
+    @Column(name = "current_step")
+    private String currentStep; // step awaited while RUNNING, the failed one otherwise
+    
+    @NotNull
+    @Column(name = "completed_steps", nullable = false)
+    private Integer completedSteps = 0;
+    
+    @NotNull
+    @Lob
+    @Column(nullable = false)
+    private String payload; // JSON of the event the saga was started with
+    
+    @Column(name = "failure_reason", length = 1000)
+    private String failureReason;
+    
+    @Version
+    private Long version;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public SagaInstance() {}
+    
+    public SagaInstance(String id, String sagaType, Mode mode, String payload) {
+        this.id = id;
+        this.sagaType = sagaType;
+        this.mode = mode;
+        this.payload = payload;
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getSagaType() { return sagaType; }
+    public void setSagaType(String sagaType) { this.sagaType = sagaType; }
+    
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+    
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    
+    public String getCurrentStep() { return currentStep; }
+    public void setCurrentStep(String currentStep) { this.currentStep = currentStep; }
+    
+    public Integer getCompletedSteps() { return completedSteps; }
+    public void setCompletedSteps(Integer completedSteps) { this.completedSteps = completedSteps; }
+    
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    // LOCAL: every step in one database transaction; ASYNC: one step per transfers.commands record
+    public enum Mode {
+        LOCAL, ASYNC
+    }
+    
+    public enum Status {
+        RUNNING, COMPLETED, FAILED, COMPENSATING, COMPENSATED
+    }
+}
@@ -7,7 +7,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_store_timestamp", columnList = "store_id, timestamp"),
+        @Index(name = "idx_transactions_product_timestamp", columnList = "product_id, timestamp"),
+        @Index(name = "idx_transactions_timestamp", columnList = "timestamp")
+})
 public class Transaction {
     
     @Id
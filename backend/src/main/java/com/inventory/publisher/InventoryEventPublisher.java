@@ -1,52 +1,100 @@
 package com.inventory.publisher;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.inventory.event.*;
+import com.inventory.model.OutboxEvent;
+import com.inventory.repository.OutboxEventRepository;
+import com.inventory.logging.EventSamplingFilter;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 @Service
 public class InventoryEventPublisher {
 
+    private static final Logger log = LoggerFactory.getLogger(InventoryEventPublisher.class);
+
     @Autowired
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private KafkaSendObserver sendObserver;
+
+    public static final String DLQ_TOPIC = "inventory.dlq";
+
+    // Outbox variants: the event is stored in the caller's transaction and sent by OutboxRelay after
+    // commit, so the HTTP path never waits on the broker and never announces a rolled-back change
+    public void enqueueInventoryUpdate(InventoryUpdateEvent event) {
+        enqueue("inventory.commands.stock", event.partitionKey(), event);
+    }
+
+    public void enqueueInventoryTransfer(InventoryTransferEvent event) {
+        enqueue("transfers.commands", event.getSagaId() != null ? event.getSagaId() : event.getCorrelationId(), event);
+    }
+
+    public void enqueueInventoryAudit(InventoryAuditEvent event) {
+        enqueue("notifications.events", event.partitionKey(), event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, InventoryEvent event) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(topic, key, objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize event " + event.getEventId() + " for the outbox", e);
+        }
+    }
+
     public void publishInventoryUpdate(InventoryUpdateEvent event) {
         try {
-            kafkaTemplate.send("inventory.commands.stock", event.getCorrelationId(), event);
-            System.out.println("✅ Published inventory update event (Kafka): " + event.getEventId());
+            send("inventory.commands.stock", event.partitionKey(), event);
+            log.debug(EventSamplingFilter.EVENT, "Queued inventory update event {} for send", event.getEventId());
         } catch (Exception e) {
-            System.err.println("❌ Failed to publish inventory update event (Kafka): " + e.getMessage());
+            log.error("Failed to publish inventory update event {}: {}", event.getEventId(), e.getMessage());
             throw new RuntimeException("Failed to publish inventory update event", e);
         }
     }
 
     public void publishInventoryTransfer(InventoryTransferEvent event) {
         try {
-            kafkaTemplate.send("transfers.commands", event.getSagaId() != null ? event.getSagaId() : event.getCorrelationId(), event);
-            System.out.println("✅ Published inventory transfer event (Kafka): " + event.getEventId());
+            send("transfers.commands", event.getSagaId() != null ? event.getSagaId() : event.getCorrelationId(), event);
+            log.debug(EventSamplingFilter.EVENT, "Queued inventory transfer event {} for send", event.getEventId());
         } catch (Exception e) {
-            System.err.println("❌ Failed to publish inventory transfer event (Kafka): " + e.getMessage());
+            log.error("Failed to publish inventory transfer event {}: {}", event.getEventId(), e.getMessage());
             throw new RuntimeException("Failed to publish inventory transfer event", e);
         }
     }
 
     public void publishInventorySync(InventorySyncEvent event) {
         try {
-            kafkaTemplate.send("inventory.events", event.getCorrelationId(), event);
-            System.out.println("✅ Published inventory sync event (Kafka): " + event.getEventId());
+            send("inventory.events", event.partitionKey(), event);
+            log.debug(EventSamplingFilter.EVENT, "Queued inventory sync event {} for send", event.getEventId());
         } catch (Exception e) {
-            System.err.println("❌ Failed to publish inventory sync event (Kafka): " + e.getMessage());
+            log.error("Failed to publish inventory sync event {}: {}", event.getEventId(), e.getMessage());
             throw new RuntimeException("Failed to publish inventory sync event", e);
         }
     }
 
     public void publishInventoryAudit(InventoryAuditEvent event) {
         try {
-            kafkaTemplate.send("notifications.events", event.getCorrelationId(), event);
-            System.out.println("✅ Published inventory audit event (Kafka): " + event.getEventId());
+            send("notifications.events", event.partitionKey(), event);
+            log.debug(EventSamplingFilter.EVENT, "Queued inventory audit event {} for send", event.getEventId());
         } catch (Exception e) {
-            System.err.println("❌ Failed to publish inventory audit event (Kafka): " + e.getMessage());
+            log.error("Failed to publish inventory audit event {}: {}", event.getEventId(), e.getMessage());
         }
     }
 
@@ -57,4 +105,38 @@ public class InventoryEventPublisher {
         event.setCorrelationId(java.util.UUID.randomUUID().toString());
         publishInventoryUpdate(event);
     }
-}
\ No newline at end of file
+
+    // Hands the record to the producer and returns at once; the ack (or failure) is handled on the
+    // producer's I/O thread, where latency is recorded and undeliverable records go to the DLQ
+    private void send(String topic, String key, Object event) {
+        long start = System.nanoTime();
+        kafkaTemplate.send(topic, key, event).whenComplete((result, failure) -> {
+            sendObserver.record(topic, start, failure);
+            if (failure != null) {
+                routeToDlq(topic, key, event, failure);
+            }
+        });
+    }
+
+    private void routeToDlq(String topic, String key, Object event, Throwable failure) {
+        log.error("Kafka send to {} failed, routing to {}: {}", topic, DLQ_TOPIC, failure.getMessage());
+        publishDeadLetter(topic, key, event, failure.getCause() != null ? failure.getCause() : failure);
+    }
+
+    // Dead-letters an event that was taken off its topic and later found unappliable, with the same
+    // headers the listener error handler writes, so DeadLetterReplayService can send it back
+    public void publishDeadLetter(String topic, String key, Object event, Throwable cause) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(DLQ_TOPIC, key, event);
+        record.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, topic.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_FQCN, cause.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE,
+                String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8));
+        long start = System.nanoTime();
+        kafkaTemplate.send(record).whenComplete((result, dlqFailure) -> {
+            sendObserver.record(DLQ_TOPIC, start, dlqFailure);
+            if (dlqFailure != null) {
+                log.error("Failed to route record to {}: {}", DLQ_TOPIC, dlqFailure.getMessage());
+            }
+        });
+    }
+}
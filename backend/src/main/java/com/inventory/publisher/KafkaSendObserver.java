@@ -0,0 +1,33 @@
+package com.inventory.publisher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Send-to-ack latency of every producer record, as a histogram per topic and outcome
+// (inventory.kafka.send{topic, outcome=success|failure}). Called from the producer's completion
+// callbacks, so recording must stay cheap: timers are created once and reused.
+@Component
+public class KafkaSendObserver {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public void record(String topic, long startNanos, Throwable failure) {
+        String outcome = failure == null ? "success" : "failure";
+        timers.computeIfAbsent(topic + "|" + outcome, key -> Timer.builder("inventory.kafka.send")
+                        .description("Time from KafkaTemplate.send to broker acknowledgement")
+                        .tag("topic", topic)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,197 @@
+package com.inventory.publisher;
+
+import com.inventory.model.OutboxEvent;
+import com.inventory.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Moves outbox rows to Kafka. Each pass leases the oldest unsent rows (a conditional UPDATE on
+// lease_owner/lease_until, so relays on other nodes skip them), sends them all without waiting in
+// between (the producer's linger/batch settings pack them into few requests), then marks the sent
+// rows with a single UPDATE. Only the prefix up to the first unacknowledged row is marked: that row
+// and everything after it is released and goes out again, in order, on the next pass. A crash between
+// send and mark resends the batch once the lease runs out, so delivery is at least once; consumers
+// drop the repeats by eventId.
+//
+// The first unacknowledged row of a pass has its attempt counted; at inventory.outbox.max-attempts it
+// is dead-lettered (kept in the table with dead_lettered_at set) so one poison row cannot hold up
+// every later row.
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private KafkaTemplate<String, String> outboxKafkaTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private KafkaSendObserver sendObserver;
+
+    @Value("${inventory.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.outbox.poll-interval:100ms}")
+    private Duration pollInterval;
+
+    @Value("${inventory.outbox.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    @Value("${inventory.outbox.lease:2m}")
+    private Duration lease;
+
+    @Value("${inventory.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${inventory.outbox.retention:1d}")
+    private Duration retention;
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Own thread: a slow or unreachable broker must not hold up the shared @Scheduled thread
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long pollMillis = Math.max(1, pollInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::relay, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::purgeSent, 1, 60, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+    }
+
+    // Drains full batches back to back; stops at the first partial batch or failed send
+    void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    int relayBatch() {
+        List<OutboxEvent> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            long start = System.nanoTime();
+            CompletableFuture<SendResult<String, String>> send =
+                    outboxKafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload());
+            send.whenComplete((result, failure) -> sendObserver.record(event.getTopic(), start, failure));
+            sends.add(send);
+        }
+
+        // Acknowledged prefix; an ack after the first failure does not count, the row is sent again
+        int acked = 0;
+        String failure = null;
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        while (acked < batch.size() && failure == null) {
+            try {
+                sends.get(acked).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acked++;
+            } catch (Exception e) {
+                failure = e.getMessage();
+            }
+        }
+
+        List<Long> sentIds = ids(batch.subList(0, acked));
+        LocalDateTime now = LocalDateTime.now();
+        if (failure == null) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markSent(sentIds, now));
+            return batch.size();
+        }
+
+        OutboxEvent failed = batch.get(acked);
+        int attempts = failed.getAttempts() + 1;
+        boolean deadLetter = attempts >= maxAttempts;
+        List<Long> unsentIds = ids(batch.subList(acked + 1, batch.size()));
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxEventRepository.markSent(sentIds, now);
+            }
+            outboxEventRepository.recordFailedAttempt(failed.getId(), attempts, deadLetter ? now : null);
+            if (!unsentIds.isEmpty()) {
+                outboxEventRepository.release(unsentIds);
+            }
+        });
+        if (deadLetter) {
+            log.error("Outbox event {} dead-lettered after {} attempt(s): {}", failed.getId(), attempts, failure);
+        } else {
+            log.warn("Outbox event {} not acknowledged (attempt {}): {}", failed.getId(), attempts, failure);
+        }
+        return -1;
+    }
+
+    // Leases up to batch-size rows for this pass; rows another relay took in between are not returned
+    private List<OutboxEvent> claimBatch() {
+        String owner = UUID.randomUUID().toString();
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = outboxEventRepository.findClaimable(now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty() || outboxEventRepository.claim(ids, owner, now.plus(lease), now) == 0) {
+                return List.<OutboxEvent>of();
+            }
+            return outboxEventRepository.findClaimed(owner);
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        List<Long> ids = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            ids.add(event.getId());
+        }
+        return ids;
+    }
+
+    void purgeSent() {
+        try {
+            Integer removed = transactionTemplate.execute(status ->
+                    outboxEventRepository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+            if (removed != null && removed > 0) {
+                log.info("Purged {} relayed outbox event(s)", removed);
+            }
+        } catch (Exception e) {
+            log.error("Outbox purge failed: {}", e.getMessage());
+        }
+    }
+}
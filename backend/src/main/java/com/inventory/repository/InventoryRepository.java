@@ -1,18 +1,56 @@
 package com.inventory.repository;
 
+import com.inventory.dto.InventoryDTO;
+import com.inventory.dto.ProductStockSummary;
+import com.inventory.dto.StockLevel;
+import com.inventory.dto.StoreStockSummary;
 import com.inventory.model.Inventory;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+public interface InventoryRepository extends JpaRepository<Inventory, Long>, InventoryRepositoryCustom {
+    
+    // Read-only paths select InventoryDTOs directly: store and product columns come from the same
+    // statement and nothing is loaded into (or dirty-checked by) the persistence context
+    String DETAILS = "SELECT new com.inventory.dto.InventoryDTO(i.id, s.id, p.id, i.quantity, i.reservedQuantity, " +
+            "i.lastUpdated, i.version, s.name, s.location, p.name, p.sku, p.category) " +
+            "FROM Inventory i JOIN i.store s JOIN i.product p ";
+    
+    @Query(DETAILS)
+    List<InventoryDTO> findAllDetails();
+    
+    @Query(DETAILS + "WHERE s.id = :storeId")
+    List<InventoryDTO> findDetailsByStoreId(@Param("storeId") Long storeId);
+    
+    @Query(DETAILS + "WHERE p.id = :productId")
+    List<InventoryDTO> findDetailsByProductId(@Param("productId") Long productId);
+    
+    @Query(DETAILS + "WHERE s.id = :storeId AND p.id = :productId")
+    Optional<InventoryDTO> findDetailsByStoreIdAndProductId(@Param("storeId") Long storeId, @Param("productId") Long productId);
+    
+    @Query(DETAILS + "WHERE i.quantity < :threshold ORDER BY i.quantity, s.id, p.id")
+    List<InventoryDTO> findLowStockDetails(@Param("threshold") Integer threshold);
+    
+    @Query(DETAILS + "WHERE i.quantity < COALESCE(p.lowStockThreshold, :defaultThreshold) ORDER BY i.quantity, s.id, p.id")
+    List<InventoryDTO> findDetailsBelowOwnThreshold(@Param("defaultThreshold") Integer defaultThreshold);
+    
+    // Primary-key lookups of the rows a low-stock index query selected, re-checked against the table
+    @Query(DETAILS + "WHERE i.id IN :ids AND i.quantity < :threshold")
+    List<InventoryDTO> findDetailsByIdInBelow(@Param("ids") Collection<Long> ids, @Param("threshold") Integer threshold);
+    
+    @Query(DETAILS + "WHERE i.id IN :ids AND i.quantity < COALESCE(p.lowStockThreshold, :defaultThreshold)")
+    List<InventoryDTO> findDetailsByIdInBelowOwnThreshold(@Param("ids") Collection<Long> ids, @Param("defaultThreshold") Integer defaultThreshold);
     
     List<Inventory> findByStoreId(Long storeId);
     
@@ -20,19 +58,75 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     
     Optional<Inventory> findByStoreIdAndProductId(Long storeId, Long productId);
     
+    // Same row for write paths that return a DTO: store and product are loaded in the same select
+    @EntityGraph(attributePaths = {"store", "product"})
+    Optional<Inventory> findWithDetailsByStoreIdAndProductId(Long storeId, Long productId);
+    
+    // Locks a whole set of rows in one statement, in (store, product) order: callers that lock this way
+    // take their locks in the same global order and cannot deadlock each other. No fetch joins, so only
+    // inventory rows are locked, not the stores and products they point to.
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT i FROM Inventory i WHERE i.store.id = :storeId AND i.product.id = :productId")
-    Optional<Inventory> findByStoreIdAndProductIdForUpdate(@Param("storeId") Long storeId, @Param("productId") Long productId);
+    @Query("SELECT i FROM Inventory i WHERE i.store.id IN :storeIds AND i.product.id IN :productIds " +
+           "ORDER BY i.store.id, i.product.id")
+    List<Inventory> lockByStoreIdInAndProductIdIn(@Param("storeIds") Collection<Long> storeIds, @Param("productIds") Collection<Long> productIds);
     
     @Query("SELECT i FROM Inventory i WHERE i.quantity < :threshold")
     List<Inventory> findLowStockItems(@Param("threshold") Integer threshold);
     
+    // Low-stock index (re)load: one narrow row per inventory record, no entities
+    @Query("SELECT new com.inventory.dto.StockLevel(i.id, i.store.id, i.product.id, i.quantity, i.product.lowStockThreshold) " +
+           "FROM Inventory i")
+    List<StockLevel> findAllStockLevels();
+    
+    @Query("SELECT new com.inventory.dto.StockLevel(i.id, i.store.id, i.product.id, i.quantity, i.product.lowStockThreshold) " +
+           "FROM Inventory i WHERE i.store.id = :storeId AND i.product.id = :productId")
+    Optional<StockLevel> findStockLevel(@Param("storeId") Long storeId, @Param("productId") Long productId);
+    
     @Query("SELECT SUM(i.quantity) FROM Inventory i WHERE i.product.id = :productId")
     Integer getTotalQuantityByProduct(@Param("productId") Long productId);
     
     @Query("SELECT SUM(i.quantity - i.reservedQuantity) FROM Inventory i WHERE i.product.id = :productId")
     Integer getAvailableQuantityByProduct(@Param("productId") Long productId);
     
+    boolean existsByProductId(Long productId);
+    
+    @Query("SELECT new com.inventory.dto.ProductStockSummary(i.product.id, SUM(i.quantity), SUM(i.quantity - i.reservedQuantity), COUNT(i)) " +
+           "FROM Inventory i GROUP BY i.product.id")
+    List<ProductStockSummary> summarizeAllProducts();
+    
+    @Query("SELECT new com.inventory.dto.ProductStockSummary(i.product.id, SUM(i.quantity), SUM(i.quantity - i.reservedQuantity), COUNT(i)) " +
+           "FROM Inventory i WHERE i.product.id IN :productIds GROUP BY i.product.id")
+    List<ProductStockSummary> summarizeProducts(@Param("productIds") Collection<Long> productIds);
+    
+    @Query("SELECT new com.inventory.dto.StoreStockSummary(i.store.id, COUNT(i), SUM(i.quantity)) " +
+           "FROM Inventory i GROUP BY i.store.id")
+    List<StoreStockSummary> summarizeAllStores();
+    
+    @Query("SELECT new com.inventory.dto.StoreStockSummary(i.store.id, COUNT(i), SUM(i.quantity)) " +
+           "FROM Inventory i WHERE i.store.id IN :storeIds GROUP BY i.store.id")
+    List<StoreStockSummary> summarizeStores(@Param("storeIds") Collection<Long> storeIds);
+    
     @Query("SELECT i FROM Inventory i JOIN FETCH i.store JOIN FETCH i.product WHERE i.store.id = :storeId")
     List<Inventory> findByStoreIdWithDetails(@Param("storeId") Long storeId);
-}
\ No newline at end of file
+    
+    // Loads every row touched by a consumer batch in one round trip; callers match (store, product) pairs in memory
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.store JOIN FETCH i.product WHERE i.store.id IN :storeIds AND i.product.id IN :productIds")
+    List<Inventory> findByStoreIdInAndProductIdInWithDetails(@Param("storeIds") Collection<Long> storeIds, @Param("productIds") Collection<Long> productIds);
+    
+    // Conditional single-statement write: the availability check and the change happen in one UPDATE,
+    // so concurrent callers cannot both pass the check. It returns the affected row count (0 = not applied)
+    // and bumps the version so entity-based writers holding an older copy still fail their optimistic check.
+    // Transfer reservations do not need one: the saga checks rows it already holds locked (lockByStoreIdIn...).
+    @Modifying
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :amount, i.version = i.version + 1, i.lastUpdated = LOCAL DATETIME " +
+           "WHERE i.store.id = :storeId AND i.product.id = :productId AND i.quantity - i.reservedQuantity >= :amount")
+    int decrementIfAvailable(@Param("storeId") Long storeId, @Param("productId") Long productId, @Param("amount") int amount);
+    
+    // Batch consumers write a row once for several updates; this brings its version to what one write per update would leave
+    @Modifying
+    @Query("UPDATE Inventory i SET i.version = i.version + :increment WHERE i.id = :id")
+    int incrementVersion(@Param("id") Long id, @Param("increment") long increment);
+    
+    @Query("SELECT i.quantity FROM Inventory i WHERE i.store.id = :storeId AND i.product.id = :productId")
+    Optional<Integer> findQuantityByStoreIdAndProductId(@Param("storeId") Long storeId, @Param("productId") Long productId);
+}
@@ -0,0 +1,16 @@
+package com.inventory.repository;
+
+import com.inventory.dto.InventoryDTO;
+import com.inventory.dto.InventoryFilter;
+import com.inventory.dto.InventorySort;
+
+import java.util.List;
+
+public interface InventoryRepositoryCustom {
+    
+    // Keyset page ordered by (sort, id); rows strictly after the given cursor, if any
+    List<InventoryDTO> findPage(InventoryFilter filter, InventorySort sort, boolean descending,
+                                Object cursorValue, Long cursorId, int limit);
+    
+    long countMatching(InventoryFilter filter);
+}
@@ -0,0 +1,103 @@
+package com.inventory.repository;
+
+import com.inventory.dto.InventoryDTO;
+import com.inventory.dto.InventoryFilter;
+import com.inventory.dto.InventorySort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class InventoryRepositoryImpl implements InventoryRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<InventoryDTO> findPage(InventoryFilter filter, InventorySort sort, boolean descending,
+                                       Object cursorValue, Long cursorId, int limit) {
+        StringBuilder jpql = new StringBuilder(InventoryRepository.DETAILS).append("WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        appendFilters(filter, jpql, params);
+        
+        String direction = descending ? " DESC" : "";
+        String after = descending ? " < " : " > ";
+        if (cursorId != null) {
+            if (sort == InventorySort.ID) {
+                jpql.append(" AND i.id").append(after).append(":cursorId");
+            } else {
+                String expression = sort.getExpression();
+                jpql.append(" AND (").append(expression).append(after).append(":cursorValue OR (")
+                        .append(expression).append(" = :cursorValue AND i.id").append(after).append(":cursorId))");
+                params.put("cursorValue", cursorValue);
+            }
+            params.put("cursorId", cursorId);
+        }
+        if (sort != InventorySort.ID) {
+            jpql.append(" ORDER BY ").append(sort.getExpression()).append(direction).append(", i.id").append(direction);
+        } else {
+            jpql.append(" ORDER BY i.id").append(direction);
+        }
+        
+        TypedQuery<InventoryDTO> query = entityManager.createQuery(jpql.toString(), InventoryDTO.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+    
+    @Override
+    public long countMatching(InventoryFilter filter) {
+        // Stores are filtered by the foreign key, so only product filters and the search need joins
+        boolean search = filter.getSearch() != null;
+        boolean joinProduct = search || filter.getCategory() != null || filter.getSkuPrefix() != null;
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(i) FROM Inventory i")
+                .append(search ? " JOIN i.store s" : "")
+                .append(joinProduct ? " JOIN i.product p" : "")
+                .append(" WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        appendFilters(filter, jpql, params);
+        
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+    
+    // Only the filters that are set end up in the WHERE clause (see TransactionRepositoryImpl)
+    private void appendFilters(InventoryFilter filter, StringBuilder jpql, Map<String, Object> params) {
+        if (filter.getStoreId() != null) {
+            jpql.append(" AND i.store.id = :storeId");
+            params.put("storeId", filter.getStoreId());
+        }
+        if (filter.getCategory() != null) {
+            jpql.append(" AND p.category = :category");
+            params.put("category", filter.getCategory());
+        }
+        if (filter.getSkuPrefix() != null) {
+            jpql.append(" AND p.sku LIKE :skuPrefix ESCAPE '!'");
+            params.put("skuPrefix", escapeLike(filter.getSkuPrefix()) + "%");
+        }
+        if (filter.getSearch() != null) {
+            jpql.append(" AND (LOWER(p.name) LIKE :search ESCAPE '!' OR LOWER(p.sku) LIKE :search ESCAPE '!'")
+                    .append(" OR LOWER(s.name) LIKE :search ESCAPE '!')");
+            params.put("search", "%" + escapeLike(filter.getSearch().toLowerCase()) + "%");
+        }
+        if (filter.getMinQuantity() != null) {
+            jpql.append(" AND i.quantity >= :minQuantity");
+            params.put("minQuantity", filter.getMinQuantity());
+        }
+        if (filter.getMaxQuantity() != null) {
+            jpql.append(" AND i.quantity <= :maxQuantity");
+            params.put("maxQuantity", filter.getMaxQuantity());
+        }
+        if (filter.isAvailableOnly()) {
+            jpql.append(" AND i.quantity > i.reservedQuantity");
+        }
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
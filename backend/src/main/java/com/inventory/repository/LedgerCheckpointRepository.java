@@ -0,0 +1,13 @@
+package com.inventory.repository;
+
+import com.inventory.model.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, String> {
+    
+    List<LedgerCheckpoint> findByTopic(String topic);
+}
@@ -0,0 +1,53 @@
+package com.inventory.repository;
+
+import com.inventory.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Oldest first, so records for one key leave in the order they were written. Rows leased by
+    // another relay are skipped until the lease runs out.
+    @Query("SELECT o.id FROM OutboxEvent o WHERE o.sentAt IS NULL AND o.deadLetteredAt IS NULL " +
+           "AND (o.leaseUntil IS NULL OR o.leaseUntil < :now) ORDER BY o.id")
+    List<Long> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    // Conditional, so of two relays that read the same ids only the first UPDATE takes each row
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.leaseOwner = :owner, o.leaseUntil = :until " +
+           "WHERE o.id IN :ids AND o.sentAt IS NULL AND o.deadLetteredAt IS NULL " +
+           "AND (o.leaseUntil IS NULL OR o.leaseUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+              @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT o FROM OutboxEvent o WHERE o.leaseOwner = :owner AND o.sentAt IS NULL ORDER BY o.id")
+    List<OutboxEvent> findClaimed(@Param("owner") String owner);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.leaseOwner = NULL, o.leaseUntil = NULL WHERE o.id IN :ids")
+    int release(@Param("ids") Collection<Long> ids);
+    
+    // Counts a failed send and gives the row up; a non-null deadLetteredAt takes it out of the relay
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.attempts = :attempts, o.deadLetteredAt = :deadLetteredAt, " +
+           "o.leaseOwner = NULL, o.leaseUntil = NULL WHERE o.id = :id")
+    int recordFailedAttempt(@Param("id") Long id, @Param("attempts") int attempts,
+                            @Param("deadLetteredAt") LocalDateTime deadLetteredAt);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.sentAt = :sentAt, o.leaseOwner = NULL, o.leaseUntil = NULL WHERE o.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+    
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,9 @@
+package com.inventory.repository;
+
+import com.inventory.model.SagaInstance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SagaInstanceRepository extends JpaRepository<SagaInstance, String> {
+}
@@ -1,36 +1,42 @@
 package com.inventory.repository;
 
 import com.inventory.model.Transaction;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    
-    List<Transaction> findByStoreId(Long storeId);
-    
-    List<Transaction> findByProductId(Long productId);
-    
-    List<Transaction> findByStoreIdAndProductId(Long storeId, Long productId);
-    
-    List<Transaction> findByType(Transaction.TransactionType type);
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     
-    List<Transaction> findByReferenceId(String referenceId);
-    
-    @Query("SELECT t FROM Transaction t WHERE t.timestamp BETWEEN :startDate AND :endDate ORDER BY t.timestamp DESC")
-    List<Transaction> findByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
-    
-    @Query("SELECT t FROM Transaction t WHERE t.store.id = :storeId AND t.timestamp BETWEEN :startDate AND :endDate ORDER BY t.timestamp DESC")
-    List<Transaction> findByStoreIdAndDateRange(@Param("storeId") Long storeId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
-    
-    @Query("SELECT t FROM Transaction t WHERE t.product.id = :productId AND t.timestamp BETWEEN :startDate AND :endDate ORDER BY t.timestamp DESC")
-    List<Transaction> findByProductIdAndDateRange(@Param("productId") Long productId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    String EXPORT_FETCH_SIZE = "500";
     
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.store.id = :storeId AND t.type = :type")
     long countByStoreIdAndType(@Param("storeId") Long storeId, @Param("type") Transaction.TransactionType type);
-}
\ No newline at end of file
+    
+    // Export streams: forward-only cursor, read-only entities; the caller must consume them inside a transaction and close them
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.store JOIN FETCH t.product WHERE t.timestamp BETWEEN :startDate AND :endDate ORDER BY t.timestamp, t.id")
+    Stream<Transaction> streamByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.store JOIN FETCH t.product WHERE t.store.id = :storeId AND t.timestamp BETWEEN :startDate AND :endDate ORDER BY t.timestamp, t.id")
+    Stream<Transaction> streamByStoreIdAndDateRange(@Param("storeId") Long storeId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+}
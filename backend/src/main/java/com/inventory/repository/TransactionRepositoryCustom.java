@@ -0,0 +1,13 @@
+package com.inventory.repository;
+
+import com.inventory.dto.TransactionFilter;
+import com.inventory.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+    
+    // Keyset page ordered by (timestamp DESC, id DESC); rows strictly after the given cursor, if any
+    List<Transaction> findPage(TransactionFilter filter, LocalDateTime cursorTimestamp, Long cursorId, int limit);
+}
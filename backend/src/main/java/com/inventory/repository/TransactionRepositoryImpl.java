@@ -0,0 +1,62 @@
+package com.inventory.repository;
+
+import com.inventory.dto.TransactionFilter;
+import com.inventory.model.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Transaction> findPage(TransactionFilter filter, LocalDateTime cursorTimestamp, Long cursorId, int limit) {
+        // Only the filters that are set end up in the WHERE clause, so the database can pick
+        // the matching (store_id|product_id, timestamp) index instead of evaluating OR-NULL guards
+        StringBuilder jpql = new StringBuilder("SELECT t FROM Transaction t JOIN FETCH t.store JOIN FETCH t.product WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        
+        if (filter.getStoreId() != null) {
+            jpql.append(" AND t.store.id = :storeId");
+            params.put("storeId", filter.getStoreId());
+        }
+        if (filter.getProductId() != null) {
+            jpql.append(" AND t.product.id = :productId");
+            params.put("productId", filter.getProductId());
+        }
+        if (filter.getType() != null) {
+            jpql.append(" AND t.type = :type");
+            params.put("type", filter.getType());
+        }
+        if (filter.getReferenceId() != null) {
+            jpql.append(" AND t.referenceId = :referenceId");
+            params.put("referenceId", filter.getReferenceId());
+        }
+        if (filter.getStartDate() != null) {
+            jpql.append(" AND t.timestamp >= :startDate");
+            params.put("startDate", filter.getStartDate());
+        }
+        if (filter.getEndDate() != null) {
+            jpql.append(" AND t.timestamp <= :endDate");
+            params.put("endDate", filter.getEndDate());
+        }
+        if (cursorTimestamp != null && cursorId != null) {
+            jpql.append(" AND (t.timestamp < :cursorTimestamp OR (t.timestamp = :cursorTimestamp AND t.id < :cursorId))");
+            params.put("cursorTimestamp", cursorTimestamp);
+            params.put("cursorId", cursorId);
+        }
+        jpql.append(" ORDER BY t.timestamp DESC, t.id DESC");
+        
+        TypedQuery<Transaction> query = entityManager.createQuery(jpql.toString(), Transaction.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
@@ -1,221 +1,300 @@
 package com.inventory.saga;
 
+import com.inventory.event.InventoryAuditEvent;
 import com.inventory.event.InventoryTransferEvent;
-import com.inventory.event.InventoryUpdateEvent;
+import com.inventory.event.TransferLine;
 import com.inventory.model.Inventory;
+import com.inventory.model.SagaInstance;
 import com.inventory.model.Transaction;
 import com.inventory.repository.InventoryRepository;
 import com.inventory.repository.StoreRepository;
 import com.inventory.repository.ProductRepository;
 import com.inventory.repository.TransactionRepository;
 import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.logging.EventSamplingFilter;
+import com.inventory.service.InventoryLedger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
-import java.util.UUID;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+// Store-to-store transfer of one or many product lines: RESERVE at the source (compensated by
+// releasing the reservation), then CONFIRM, which credits the destination and settles the source.
+// When both stores live in this database the two steps run in the caller's transaction; otherwise
+// each one is a transfers.commands record handled by whichever node consumes it.
 @Service
 public class InventoryTransferSaga {
 
+    private static final Logger log = LoggerFactory.getLogger(InventoryTransferSaga.class);
+
+    public static final String SAGA_TYPE = "INVENTORY_TRANSFER";
+
     @Autowired
     private InventoryRepository inventoryRepository;
-    
+
     @Autowired
     private StoreRepository storeRepository;
-    
+
     @Autowired
     private ProductRepository productRepository;
-    
+
     @Autowired
     private TransactionRepository transactionRepository;
-    
+
     @Autowired
     private InventoryEventPublisher eventPublisher;
-    
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private SagaOrchestrator sagaOrchestrator;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Value("${inventory.saga.fast-path.enabled:true}")
+    private boolean fastPathEnabled;
+
+    // Stores whose stock is kept by another node; transfers touching them take the async chain
+    @Value("${inventory.saga.remote-stores:}")
+    private Set<Long> remoteStores;
+
+    private SagaDefinition<InventoryTransferEvent> definition;
+
+    @PostConstruct
+    void define() {
+        definition = new SagaDefinition<>(SAGA_TYPE, InventoryTransferEvent.class, this::dispatch)
+                .step("RESERVE", this::reserveInventory, this::releaseReservation)
+                .step("CONFIRM", this::confirmTransfer, null);
+    }
+
     @Transactional
-    public void startTransfer(InventoryTransferEvent event) {
+    public SagaInstance startTransfer(InventoryTransferEvent event) {
+        if (!isLocal(event)) {
+            return sagaOrchestrator.startAsync(definition, event.getSagaId(), event);
+        }
         try {
-            System.out.println("🚀 Starting transfer saga: " + event.getSagaId());
-            
-            // Validate transfer can proceed
-            Optional<Inventory> sourceInventory = inventoryRepository
-                    .findByStoreIdAndProductIdForUpdate(event.getFromStoreId(), event.getProductId());
-            
-            if (sourceInventory.isEmpty()) {
-                throw new RuntimeException("Source inventory not found");
-            }
-            
-            if (!sourceInventory.get().canReserve(event.getQuantity())) {
-                throw new RuntimeException("Insufficient quantity available for transfer");
-            }
-
-            // Step 1: Reserve inventory at source
-            InventoryTransferEvent reserveEvent = new InventoryTransferEvent(
-                event.getFromStoreId(), 
-                event.getToStoreId(), 
-                event.getProductId(), 
-                event.getQuantity(), 
-                "RESERVE"
-            );
-            reserveEvent.setSagaId(event.getSagaId());
-            reserveEvent.setNotes("Transfer reservation: " + event.getNotes());
-            
-            eventPublisher.publishInventoryTransfer(reserveEvent);
-            
-        } catch (Exception e) {
-            System.err.println("❌ Failed to start transfer saga: " + e.getMessage());
-            rollbackTransfer(event);
+            return sagaOrchestrator.runLocal(definition, event.getSagaId(), event);
+        } catch (RuntimeException e) {
+            log.warn("Transfer saga {} failed: {}", event.getSagaId(), e.getMessage());
+            messagingTemplate.convertAndSend("/topic/transfer-failed", event);
             throw e;
         }
     }
 
-    @Transactional
-    public void reserveInventory(InventoryTransferEvent event) {
-        try {
-            System.out.println("🔒 Reserving inventory for saga: " + event.getSagaId());
-            
-            // Reserve inventory at source store
-            Inventory sourceInventory = inventoryRepository
-                    .findByStoreIdAndProductIdForUpdate(event.getFromStoreId(), event.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Source inventory not found"));
-            
-            sourceInventory.reserve(event.getQuantity());
-            inventoryRepository.save(sourceInventory);
-            
-            // Create reservation transaction
-            Transaction reserveTransaction = new Transaction(
-                sourceInventory.getStore(),
-                sourceInventory.getProduct(),
+    boolean isLocal(InventoryTransferEvent event) {
+        return fastPathEnabled
+                && !remoteStores.contains(event.getFromStoreId())
+                && !remoteStores.contains(event.getToStoreId());
+    }
+
+    // One transfers.commands record, in the consumer's transaction
+    public void handleCommand(InventoryTransferEvent event) {
+        String command = event.getTransferType().toUpperCase();
+        switch (command) {
+            case "START":
+                // Queued before sagas were started from the request; starts the async chain here
+                sagaOrchestrator.startAsync(definition, event.getSagaId(), event);
+                break;
+            case SagaDefinition.COMPENSATE:
+                if (sagaOrchestrator.compensate(definition, event.getSagaId())) {
+                    messagingTemplate.convertAndSend("/topic/transfer-failed", event);
+                }
+                break;
+            default:
+                sagaOrchestrator.handleStep(definition, event.getSagaId(), command, event);
+        }
+    }
+
+    // A command's transaction rolled back: compensate, unless the saga is not running (then rethrow,
+    // so the record goes through the retry topics)
+    public void failCommand(InventoryTransferEvent event, RuntimeException failure) {
+        if (!sagaOrchestrator.fail(definition, event.getSagaId(), event, failure)) {
+            throw failure;
+        }
+    }
+
+    private void dispatch(InventoryTransferEvent transfer, String step) {
+        InventoryTransferEvent command = new InventoryTransferEvent(
+            transfer.getFromStoreId(),
+            transfer.getToStoreId(),
+            transfer.getProductId(),
+            transfer.getQuantity(),
+            step
+        );
+        command.setSagaId(transfer.getSagaId());
+        command.setCorrelationId(transfer.getSagaId());
+        command.setNotes(transfer.getNotes());
+        command.setLines(transfer.getLines());
+        eventPublisher.enqueueInventoryTransfer(command);
+    }
+
+    // Every step starts by locking the source and destination rows of all its lines with one query, in
+    // (store, product) order. Opposite transfers (A->B and B->A) and overlapping bulk transfers therefore
+    // lock in the same order and cannot deadlock; on the fast path the first step already holds every
+    // lock the saga needs. Rows of a remote store are simply not found here.
+    private Map<String, Inventory> lockRows(InventoryTransferEvent event) {
+        List<Long> productIds = event.transferLines().stream().map(TransferLine::getProductId).toList();
+        Map<String, Inventory> rows = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.lockByStoreIdInAndProductIdIn(
+                List.of(event.getFromStoreId(), event.getToStoreId()), productIds)) {
+            rows.put(rowKey(inventory.getStore().getId(), inventory.getProduct().getId()), inventory);
+        }
+        return rows;
+    }
+
+    private static String rowKey(Long storeId, Long productId) {
+        return storeId + ":" + productId;
+    }
+
+    private void reserveInventory(InventoryTransferEvent event) {
+        log.debug("Reserving inventory for saga {}", event.getSagaId());
+
+        Map<String, Inventory> rows = lockRows(event);
+        List<Transaction> transactions = new ArrayList<>();
+        for (TransferLine line : event.transferLines()) {
+            Inventory source = rows.get(rowKey(event.getFromStoreId(), line.getProductId()));
+            if (source == null) {
+                throw new RuntimeException("Source inventory not found for product " + line.getProductId());
+            }
+            // The row is locked and managed, so the check and the change need no conditional UPDATE;
+            // a bulk UPDATE would also leave this managed copy stale for the CONFIRM step on the fast path
+            if (!source.canReserve(line.getQuantity())) {
+                throw new RuntimeException("Insufficient available quantity to reserve for product " + line.getProductId());
+            }
+            // With the ledger on, its live cell has to allow the reservation as well
+            boolean viaLedger = inventoryLedger.applyDirect(event.getFromStoreId(), line.getProductId(), 0, line.getQuantity());
+            source.reserve(line.getQuantity());
+            // Quantity is unchanged but cached rows carry reserved/available amounts
+            applicationEventPublisher.publishEvent(InventoryLedger.changeEvent(viaLedger,
+                event.getFromStoreId(), line.getProductId(), source.getQuantity(), source.getQuantity()));
+
+            transactions.add(new Transaction(
+                source.getStore(),
+                source.getProduct(),
                 Transaction.TransactionType.TRANSFER_OUT,
-                event.getQuantity(),
+                line.getQuantity(),
                 event.getSagaId(),
                 "Reserved for transfer: " + event.getNotes()
-            );
-            transactionRepository.save(reserveTransaction);
-
-            // Step 2: Add inventory at destination
-            InventoryTransferEvent confirmEvent = new InventoryTransferEvent(
-                event.getFromStoreId(), 
-                event.getToStoreId(), 
-                event.getProductId(), 
-                event.getQuantity(), 
-                "CONFIRM"
-            );
-            confirmEvent.setSagaId(event.getSagaId());
-            confirmEvent.setNotes(event.getNotes());
-            
-            eventPublisher.publishInventoryTransfer(confirmEvent);
-            
-        } catch (Exception e) {
-            System.err.println("❌ Failed to reserve inventory: " + e.getMessage());
-            rollbackTransfer(event);
-            throw e;
+            ));
         }
+        transactionRepository.saveAll(transactions);
     }
 
-    @Transactional
-    public void confirmTransfer(InventoryTransferEvent event) {
-        try {
-            System.out.println("✅ Confirming transfer for saga: " + event.getSagaId());
-            
+    private void confirmTransfer(InventoryTransferEvent event) {
+        log.debug("Confirming transfer for saga {}", event.getSagaId());
+
+        Map<String, Inventory> rows = lockRows(event);
+        List<Transaction> transactions = new ArrayList<>();
+        for (TransferLine line : event.transferLines()) {
             // Add inventory at destination store
-            Inventory destInventory = inventoryRepository
-                    .findByStoreIdAndProductIdForUpdate(event.getToStoreId(), event.getProductId())
-                    .orElseGet(() -> {
-                        var store = storeRepository.findById(event.getToStoreId())
-                                .orElseThrow(() -> new RuntimeException("Destination store not found"));
-                        var product = productRepository.findById(event.getProductId())
-                                .orElseThrow(() -> new RuntimeException("Product not found"));
-                        return new Inventory(store, product, 0);
-                    });
-            
-            destInventory.adjustQuantity(event.getQuantity());
-            inventoryRepository.save(destInventory);
-            
-            // Create destination transaction
-            Transaction destTransaction = new Transaction(
+            Inventory destInventory = rows.get(rowKey(event.getToStoreId(), line.getProductId()));
+            if (destInventory == null) {
+                var store = storeRepository.findById(event.getToStoreId())
+                        .orElseThrow(() -> new RuntimeException("Destination store not found"));
+                var product = productRepository.findById(line.getProductId())
+                        .orElseThrow(() -> new RuntimeException("Product not found: " + line.getProductId()));
+                destInventory = inventoryRepository.save(new Inventory(store, product, 0));
+            }
+
+            boolean destViaLedger = inventoryLedger.applyDirect(event.getToStoreId(), line.getProductId(), line.getQuantity(), 0);
+            int destOldQuantity = destInventory.getQuantity();
+            destInventory.adjustQuantity(line.getQuantity());
+            applicationEventPublisher.publishEvent(InventoryLedger.changeEvent(destViaLedger,
+                event.getToStoreId(), line.getProductId(), destOldQuantity, destInventory.getQuantity()));
+
+            transactions.add(new Transaction(
                 destInventory.getStore(),
                 destInventory.getProduct(),
                 Transaction.TransactionType.TRANSFER_IN,
-                event.getQuantity(),
+                line.getQuantity(),
                 event.getSagaId(),
                 "Received from transfer: " + event.getNotes()
-            );
-            transactionRepository.save(destTransaction);
-
-            // Final step: Release reservation and complete transfer
-            Inventory sourceInventory = inventoryRepository
-                    .findByStoreIdAndProductIdForUpdate(event.getFromStoreId(), event.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Source inventory not found"));
-            
-            // Release reservation and actually reduce quantity
-            sourceInventory.releaseReservation(event.getQuantity());
-            sourceInventory.adjustQuantity(-event.getQuantity());
-            inventoryRepository.save(sourceInventory);
-
-            // Publish audit events
-            eventPublisher.publishAuditEvent(
-                "TRANSFER_COMPLETE", 
-                event.getFromStoreId(), 
-                event.getProductId(),
-                "Transfer to store " + event.getToStoreId(),
-                event.getSagaId()
-            );
+            ));
 
-            // Send real-time updates
-            messagingTemplate.convertAndSend("/topic/inventory-updates", sourceInventory);
-            messagingTemplate.convertAndSend("/topic/inventory-updates", destInventory);
-            messagingTemplate.convertAndSend("/topic/transfer-completed", event);
-            
-            System.out.println("🎉 Transfer saga completed successfully: " + event.getSagaId());
-            
-        } catch (Exception e) {
-            System.err.println("❌ Failed to confirm transfer: " + e.getMessage());
-            rollbackTransfer(event);
-            throw e;
+            // Release reservation and actually reduce quantity at the source
+            Inventory sourceInventory = rows.get(rowKey(event.getFromStoreId(), line.getProductId()));
+            if (sourceInventory == null) {
+                throw new RuntimeException("Source inventory not found for product " + line.getProductId());
+            }
+            boolean sourceViaLedger = inventoryLedger.applyDirect(event.getFromStoreId(), line.getProductId(),
+                -line.getQuantity(), -line.getQuantity());
+            int sourceOldQuantity = sourceInventory.getQuantity();
+            sourceInventory.releaseReservation(line.getQuantity());
+            sourceInventory.adjustQuantity(-line.getQuantity());
+            applicationEventPublisher.publishEvent(InventoryLedger.changeEvent(sourceViaLedger,
+                event.getFromStoreId(), line.getProductId(), sourceOldQuantity, sourceInventory.getQuantity()));
+
+            // Audit record committed with the transfer through the outbox
+            InventoryAuditEvent audit = new InventoryAuditEvent(
+                "TRANSFER_COMPLETE",
+                event.getFromStoreId(),
+                line.getProductId(),
+                sourceOldQuantity,
+                sourceInventory.getQuantity()
+            );
+            audit.setCorrelationId(event.getSagaId());
+            eventPublisher.enqueueInventoryAudit(audit);
         }
+        // Locked rows are managed: their updates are flushed (JDBC-batched) at commit
+        transactionRepository.saveAll(transactions);
+
+        // Stock changes reach /topic/inventory-updates through InventoryUpdateBroadcaster after commit
+        messagingTemplate.convertAndSend("/topic/transfer-completed", event);
+
+        log.info(EventSamplingFilter.EVENT, "Transfer saga {} completed: {} line(s) from store {} to store {}",
+                event.getSagaId(), event.transferLines().size(), event.getFromStoreId(), event.getToStoreId());
     }
 
-    @Transactional
-    public void rollbackTransfer(InventoryTransferEvent event) {
-        try {
-            System.out.println("🔄 Rolling back transfer saga: " + event.getSagaId());
-            
-            // Release any reservations
-            Optional<Inventory> sourceInventory = inventoryRepository
-                    .findByStoreIdAndProductIdForUpdate(event.getFromStoreId(), event.getProductId());
-            
-            if (sourceInventory.isPresent() && sourceInventory.get().getReservedQuantity() >= event.getQuantity()) {
-                sourceInventory.get().releaseReservation(event.getQuantity());
-                inventoryRepository.save(sourceInventory.get());
-            }
+    private void releaseReservation(InventoryTransferEvent event) {
+        log.info("Rolling back transfer saga {}", event.getSagaId());
 
-            // Create rollback transaction
-            if (sourceInventory.isPresent()) {
-                Transaction rollbackTransaction = new Transaction(
-                    sourceInventory.get().getStore(),
-                    sourceInventory.get().getProduct(),
-                    Transaction.TransactionType.ADJUSTMENT,
-                    event.getQuantity(),
-                    event.getSagaId(),
-                    "Transfer rollback: " + event.getNotes()
-                );
-                transactionRepository.save(rollbackTransaction);
+        Map<String, Inventory> rows = lockRows(event);
+        List<Transaction> transactions = new ArrayList<>();
+        for (TransferLine line : event.transferLines()) {
+            Inventory sourceInventory = rows.get(rowKey(event.getFromStoreId(), line.getProductId()));
+            if (sourceInventory == null) {
+                continue;
+            }
+            // Release the reservation if it is still held
+            if (sourceInventory.getReservedQuantity() >= line.getQuantity()) {
+                boolean viaLedger;
+                try {
+                    viaLedger = inventoryLedger.applyDirect(event.getFromStoreId(), line.getProductId(), 0, -line.getQuantity());
+                } catch (IllegalArgumentException e) {
+                    // Compensation must go through; the plain change below makes the ledger reload the row
+                    viaLedger = false;
+                }
+                sourceInventory.releaseReservation(line.getQuantity());
+                int quantity = sourceInventory.getQuantity();
+                applicationEventPublisher.publishEvent(InventoryLedger.changeEvent(viaLedger,
+                    event.getFromStoreId(), line.getProductId(), quantity, quantity));
             }
 
-            // Send rollback notification
-            messagingTemplate.convertAndSend("/topic/transfer-failed", event);
-            
-            System.out.println("🔄 Transfer saga rolled back: " + event.getSagaId());
-            
-        } catch (Exception e) {
-            System.err.println("❌ Failed to rollback transfer: " + e.getMessage());
+            transactions.add(new Transaction(
+                sourceInventory.getStore(),
+                sourceInventory.getProduct(),
+                Transaction.TransactionType.ADJUSTMENT,
+                line.getQuantity(),
+                event.getSagaId(),
+                "Transfer rollback: " + event.getNotes()
+            ));
         }
+        transactionRepository.saveAll(transactions);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.inventory.saga;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// Ordered steps of a saga type. SagaOrchestrator runs them either all in one local transaction, or one
+// per command: the dispatcher queues the command for a step name (or COMPENSATE) with the saga payload.
+public class SagaDefinition<T> {
+
+    // Command that undoes the completed steps, last first
+    public static final String COMPENSATE = "ROLLBACK";
+
+    private final String name;
+    private final Class<T> payloadType;
+    private final BiConsumer<T, String> dispatcher;
+    private final List<SagaStep<T>> steps = new ArrayList<>();
+
+    public SagaDefinition(String name, Class<T> payloadType, BiConsumer<T, String> dispatcher) {
+        this.name = name;
+        this.payloadType = payloadType;
+        this.dispatcher = dispatcher;
+    }
+
+    public SagaDefinition<T> step(String stepName, Consumer<T> action, Consumer<T> compensation) {
+        steps.add(new SagaStep<>(stepName, action, compensation));
+        return this;
+    }
+
+    public String getName() { return name; }
+
+    public Class<T> getPayloadType() { return payloadType; }
+
+    public BiConsumer<T, String> getDispatcher() { return dispatcher; }
+
+    public List<SagaStep<T>> getSteps() { return Collections.unmodifiableList(steps); }
+}
@@ -0,0 +1,218 @@
+package com.inventory.saga;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.model.SagaInstance;
+import com.inventory.repository.SagaInstanceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Runs SagaDefinitions and keeps their progress in saga_instances.
+//
+// Local: all steps run in the caller's transaction, so a failing step rolls back the ones before it
+// and there is nothing to compensate. Async: each step runs in the transaction of the command that
+// triggered it, which also records the progress and queues the next command (outbox), so a step is
+// never applied without the saga moving on. A failed step switches the saga to compensation.
+//
+// Every step and compensation is timed as inventory.saga.step{saga, step, mode, phase, outcome};
+// inventory.saga.compensations{saga} counts the sagas that had to be undone.
+@Service
+public class SagaOrchestrator {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaOrchestrator.class);
+
+    @Autowired
+    private SagaInstanceRepository sagaInstanceRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> stepTimers = new ConcurrentHashMap<>();
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> SagaInstance runLocal(SagaDefinition<T> definition, String sagaId, T payload) {
+        SagaInstance instance = new SagaInstance(sagaId, definition.getName(), SagaInstance.Mode.LOCAL, toJson(payload));
+        for (SagaStep<T> step : definition.getSteps()) {
+            try {
+                timed(definition, step.getName(), SagaInstance.Mode.LOCAL, "action", step.getAction(), payload);
+            } catch (RuntimeException e) {
+                // The caller's transaction is rolled back; only the failure is kept, in a transaction of its own
+                instance.setCurrentStep(step.getName());
+                instance.setStatus(SagaInstance.Status.FAILED);
+                instance.setFailureReason(reason(e));
+                try {
+                    requiresNew().executeWithoutResult(status -> sagaInstanceRepository.save(instance));
+                } catch (RuntimeException recordFailure) {
+                    log.error("Could not record failed saga {}: {}", sagaId, recordFailure.getMessage());
+                }
+                throw e;
+            }
+        }
+        List<SagaStep<T>> steps = definition.getSteps();
+        instance.setCurrentStep(steps.get(steps.size() - 1).getName());
+        instance.setCompletedSteps(steps.size());
+        instance.setStatus(SagaInstance.Status.COMPLETED);
+        log.debug("Saga {} completed locally in one transaction", sagaId);
+        return sagaInstanceRepository.save(instance);
+    }
+
+    // Writes the instance and queues the first step's command, both in the caller's transaction
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> SagaInstance startAsync(SagaDefinition<T> definition, String sagaId, T payload) {
+        SagaInstance existing = sagaInstanceRepository.findById(sagaId).orElse(null);
+        if (existing != null) {
+            return existing;
+        }
+        String firstStep = definition.getSteps().get(0).getName();
+        SagaInstance instance = new SagaInstance(sagaId, definition.getName(), SagaInstance.Mode.ASYNC, toJson(payload));
+        instance.setCurrentStep(firstStep);
+        sagaInstanceRepository.save(instance);
+        definition.getDispatcher().accept(payload, firstStep);
+        log.debug("Saga {} started asynchronously at step {}", sagaId, firstStep);
+        return instance;
+    }
+
+    // Runs the step a command asks for if it is the one the saga is waiting on; anything else
+    // (redeliveries, commands for a saga already compensating) is skipped
+    @Transactional
+    public <T> boolean handleStep(SagaDefinition<T> definition, String sagaId, String stepName, T payload) {
+        SagaInstance instance = sagaInstanceRepository.findById(sagaId).orElse(null);
+        if (instance == null || instance.getStatus() != SagaInstance.Status.RUNNING
+                || !stepName.equals(instance.getCurrentStep())) {
+            log.info("Skipping {} for saga {} ({})", stepName, sagaId, instance == null
+                    ? "unknown saga"
+                    : "saga is " + instance.getStatus() + " at " + instance.getCurrentStep());
+            return false;
+        }
+
+        List<SagaStep<T>> steps = definition.getSteps();
+        int index = instance.getCompletedSteps();
+        timed(definition, stepName, instance.getMode(), "action", steps.get(index).getAction(), payload);
+        instance.setCompletedSteps(index + 1);
+        if (index + 1 < steps.size()) {
+            String nextStep = steps.get(index + 1).getName();
+            instance.setCurrentStep(nextStep);
+            definition.getDispatcher().accept(payload, nextStep);
+        } else {
+            instance.setStatus(SagaInstance.Status.COMPLETED);
+        }
+        sagaInstanceRepository.save(instance);
+        return true;
+    }
+
+    // Called after a step's transaction rolled back: moves the saga to COMPENSATING and queues the
+    // compensation command. Returns false when the saga was not running, leaving the failure to the caller.
+    public <T> boolean fail(SagaDefinition<T> definition, String sagaId, T payload, RuntimeException failure) {
+        Boolean compensating = requiresNew().execute(status -> {
+            SagaInstance instance = sagaInstanceRepository.findById(sagaId).orElse(null);
+            if (instance == null || instance.getStatus() != SagaInstance.Status.RUNNING) {
+                return false;
+            }
+            instance.setStatus(SagaInstance.Status.COMPENSATING);
+            instance.setFailureReason(reason(failure));
+            sagaInstanceRepository.save(instance);
+            definition.getDispatcher().accept(payload, SagaDefinition.COMPENSATE);
+            return true;
+        });
+        if (Boolean.TRUE.equals(compensating)) {
+            log.warn("Saga {} failed, compensating: {}", sagaId, failure.getMessage());
+        }
+        return Boolean.TRUE.equals(compensating);
+    }
+
+    // Undoes the completed steps, last first, with the payload stored when the saga started
+    @Transactional
+    public <T> boolean compensate(SagaDefinition<T> definition, String sagaId) {
+        SagaInstance instance = sagaInstanceRepository.findById(sagaId).orElse(null);
+        if (instance == null || instance.getStatus() != SagaInstance.Status.COMPENSATING) {
+            log.info("Skipping compensation for saga {} ({})", sagaId,
+                    instance == null ? "unknown saga" : "saga is " + instance.getStatus());
+            return false;
+        }
+
+        T payload = fromJson(instance.getPayload(), definition.getPayloadType());
+        List<SagaStep<T>> steps = definition.getSteps();
+        for (int i = instance.getCompletedSteps() - 1; i >= 0; i--) {
+            if (steps.get(i).getCompensation() != null) {
+                timed(definition, steps.get(i).getName(), instance.getMode(), "compensation",
+                        steps.get(i).getCompensation(), payload);
+            }
+        }
+        instance.setStatus(SagaInstance.Status.COMPENSATED);
+        sagaInstanceRepository.save(instance);
+        meterRegistry.counter("inventory.saga.compensations", "saga", definition.getName()).increment();
+        log.info("Saga {} compensated", sagaId);
+        return true;
+    }
+
+    private <T> void timed(SagaDefinition<T> definition, String step, SagaInstance.Mode mode, String phase,
+                           Consumer<T> action, T payload) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            action.accept(payload);
+            outcome = "success";
+        } finally {
+            String tagOutcome = outcome;
+            stepTimers.computeIfAbsent(String.join("|", definition.getName(), step, mode.name(), phase, outcome),
+                            key -> Timer.builder("inventory.saga.step")
+                                    .description("Duration of one saga step or compensation")
+                                    .tag("saga", definition.getName())
+                                    .tag("step", step)
+                                    .tag("mode", mode.name().toLowerCase())
+                                    .tag("phase", phase)
+                                    .tag("outcome", tagOutcome)
+                                    .publishPercentileHistogram()
+                                    .register(meterRegistry))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private TransactionTemplate requiresNew() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize saga payload", e);
+        }
+    }
+
+    private <T> T fromJson(String payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read saga payload", e);
+        }
+    }
+
+    private static String reason(RuntimeException failure) {
+        String message = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getName();
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,23 @@
+package com.inventory.saga;
+
+import java.util.function.Consumer;
+
+// One forward action of a saga and the action that undoes it once it has committed (null: nothing to undo)
+public class SagaStep<T> {
+
+    private final String name;
+    private final Consumer<T> action;
+    private final Consumer<T> compensation;
+
+    public SagaStep(String name, Consumer<T> action, Consumer<T> compensation) {
+        this.name = name;
+        this.action = action;
+        this.compensation = compensation;
+    }
+
+    public String getName() { return name; }
+
+    public Consumer<T> getAction() { return action; }
+
+    public Consumer<T> getCompensation() { return compensation; }
+}
@@ -0,0 +1,457 @@
+package com.inventory.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.event.InventoryAuditEvent;
+import com.inventory.event.InventoryEvent;
+import com.inventory.event.InventorySyncEvent;
+import com.inventory.event.InventoryTransferEvent;
+import com.inventory.event.InventoryUpdateEvent;
+import com.inventory.event.TransferLine;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Compact binary layout of the InventoryEvent hierarchy, schema version 1:
+//
+//   magic 0xC1 | version | type tag | presence bits (varint) | present fields, in schema order
+//
+// Numbers are zig-zag varints, strings length-prefixed UTF-8, ids that are canonical UUIDs take 16 bytes
+// and timestamps are epoch seconds + nanos of the (zone-less) LocalDateTime. Transfer lines are a count
+// followed by (productId, quantity) pairs. Free-form values (sync data, audit old/new values) are embedded
+// as JSON. 0xC1 can never start a JSON document, so a reader tells the two formats apart by the first byte.
+//
+// Adding an optional field means appending it to the schema of its type (new presence bit, written last);
+// removing, reordering or retyping fields needs a new VERSION, with the old layout still decoded.
+public final class InventoryEventCodec {
+
+    public static final byte MAGIC = (byte) 0xC1;
+    public static final byte VERSION = 1;
+
+    private enum Kind { ID, TIME, LONG, INT, STRING, JSON, LINES }
+
+    private static final byte UPDATE = 1;
+    private static final byte TRANSFER = 2;
+    private static final byte SYNC = 3;
+    private static final byte AUDIT = 4;
+
+    // eventId, timestamp, storeId, productId, correlationId, priority (eventType is the type tag)
+    private static final Kind[] BASE = {Kind.ID, Kind.TIME, Kind.LONG, Kind.LONG, Kind.ID, Kind.INT};
+    // quantityChange, newQuantity, operation, notes, referenceId, version
+    private static final Kind[] UPDATE_FIELDS = concat(Kind.INT, Kind.INT, Kind.STRING, Kind.STRING, Kind.STRING, Kind.LONG);
+    // fromStoreId, toStoreId, quantity, transferType, sagaId, notes, lines
+    private static final Kind[] TRANSFER_FIELDS =
+            concat(Kind.LONG, Kind.LONG, Kind.INT, Kind.STRING, Kind.ID, Kind.STRING, Kind.LINES);
+    // syncType, targetStore, syncData
+    private static final Kind[] SYNC_FIELDS = concat(Kind.STRING, Kind.STRING, Kind.JSON);
+    // action, userId, ipAddress, oldValue, newValue
+    private static final Kind[] AUDIT_FIELDS = concat(Kind.STRING, Kind.STRING, Kind.STRING, Kind.JSON, Kind.JSON);
+
+    private static final ObjectMapper EMBEDDED_JSON = JacksonUtils.enhancedObjectMapper();
+
+    private InventoryEventCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(InventoryEvent event) {
+        byte type = typeOf(event);
+        Kind[] schema = schemaOf(type);
+        Object[] values = valuesOf(event, type);
+
+        long presence = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                presence |= 1L << i;
+            }
+        }
+
+        Output out = new Output(128);
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(type);
+        out.writeVarLong(presence);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                writeValue(out, schema[i], values[i]);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static InventoryEvent decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("Not a binary inventory event");
+        }
+        if (data.length < 3 || data[1] != VERSION) {
+            throw new SerializationException("Unsupported binary inventory event version: "
+                    + (data.length > 1 ? data[1] : "none"));
+        }
+        try {
+            byte type = data[2];
+            Kind[] schema = schemaOf(type);
+            Input in = new Input(data, 3);
+            long presence = in.readVarLong();
+            Object[] values = new Object[schema.length];
+            for (int i = 0; i < schema.length; i++) {
+                if ((presence & (1L << i)) != 0) {
+                    values[i] = readValue(in, schema[i]);
+                }
+            }
+            return eventOf(type, values);
+        } catch (ArrayIndexOutOfBoundsException | IOException e) {
+            throw new SerializationException("Corrupt binary inventory event", e);
+        }
+    }
+
+    private static byte typeOf(InventoryEvent event) {
+        if (event instanceof InventoryUpdateEvent) return UPDATE;
+        if (event instanceof InventoryTransferEvent) return TRANSFER;
+        if (event instanceof InventorySyncEvent) return SYNC;
+        if (event instanceof InventoryAuditEvent) return AUDIT;
+        throw new SerializationException("No binary schema for " + event.getClass().getName());
+    }
+
+    private static Kind[] schemaOf(byte type) {
+        switch (type) {
+            case UPDATE: return UPDATE_FIELDS;
+            case TRANSFER: return TRANSFER_FIELDS;
+            case SYNC: return SYNC_FIELDS;
+            case AUDIT: return AUDIT_FIELDS;
+            default: throw new SerializationException("Unknown binary inventory event type: " + type);
+        }
+    }
+
+    private static Object[] valuesOf(InventoryEvent event, byte type) {
+        Object[] values = new Object[schemaOf(type).length];
+        values[0] = event.getEventId();
+        values[1] = event.getTimestamp();
+        values[2] = event.getStoreId();
+        values[3] = event.getProductId();
+        values[4] = event.getCorrelationId();
+        values[5] = event.getPriority();
+        int i = BASE.length;
+        switch (type) {
+            case UPDATE: {
+                InventoryUpdateEvent update = (InventoryUpdateEvent) event;
+                values[i++] = update.getQuantityChange();
+                values[i++] = update.getNewQuantity();
+                values[i++] = update.getOperation();
+                values[i++] = update.getNotes();
+                values[i++] = update.getReferenceId();
+                values[i] = update.getVersion();
+                break;
+            }
+            case TRANSFER: {
+                InventoryTransferEvent transfer = (InventoryTransferEvent) event;
+                values[i++] = transfer.getFromStoreId();
+                values[i++] = transfer.getToStoreId();
+                values[i++] = transfer.getQuantity();
+                values[i++] = transfer.getTransferType();
+                values[i++] = transfer.getSagaId();
+                values[i++] = transfer.getNotes();
+                values[i] = transfer.getLines();
+                break;
+            }
+            case SYNC: {
+                InventorySyncEvent sync = (InventorySyncEvent) event;
+                values[i++] = sync.getSyncType();
+                values[i++] = sync.getTargetStore();
+                values[i] = sync.getSyncData();
+                break;
+            }
+            default: {
+                InventoryAuditEvent audit = (InventoryAuditEvent) event;
+                values[i++] = audit.getAction();
+                values[i++] = audit.getUserId();
+                values[i++] = audit.getIpAddress();
+                values[i++] = audit.getOldValue();
+                values[i] = audit.getNewValue();
+            }
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static InventoryEvent eventOf(byte type, Object[] values) {
+        InventoryEvent event;
+        int i = BASE.length;
+        switch (type) {
+            case UPDATE: {
+                InventoryUpdateEvent update = new InventoryUpdateEvent();
+                update.setQuantityChange((Integer) values[i++]);
+                update.setNewQuantity((Integer) values[i++]);
+                update.setOperation((String) values[i++]);
+                update.setNotes((String) values[i++]);
+                update.setReferenceId((String) values[i++]);
+                update.setVersion((Long) values[i]);
+                event = update;
+                break;
+            }
+            case TRANSFER: {
+                InventoryTransferEvent transfer = new InventoryTransferEvent();
+                transfer.setFromStoreId((Long) values[i++]);
+                transfer.setToStoreId((Long) values[i++]);
+                transfer.setQuantity((Integer) values[i++]);
+                transfer.setTransferType((String) values[i++]);
+                transfer.setSagaId((String) values[i++]);
+                transfer.setNotes((String) values[i++]);
+                transfer.setLines((List<TransferLine>) values[i]);
+                event = transfer;
+                break;
+            }
+            case SYNC: {
+                InventorySyncEvent sync = new InventorySyncEvent();
+                sync.setSyncType((String) values[i++]);
+                sync.setTargetStore((String) values[i++]);
+                sync.setSyncData((Map<String, Object>) values[i]);
+                event = sync;
+                break;
+            }
+            default: {
+                InventoryAuditEvent audit = new InventoryAuditEvent();
+                audit.setAction((String) values[i++]);
+                audit.setUserId((String) values[i++]);
+                audit.setIpAddress((String) values[i++]);
+                audit.setOldValue(values[i++]);
+                audit.setNewValue(values[i]);
+                event = audit;
+            }
+        }
+        // Absent fields are null on the wire; the constructor defaults must not fill them in
+        event.setEventId((String) values[0]);
+        event.setTimestamp((LocalDateTime) values[1]);
+        event.setStoreId((Long) values[2]);
+        event.setProductId((Long) values[3]);
+        event.setCorrelationId((String) values[4]);
+        event.setPriority((Integer) values[5]);
+        return event;
+    }
+
+    private static void writeValue(Output out, Kind kind, Object value) {
+        switch (kind) {
+            case ID:
+                writeId(out, (String) value);
+                break;
+            case TIME: {
+                LocalDateTime time = (LocalDateTime) value;
+                out.writeVarLong(zigZag(time.toEpochSecond(ZoneOffset.UTC)));
+                out.writeVarLong(time.getNano());
+                break;
+            }
+            case LONG:
+                out.writeVarLong(zigZag((Long) value));
+                break;
+            case INT:
+                out.writeVarLong(zigZag((Integer) value));
+                break;
+            case STRING:
+                out.writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+                break;
+            case LINES: {
+                @SuppressWarnings("unchecked")
+                List<TransferLine> lines = (List<TransferLine>) value;
+                out.writeVarLong(lines.size());
+                for (TransferLine line : lines) {
+                    out.writeVarLong(zigZag(line.getProductId()));
+                    out.writeVarLong(zigZag(line.getQuantity()));
+                }
+                break;
+            }
+            default:
+                try {
+                    out.writeBytes(EMBEDDED_JSON.writeValueAsBytes(value));
+                } catch (IOException e) {
+                    throw new SerializationException("Cannot embed " + value.getClass().getName() + " as JSON", e);
+                }
+        }
+    }
+
+    private static Object readValue(Input in, Kind kind) throws IOException {
+        switch (kind) {
+            case ID:
+                return readId(in);
+            case TIME: {
+                long seconds = unZigZag(in.readVarLong());
+                return LocalDateTime.ofEpochSecond(seconds, (int) in.readVarLong(), ZoneOffset.UTC);
+            }
+            case LONG:
+                return unZigZag(in.readVarLong());
+            case INT:
+                return (int) unZigZag(in.readVarLong());
+            case STRING:
+                return in.readString();
+            case LINES: {
+                int count = (int) in.readVarLong();
+                List<TransferLine> lines = new ArrayList<>(Math.min(count, 1024));
+                for (int i = 0; i < count; i++) {
+                    lines.add(new TransferLine(unZigZag(in.readVarLong()), (int) unZigZag(in.readVarLong())));
+                }
+                return lines;
+            }
+            default:
+                return EMBEDDED_JSON.readValue(in.readBytes(), Object.class);
+        }
+    }
+
+    // Event, correlation and saga ids are UUID strings almost everywhere: 16 bytes instead of 37
+    private static void writeId(Output out, String id) {
+        UUID uuid = parseCanonicalUuid(id);
+        if (uuid != null) {
+            out.write((byte) 1);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.write((byte) 0);
+            out.writeBytes(id.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String readId(Input in) {
+        if (in.read() == 1) {
+            return new UUID(in.readLong(), in.readLong()).toString();
+        }
+        return in.readString();
+    }
+
+    // Only ids that print back identically are packed, so every id round-trips unchanged
+    private static UUID parseCanonicalUuid(String id) {
+        if (id.length() != 36 || id.charAt(8) != '-' || id.charAt(13) != '-'
+                || id.charAt(18) != '-' || id.charAt(23) != '-') {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static Kind[] concat(Kind... fields) {
+        Kind[] schema = Arrays.copyOf(BASE, BASE.length + fields.length);
+        System.arraycopy(fields, 0, schema, BASE.length, fields.length);
+        return schema;
+    }
+
+    private static final class Output {
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void write(byte value) {
+            ensure(1);
+            buffer[position++] = value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] data;
+        private int position;
+
+        Input(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        byte read() {
+            return data[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in binary inventory event");
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        byte[] readBytes() {
+            int length = readLength();
+            byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = readLength();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private int readLength() {
+            long length = readVarLong();
+            if (length > data.length - position) {
+                throw new ArrayIndexOutOfBoundsException((int) Math.min(Integer.MAX_VALUE, position + length));
+            }
+            return (int) length;
+        }
+    }
+}
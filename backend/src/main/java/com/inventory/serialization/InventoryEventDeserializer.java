@@ -0,0 +1,41 @@
+package com.inventory.serialization;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+// Reads both wire formats on every topic, so a topic can be switched to binary (or back) while older
+// records are still on it: the codec's magic byte marks binary values, anything else is handed to the
+// regular JsonDeserializer with the same configuration.
+public class InventoryEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (InventoryEventCodec.isBinary(data)) {
+            return InventoryEventCodec.decode(data);
+        }
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (InventoryEventCodec.isBinary(data)) {
+            return InventoryEventCodec.decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
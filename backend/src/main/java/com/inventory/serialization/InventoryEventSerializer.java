@@ -0,0 +1,84 @@
+package com.inventory.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.event.InventoryEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Kafka value serializer with the wire format chosen per topic: topics listed under BINARY_TOPICS get
+// InventoryEventCodec, every other topic keeps JSON without type headers. Strings (outbox rows, which
+// hold the event's JSON) and raw bytes go out as they are, except that JSON bound for a binary topic
+// is re-encoded so the topic carries one format.
+public class InventoryEventSerializer implements Serializer<Object> {
+
+    public static final String BINARY_TOPICS = "inventory.serialization.binary-topics";
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>().noTypeInfo();
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+    private Set<String> binaryTopics = Set.of();
+
+    public InventoryEventSerializer() {
+    }
+
+    public InventoryEventSerializer(Collection<String> binaryTopics) {
+        this.binaryTopics = Set.copyOf(binaryTopics);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object topics = configs.get(BINARY_TOPICS);
+        if (topics instanceof Collection<?> list) {
+            Set<String> names = new HashSet<>();
+            list.forEach(topic -> names.add(topic.toString().trim()));
+            binaryTopics = Set.copyOf(names);
+        } else if (topics instanceof String list) {
+            binaryTopics = StringUtils.commaDelimitedListToSet(list.replace(" ", ""));
+            binaryTopics.remove("");
+        }
+    }
+
+    public boolean isBinary(String topic) {
+        return binaryTopics.contains(topic);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (isBinary(topic)) {
+            if (data instanceof InventoryEvent event) {
+                return InventoryEventCodec.encode(event);
+            }
+            if (data instanceof String payload) {
+                try {
+                    return InventoryEventCodec.encode(objectMapper.readValue(payload, InventoryEvent.class));
+                } catch (IOException e) {
+                    throw new SerializationException("Outbox payload for " + topic + " is not an inventory event", e);
+                }
+            }
+        }
+        if (data instanceof String payload) {
+            return payload.getBytes(StandardCharsets.UTF_8);
+        }
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
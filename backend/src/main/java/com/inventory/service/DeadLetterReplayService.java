@@ -0,0 +1,200 @@
+package com.inventory.service;
+
+import com.inventory.config.KafkaConfig;
+import com.inventory.publisher.InventoryEventPublisher;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Reads inventory.dlq directly (no consumer group, nothing committed) so operators can inspect it and
+// send offset ranges back to the topics the records originally failed on, as a fresh first attempt.
+@Service
+public class DeadLetterReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayService.class);
+
+    private static final String TOPIC = InventoryEventPublisher.DLQ_TOPIC;
+
+    @Autowired
+    private KafkaTemplate<String, Object> deadLetterKafkaTemplate;
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${inventory.dlq.replay-max-records:10000}")
+    private int replayMaxRecords;
+
+    public Map<String, Object> describe() {
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            List<TopicPartition> partitions = partitionsOf(consumer);
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+
+            List<Map<String, Object>> details = new ArrayList<>();
+            long total = 0;
+            for (TopicPartition partition : partitions) {
+                long first = beginning.get(partition);
+                long next = end.get(partition);
+                total += next - first;
+                details.add(Map.of(
+                        "partition", partition.partition(),
+                        "firstOffset", first,
+                        "endOffset", next,
+                        "records", next - first));
+            }
+
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("topic", TOPIC);
+            summary.put("records", total);
+            summary.put("partitions", details);
+            return summary;
+        }
+    }
+
+    // Replays offsets [fromOffset, toOffset) of one DLQ partition; retry headers are dropped so each
+    // record gets the full retry pipeline again
+    public Map<String, Object> replay(int partition, long fromOffset, long toOffset) {
+        if (fromOffset < 0 || toOffset <= fromOffset) {
+            throw new IllegalArgumentException("Invalid offset range: [" + fromOffset + ", " + toOffset + ")");
+        }
+        if (toOffset - fromOffset > replayMaxRecords) {
+            throw new IllegalArgumentException("At most " + replayMaxRecords + " records can be replayed at once");
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>();
+        List<Long> sentOffsets = new ArrayList<>();
+        List<String> sentTopics = new ArrayList<>();
+        int skipped = 0;
+        long lastOffset = -1;
+
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            TopicPartition topicPartition = new TopicPartition(TOPIC, partition);
+            if (!partitionsOf(consumer).contains(topicPartition)) {
+                throw new IllegalArgumentException("Unknown partition " + partition + " of " + TOPIC);
+            }
+            long end = Math.min(toOffset, consumer.endOffsets(List.of(topicPartition)).get(topicPartition));
+            consumer.assign(List.of(topicPartition));
+            consumer.seek(topicPartition, fromOffset);
+
+            while (consumer.position(topicPartition) < end) {
+                var records = consumer.poll(Duration.ofSeconds(1));
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<String, byte[]> record : records.records(topicPartition)) {
+                    if (record.offset() >= end) {
+                        break;
+                    }
+                    lastOffset = record.offset();
+                    Header origin = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+                    if (origin == null) {
+                        skipped++;
+                        continue;
+                    }
+                    String target = new String(origin.value(), StandardCharsets.UTF_8);
+                    RecordHeaders headers = new RecordHeaders();
+                    for (Header header : record.headers()) {
+                        if (!header.key().equals(KafkaConfig.RETRY_ATTEMPT_HEADER)
+                                && !header.key().equals(KafkaConfig.RETRY_DUE_HEADER)) {
+                            headers.add(header);
+                        }
+                    }
+                    CompletableFuture<SendResult<String, Object>> send;
+                    try {
+                        send = deadLetterKafkaTemplate.send(
+                                new ProducerRecord<>(target, null, record.key(), record.value(), headers));
+                    } catch (KafkaException e) {
+                        send = CompletableFuture.failedFuture(e);
+                    }
+                    sends.add(send);
+                    sentOffsets.add(record.offset());
+                    sentTopics.add(target);
+                }
+            }
+        }
+
+        // Sent back to back; wait for all acknowledgements once, then report each send on its own so a
+        // failed or timed-out send shows up as its DLQ offset instead of failing the whole replay
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Individual outcomes are collected below
+        }
+
+        Map<String, Integer> replayedByTopic = new TreeMap<>();
+        List<Long> failedOffsets = new ArrayList<>();
+        for (int i = 0; i < sends.size(); i++) {
+            CompletableFuture<SendResult<String, Object>> send = sends.get(i);
+            if (send.isDone() && !send.isCompletedExceptionally()) {
+                replayedByTopic.merge(sentTopics.get(i), 1, Integer::sum);
+            } else {
+                failedOffsets.add(sentOffsets.get(i));
+            }
+        }
+        int replayed = sends.size() - failedOffsets.size();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("partition", partition);
+        result.put("fromOffset", fromOffset);
+        result.put("lastOffset", lastOffset);
+        result.put("replayed", replayed);
+        result.put("skipped", skipped);
+        result.put("failed", failedOffsets.size());
+        result.put("failedOffsets", failedOffsets);
+        result.put("byTopic", replayedByTopic);
+        if (failedOffsets.isEmpty()) {
+            log.info("Replayed {} DLQ record(s) from partition {} [{}, {})", replayed, partition, fromOffset, toOffset);
+        } else {
+            log.warn("Replayed {} DLQ record(s) from partition {} [{}, {}); {} not acknowledged, offsets {}",
+                    replayed, partition, fromOffset, toOffset, failedOffsets.size(), failedOffsets);
+        }
+        return result;
+    }
+
+    Consumer<String, byte[]> createConsumer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1000);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer()).createConsumer();
+    }
+
+    private static List<TopicPartition> partitionsOf(Consumer<String, byte[]> consumer) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (PartitionInfo info : consumer.partitionsFor(TOPIC)) {
+            partitions.add(new TopicPartition(TOPIC, info.partition()));
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,66 @@
+package com.inventory.service;
+
+import com.inventory.event.InventoryChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+@Service
+public class InventoryCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryCacheInvalidator.class);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${inventory.cache.low-stock-thresholds:10}")
+    private List<Integer> defaultLowStockThresholds;
+
+    // Thresholds that may currently have a low-stock cache entry
+    private final NavigableSet<Integer> lowStockThresholds = new ConcurrentSkipListSet<>();
+
+    @PostConstruct
+    void init() {
+        lowStockThresholds.addAll(defaultLowStockThresholds);
+    }
+
+    public void registerLowStockThreshold(int threshold) {
+        lowStockThresholds.add(threshold);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent change) {
+        try {
+            Cache inventory = cacheManager.getCache("inventory");
+            if (inventory != null) {
+                inventory.evict("store:" + change.getStoreId());
+                inventory.evict("product:" + change.getProductId());
+                inventory.evict("store:" + change.getStoreId() + ":product:" + change.getProductId());
+            }
+
+            // A row is listed under threshold t when quantity < t, so only lists with
+            // t > min(old, new) contained it before or after the change
+            Cache lowStock = cacheManager.getCache("low-stock");
+            if (lowStock != null) {
+                int lowest = Math.min(change.getOldQuantity(), change.getNewQuantity());
+                for (Integer threshold : lowStockThresholds.tailSet(lowest, false)) {
+                    lowStock.evict("threshold:" + threshold);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Cache invalidation failed for store {} product {}: {}",
+                    change.getStoreId(), change.getProductId(), e.getMessage());
+        }
+    }
+}
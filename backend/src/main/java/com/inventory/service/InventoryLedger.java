@@ -0,0 +1,872 @@
+package com.inventory.service;
+
+import com.inventory.dto.InventoryDTO;
+import com.inventory.event.InventoryAuditEvent;
+import com.inventory.event.InventoryChangedEvent;
+import com.inventory.event.InventoryUpdateEvent;
+import com.inventory.model.Inventory;
+import com.inventory.model.LedgerCheckpoint;
+import com.inventory.model.Transaction;
+import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.LedgerCheckpointRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StoreRepository;
+import com.inventory.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+// Optional in-memory stock ledger for inventory.commands.stock (inventory.ledger.enabled).
+//
+// Each (store, product) row is a cell in a sharded, long-keyed hash table; stock changes are
+// compare-and-set updates on the cell, so the consumer never touches Hibernate for rows already
+// loaded. A flusher thread writes the accumulated deltas, the transaction history rows and the
+// highest applied Kafka offset per partition to the database in one transaction. On restart the
+// consumer seeks back to that checkpoint, replaying whatever had not been flushed.
+//
+// Stock-out, transfer steps and direct updates write the table themselves but go through
+// applyDirect first, so a row the ledger holds is checked against its live cell. Any other write
+// marks the cell stale; the flusher reloads it from the database and replays the unflushed commands
+// on top, dropping the ones the stored row no longer allows. The flush UPDATE itself only applies a
+// delta that keeps the row valid, so a write the ledger has not heard of yet cannot be oversold
+// either. The ledger assumes a key is consumed by one instance at a time, which partitioning by
+// store/product provides.
+@Service
+public class InventoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    public static final String TOPIC = "inventory.commands.stock";
+
+    private static final String FLUSH_SQL = "UPDATE inventory SET quantity = quantity + ?, " +
+            "reserved_quantity = reserved_quantity + ?, version = version + ?, last_updated = ? " +
+            "WHERE store_id = ? AND product_id = ? AND quantity + ? >= 0 AND quantity + ? >= reserved_quantity + ?";
+
+    // Read straight from the table: a persistence context could still hold the row as it was loaded
+    private static final String STOCK_SQL = "SELECT quantity, reserved_quantity, version, last_updated " +
+            "FROM inventory WHERE store_id = ? AND product_id = ?";
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private ProcessedEventStore processedEvents;
+
+    @Autowired
+    private InventoryEventPublisher eventPublisher;
+
+    @Value("${inventory.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.ledger.shards:64}")
+    private int shardCount;
+
+    @Value("${inventory.ledger.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    // Appliers share the read side; the flusher takes the write side for an instant to cut a
+    // snapshot whose cell values, history rows and offsets all describe the same set of events
+    private final ReentrantReadWriteLock cutLock = new ReentrantReadWriteLock();
+    private final Queue<Cell> dirtyCells = new ConcurrentLinkedQueue<>();
+    private final Queue<Cell> staleCells = new ConcurrentLinkedQueue<>();
+    private final Queue<PendingTransaction> pendingTransactions = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, Long> appliedOffsets = new ConcurrentHashMap<>();
+
+    // Flusher state, only touched inside flush()
+    private final List<PendingTransaction> unsavedTransactions = new ArrayList<>();
+    private Map<Integer, Long> flushedOffsets = Map.of();
+
+    private CellMap cells;
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        cells = new CellMap(shardCount);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-ledger-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Inventory ledger flush failed, will retry: {}", e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Inventory ledger enabled ({} shards, flush every {}ms)", shardCount, intervalMillis);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Applies one stock command and returns the quantity change. Rule violations (negative stock,
+    // below reserved, version mismatch) throw and leave the record's offset out of the checkpoint;
+    // the listener hands the record to the error handler, which sends it on to the retry topics or the DLQ.
+    public InventoryChangedEvent apply(InventoryUpdateEvent event, int partition, long offset) {
+        Cell cell = cellFor(event.getStoreId(), event.getProductId());
+        cutLock.readLock().lock();
+        try {
+            Stock before = cell.stock.get();
+            Transaction.TransactionType type = applyOperation(cell, event);
+            Stock after = cell.stock.get();
+            pendingTransactions.add(new PendingTransaction(event, type, quantityChange(event)));
+            // Seen from now on; the processed_events row is written with the flush
+            if (event.getEventId() != null) {
+                processedEvents.remember(List.of(event.getEventId()));
+            }
+            markDirty(cell);
+            appliedOffsets.merge(partition, offset, Math::max);
+            return new InventoryChangedEvent(event.getStoreId(), event.getProductId(), before.quantity, after.quantity);
+        } finally {
+            cutLock.readLock().unlock();
+        }
+    }
+
+    // Live view of a loaded row, or empty when the ledger does not hold a current copy
+    public Optional<InventoryDTO> read(Long storeId, Long productId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Cell cell = cells.get(storeId, productId);
+        if (cell == null || cell.stale) {
+            return Optional.empty();
+        }
+        Stock stock = cell.stock.get();
+        InventoryDTO template = cell.template;
+        InventoryDTO dto = new InventoryDTO();
+        dto.setId(template.getId());
+        dto.setStoreId(template.getStoreId());
+        dto.setProductId(template.getProductId());
+        dto.setQuantity(stock.quantity);
+        dto.setReservedQuantity(stock.reserved);
+        dto.setAvailableQuantity(stock.quantity - stock.reserved);
+        dto.setVersion(stock.version);
+        dto.setLastUpdated(stock.updatedAt);
+        dto.setStoreName(template.getStoreName());
+        dto.setStoreLocation(template.getStoreLocation());
+        dto.setProductName(template.getProductName());
+        dto.setProductSku(template.getProductSku());
+        dto.setProductCategory(template.getProductCategory());
+        return Optional.of(dto);
+    }
+
+    public boolean holds(Long storeId, Long productId) {
+        if (!enabled) {
+            return false;
+        }
+        Cell cell = cells.get(storeId, productId);
+        return cell != null && !cell.stale;
+    }
+
+    // Called inside the transaction of a write that changes the inventory table itself. A row the ledger
+    // holds is checked against the cell under the same rules as a command and changed there too; the
+    // write's own UPDATE persists it, so the flusher leaves it out, and a rollback undoes it. Returns
+    // false when the ledger does not hold the row; the write's commit then marks the cell stale.
+    public boolean applyDirect(Long storeId, Long productId, int quantityChange, int reservedChange) {
+        if (!enabled) {
+            return false;
+        }
+        Cell cell = cells.get(storeId, productId);
+        if (cell == null || cell.stale) {
+            return false;
+        }
+        Delta delta = new Delta(quantityChange, reservedChange, 1);
+        cutLock.readLock().lock();
+        try {
+            adjustStock(cell, quantityChange, reservedChange);
+            cell.directEpoch.incrementAndGet();
+            cell.directWrites.incrementAndGet();
+            cell.external.accumulateAndGet(delta, Delta::plus);
+            markDirty(cell);
+        } finally {
+            cutLock.readLock().unlock();
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cell.directWrites.decrementAndGet();
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    undoDirect(cell, delta);
+                }
+                cell.directWrites.decrementAndGet();
+            }
+        });
+        return true;
+    }
+
+    // Event for a direct write: once applyDirect took it, the cell is current and must not go stale
+    public static InventoryChangedEvent changeEvent(boolean appliedToLedger, Long storeId, Long productId,
+                                                    int oldQuantity, int newQuantity) {
+        return appliedToLedger
+                ? new LedgerChange(storeId, productId, oldQuantity, newQuantity)
+                : new InventoryChangedEvent(storeId, productId, oldQuantity, newQuantity);
+    }
+
+    public Map<Integer, Long> checkpoints(String topic) {
+        Map<Integer, Long> offsets = new HashMap<>();
+        for (LedgerCheckpoint checkpoint : checkpointRepository.findByTopic(topic)) {
+            offsets.put(checkpoint.getPartitionId(), checkpoint.getCheckpointOffset());
+        }
+        return offsets;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent change) {
+        if (!enabled || change instanceof LedgerChange) {
+            return;
+        }
+        Cell cell = cells.get(change.getStoreId(), change.getProductId());
+        if (cell != null) {
+            markStale(cell);
+        }
+    }
+
+    private void markStale(Cell cell) {
+        if (!cell.stale) {
+            cell.stale = true;
+            staleCells.add(cell);
+        }
+    }
+
+    private void markDirty(Cell cell) {
+        if (cell.dirty.compareAndSet(false, true)) {
+            dirtyCells.add(cell);
+        }
+    }
+
+    // Writes everything applied so far; called by the flusher, on shutdown and before partitions move.
+    // A row the flush UPDATE could not apply was changed behind the ledger's back: it is rebased and
+    // the flush runs once more.
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        if (!flushOnce()) {
+            flushOnce();
+        }
+    }
+
+    private boolean flushOnce() {
+        rebaseStaleCells();
+
+        List<Cell> batch = new ArrayList<>();
+        List<Stock> snapshots = new ArrayList<>();
+        List<PendingTransaction> transactions = new ArrayList<>(unsavedTransactions);
+        Map<Integer, Long> offsets;
+        cutLock.writeLock().lock();
+        try {
+            Cell cell;
+            while ((cell = dirtyCells.poll()) != null) {
+                cell.dirty.set(false);
+                // Direct writes persist their own changes; only the commands' share is flushed
+                cell.persisted = cell.persisted.plus(cell.external.getAndSet(Delta.NONE));
+                batch.add(cell);
+                snapshots.add(cell.stock.get());
+            }
+            PendingTransaction transaction;
+            while ((transaction = pendingTransactions.poll()) != null) {
+                transactions.add(transaction);
+            }
+            offsets = new HashMap<>(appliedOffsets);
+        } finally {
+            cutLock.writeLock().unlock();
+        }
+        if (batch.isEmpty() && transactions.isEmpty() && offsets.equals(flushedOffsets)) {
+            return true;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Cell> updated = new ArrayList<>(batch.size());
+                List<Stock> updatedSnapshots = new ArrayList<>(batch.size());
+                List<Object[]> rows = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    Cell cell = batch.get(i);
+                    Stock snapshot = snapshots.get(i);
+                    int quantityDelta = snapshot.quantity - cell.persisted.quantity;
+                    int reservedDelta = snapshot.reserved - cell.persisted.reserved;
+                    long versionDelta = snapshot.version - cell.persisted.version;
+                    if (quantityDelta == 0 && reservedDelta == 0 && versionDelta == 0) {
+                        continue;
+                    }
+                    updated.add(cell);
+                    updatedSnapshots.add(snapshot);
+                    rows.add(new Object[]{
+                            quantityDelta,
+                            reservedDelta,
+                            versionDelta,
+                            Timestamp.valueOf(snapshot.updatedAt),
+                            cell.storeId,
+                            cell.productId,
+                            quantityDelta,
+                            quantityDelta,
+                            reservedDelta
+                    });
+                }
+                int[] counts = jdbcTemplate.batchUpdate(FLUSH_SQL, rows);
+                List<Cell> conflicts = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        conflicts.add(updated.get(i));
+                    }
+                }
+                if (!conflicts.isEmpty()) {
+                    throw new FlushConflict(conflicts);
+                }
+                for (int i = 0; i < updated.size(); i++) {
+                    // AFTER_COMMIT listeners (caches, WebSocket) see the change once it is in the table,
+                    // and the audit record for it commits with the flush through the outbox
+                    Cell cell = updated.get(i);
+                    applicationEventPublisher.publishEvent(new LedgerChange(
+                            cell.storeId, cell.productId, cell.persisted.quantity, updatedSnapshots.get(i).quantity));
+                    eventPublisher.enqueueInventoryAudit(new InventoryAuditEvent(
+                            "UPDATE",
+                            cell.storeId,
+                            cell.productId,
+                            cell.persisted.quantity,
+                            updatedSnapshots.get(i).quantity
+                    ));
+                }
+
+                List<Transaction> history = new ArrayList<>(transactions.size());
+                for (PendingTransaction pending : transactions) {
+                    history.add(new Transaction(
+                            storeRepository.getReferenceById(pending.storeId),
+                            productRepository.getReferenceById(pending.productId),
+                            pending.type,
+                            pending.quantity,
+                            pending.referenceId,
+                            pending.notes
+                    ));
+                }
+                transactionRepository.saveAll(history);
+                processedEvents.markProcessed(transactions.stream().map(pending -> pending.eventId).toList());
+
+                List<LedgerCheckpoint> checkpoints = new ArrayList<>(offsets.size());
+                offsets.forEach((partition, offset) -> checkpoints.add(new LedgerCheckpoint(TOPIC, partition, offset)));
+                checkpointRepository.saveAll(checkpoints);
+            });
+        } catch (RuntimeException e) {
+            // Nothing was written: keep the history rows and let the cells compute their deltas again
+            unsavedTransactions.clear();
+            unsavedTransactions.addAll(transactions);
+            for (Cell cell : batch) {
+                markDirty(cell);
+            }
+            if (e instanceof FlushConflict conflict) {
+                for (Cell cell : conflict.cells) {
+                    log.warn("Inventory ledger flush for store {} product {} would invalidate the stored row; rebasing",
+                            cell.storeId, cell.productId);
+                    markStale(cell);
+                }
+                return false;
+            }
+            throw e;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).persisted = snapshots.get(i);
+        }
+        unsavedTransactions.clear();
+        flushedOffsets = offsets;
+        return true;
+    }
+
+    private Cell cellFor(Long storeId, Long productId) {
+        Cell cell = cells.get(storeId, productId);
+        return cell != null ? cell : cells.computeIfAbsent(storeId, productId, this::loadCell);
+    }
+
+    // First touch of a row: load it (creating an empty one if needed) and start tracking it
+    private Cell loadCell(Long storeId, Long productId) {
+        return transactionTemplate.execute(status -> {
+            Inventory inventory = inventoryRepository.findByStoreIdAndProductId(storeId, productId)
+                    .orElseGet(() -> {
+                        var store = storeRepository.findById(storeId)
+                                .orElseThrow(() -> new RuntimeException("Store not found: " + storeId));
+                        var product = productRepository.findById(productId)
+                                .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
+                        return inventoryRepository.saveAndFlush(new Inventory(store, product, 0));
+                    });
+            Stock stock = new Stock(inventory.getQuantity(), inventory.getReservedQuantity(),
+                    inventory.getVersion(), inventory.getLastUpdated());
+            return new Cell(storeId, productId, stock, InventoryDTO.fromEntity(inventory));
+        });
+    }
+
+    // Reloads stale cells and replays their unflushed commands on the stored row in order, dropping
+    // those it no longer allows; the dropped commands go to the DLQ once the cut lock is released.
+    // A cell with a direct write in flight (or one that started during the reload) is left for the
+    // next flush, since the row read may or may not contain it.
+    private void rebaseStaleCells() {
+        List<Cell> deferred = new ArrayList<>();
+        List<DroppedCommand> dropped = new ArrayList<>();
+        Cell cell;
+        while ((cell = staleCells.poll()) != null) {
+            Cell stale = cell;
+            long epoch = stale.directEpoch.get();
+            if (stale.directWrites.get() > 0) {
+                deferred.add(stale);
+                continue;
+            }
+            Optional<Stock> stored = jdbcTemplate.query(STOCK_SQL, (rs, rowNum) -> new Stock(rs.getInt(1), rs.getInt(2),
+                    rs.getLong(3), rs.getTimestamp(4) != null ? rs.getTimestamp(4).toLocalDateTime() : null),
+                    stale.storeId, stale.productId).stream().findFirst();
+            cutLock.writeLock().lock();
+            try {
+                if (stale.directWrites.get() > 0 || stale.directEpoch.get() != epoch) {
+                    deferred.add(stale);
+                    continue;
+                }
+                // Every direct write has completed and is part of the stored row (or was undone)
+                stale.external.set(Delta.NONE);
+                if (stored.isEmpty()) {
+                    // The row is gone: nothing the ledger accepted for it can be written
+                    dropCommands(stale, command -> true, "Inventory row no longer exists", dropped);
+                    stale.stock.set(stale.persisted);
+                    continue;
+                }
+                Stock base = stored.get();
+                Stock[] replayed = {base};
+                dropCommands(stale, command -> {
+                    Stock next = command.replay(replayed[0]);
+                    if (next == null) {
+                        return true;
+                    }
+                    replayed[0] = next;
+                    return false;
+                }, "Quantity cannot be negative or below reserved amount on the stored row", dropped);
+                stale.stock.set(replayed[0]);
+                stale.persisted = base;
+                stale.stale = false;
+            } finally {
+                cutLock.writeLock().unlock();
+            }
+        }
+        staleCells.addAll(deferred);
+        for (DroppedCommand command : dropped) {
+            InventoryUpdateEvent event = command.transaction().event;
+            eventPublisher.publishDeadLetter(TOPIC, event.partitionKey(), event,
+                    new IllegalArgumentException(command.reason()));
+        }
+    }
+
+    // Walks the cell's unflushed commands oldest first and discards those the predicate rejects. The
+    // ids are forgotten again, so the command applies normally if it is replayed from the DLQ.
+    private void dropCommands(Cell cell, Predicate<PendingTransaction> reject, String reason,
+                              List<DroppedCommand> dropped) {
+        List<PendingTransaction> commands = new ArrayList<>(unsavedTransactions);
+        commands.addAll(pendingTransactions);
+        for (PendingTransaction command : commands) {
+            if (command.storeId != cell.storeId || command.productId != cell.productId || !reject.test(command)) {
+                continue;
+            }
+            if (!unsavedTransactions.remove(command)) {
+                pendingTransactions.remove(command);
+            }
+            processedEvents.forget(command.eventId);
+            dropped.add(new DroppedCommand(command, reason));
+            log.warn("Dropped inventory update {} for store {} product {}, sending it to {}: {}",
+                    command.eventId, cell.storeId, cell.productId, InventoryEventPublisher.DLQ_TOPIC, reason);
+        }
+    }
+
+    private void undoDirect(Cell cell, Delta delta) {
+        cutLock.readLock().lock();
+        try {
+            while (true) {
+                Stock current = cell.stock.get();
+                if (cell.stock.compareAndSet(current, current.plus(delta.negate()))) {
+                    break;
+                }
+            }
+            cell.external.accumulateAndGet(delta.negate(), Delta::plus);
+            markDirty(cell);
+        } finally {
+            cutLock.readLock().unlock();
+        }
+    }
+
+    // Mirrors InventoryUpdateBatchProcessor.applyOperation on the cell instead of the entity
+    private static Transaction.TransactionType applyOperation(Cell cell, InventoryUpdateEvent event) {
+        Transaction.TransactionType type = transactionType(event);
+        Integer change = quantityChange(event);
+        if (change == null) {
+            setQuantity(cell, event.getVersion(), event.getNewQuantity());
+        } else {
+            adjustQuantity(cell, event.getVersion(), change);
+        }
+        return type;
+    }
+
+    private static Transaction.TransactionType transactionType(InventoryUpdateEvent event) {
+        switch (event.getOperation().toUpperCase()) {
+            case "ADD":
+            case "SUBTRACT":
+            case "SET":
+                return Transaction.TransactionType.ADJUSTMENT;
+            case "STOCK_IN":
+                return Transaction.TransactionType.STOCK_IN;
+            case "STOCK_OUT":
+                return Transaction.TransactionType.STOCK_OUT;
+            case "RESERVE":
+                return Transaction.TransactionType.RESERVATION;
+            case "RELEASE":
+                return Transaction.TransactionType.RELEASE;
+            default:
+                throw new RuntimeException("Unknown operation: " + event.getOperation());
+        }
+    }
+
+    // Signed quantity change of a command, or null for SET
+    private static Integer quantityChange(InventoryUpdateEvent event) {
+        switch (event.getOperation().toUpperCase()) {
+            case "ADD":
+                return event.getQuantityChange();
+            case "SUBTRACT":
+            case "STOCK_OUT":
+            case "RESERVE":
+                return -Math.abs(event.getQuantityChange());
+            case "STOCK_IN":
+            case "RELEASE":
+                return Math.abs(event.getQuantityChange());
+            default:
+                return null;
+        }
+    }
+
+    // Same rules as Inventory.adjustQuantity, retried until the compare-and-set wins
+    private static void adjustQuantity(Cell cell, Long expectedVersion, int adjustment) {
+        while (true) {
+            Stock current = cell.stock.get();
+            checkVersion(current, expectedVersion);
+            int newQuantity = current.quantity + adjustment;
+            if (newQuantity < 0) {
+                throw new IllegalArgumentException("Quantity cannot be negative");
+            }
+            if (newQuantity < current.reserved) {
+                throw new IllegalArgumentException("Cannot reduce quantity below reserved amount");
+            }
+            if (cell.stock.compareAndSet(current, current.withQuantity(newQuantity))) {
+                return;
+            }
+        }
+    }
+
+    // Direct writes: quantity and reservation change together under Inventory's rules
+    private static void adjustStock(Cell cell, int quantityChange, int reservedChange) {
+        while (true) {
+            Stock current = cell.stock.get();
+            int newQuantity = current.quantity + quantityChange;
+            int newReserved = current.reserved + reservedChange;
+            if (newReserved < 0) {
+                throw new IllegalArgumentException("Cannot release more than reserved");
+            }
+            if (reservedChange > 0 && newQuantity < newReserved) {
+                throw new IllegalArgumentException("Insufficient available quantity to reserve");
+            }
+            if (newQuantity < 0 || newQuantity < newReserved) {
+                throw new IllegalArgumentException("Insufficient stock. Available: "
+                        + (current.quantity - current.reserved) + ", Requested: " + -quantityChange);
+            }
+            if (cell.stock.compareAndSet(current, current.plus(new Delta(quantityChange, reservedChange, 1)))) {
+                return;
+            }
+        }
+    }
+
+    private static void setQuantity(Cell cell, Long expectedVersion, int quantity) {
+        while (true) {
+            Stock current = cell.stock.get();
+            checkVersion(current, expectedVersion);
+            if (cell.stock.compareAndSet(current, current.withQuantity(quantity))) {
+                return;
+            }
+        }
+    }
+
+    private static void checkVersion(Stock current, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != current.version) {
+            throw new RuntimeException("Inventory was modified by another transaction. Expected version: "
+                    + expectedVersion + ", actual: " + current.version);
+        }
+    }
+
+    // Immutable per-row values; a new instance per change keeps every compare-and-set consistent
+    private static final class Stock {
+        private final int quantity;
+        private final int reserved;
+        private final long version;
+        private final LocalDateTime updatedAt;
+
+        Stock(int quantity, int reserved, Long version, LocalDateTime updatedAt) {
+            this.quantity = quantity;
+            this.reserved = reserved;
+            this.version = version != null ? version : 0L;
+            this.updatedAt = updatedAt != null ? updatedAt : LocalDateTime.now();
+        }
+
+        Stock withQuantity(int newQuantity) {
+            return new Stock(newQuantity, reserved, version + 1, LocalDateTime.now());
+        }
+
+        Stock plus(Delta delta) {
+            if (delta == Delta.NONE) {
+                return this;
+            }
+            return new Stock(quantity + delta.quantity, reserved + delta.reserved, version + delta.version,
+                    LocalDateTime.now());
+        }
+    }
+
+    // Change made by direct writes, kept apart so the flusher does not write it a second time
+    private record Delta(int quantity, int reserved, long version) {
+        static final Delta NONE = new Delta(0, 0, 0);
+
+        Delta plus(Delta other) {
+            return new Delta(quantity + other.quantity, reserved + other.reserved, version + other.version);
+        }
+
+        Delta negate() {
+            return new Delta(-quantity, -reserved, -version);
+        }
+    }
+
+    private static final class Cell {
+        private final long storeId;
+        private final long productId;
+        private final AtomicReference<Stock> stock;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final InventoryDTO template;
+        private final AtomicReference<Delta> external = new AtomicReference<>(Delta.NONE);
+        private final AtomicInteger directWrites = new AtomicInteger();
+        private final AtomicLong directEpoch = new AtomicLong();
+        private volatile boolean stale;
+        private Stock persisted; // flusher only
+
+        Cell(long storeId, long productId, Stock stock, InventoryDTO template) {
+            this.storeId = storeId;
+            this.productId = productId;
+            this.stock = new AtomicReference<>(stock);
+            this.persisted = stock;
+            this.template = template;
+        }
+    }
+
+    private static final class PendingTransaction {
+        private final InventoryUpdateEvent event;
+        private final String eventId;
+        private final long storeId;
+        private final long productId;
+        private final Transaction.TransactionType type;
+        private final Integer quantity;
+        private final String referenceId;
+        private final String notes;
+        private final Integer quantityChange; // signed; null for SET
+        private final Integer newQuantity;
+
+        PendingTransaction(InventoryUpdateEvent event, Transaction.TransactionType type, Integer quantityChange) {
+            this.event = event;
+            this.eventId = event.getEventId();
+            this.storeId = event.getStoreId();
+            this.productId = event.getProductId();
+            this.type = type;
+            this.quantity = Math.abs(event.getQuantityChange());
+            this.referenceId = event.getReferenceId();
+            this.notes = event.getNotes();
+            this.quantityChange = quantityChange;
+            this.newQuantity = event.getNewQuantity();
+        }
+
+        // The command applied to a rebased row, or null when the row no longer allows it
+        Stock replay(Stock stock) {
+            if (quantityChange == null) {
+                return stock.withQuantity(newQuantity);
+            }
+            int next = stock.quantity + quantityChange;
+            return next < 0 || next < stock.reserved ? null : stock.withQuantity(next);
+        }
+    }
+
+    private record DroppedCommand(PendingTransaction transaction, String reason) {
+    }
+
+    // Changes the cells already hold (flushed by the ledger or taken by applyDirect); the ledger's
+    // own stale-marking listener skips them
+    public static final class LedgerChange extends InventoryChangedEvent {
+        LedgerChange(Long storeId, Long productId, int oldQuantity, int newQuantity) {
+            super(storeId, productId, oldQuantity, newQuantity);
+        }
+    }
+
+    private static final class FlushConflict extends RuntimeException {
+        private final List<Cell> cells;
+
+        FlushConflict(List<Cell> cells) {
+            super("Flush would invalidate " + cells.size() + " inventory row(s)");
+            this.cells = cells;
+        }
+    }
+
+    // Open-addressing hash table keyed by (storeId, productId) as primitives, split into shards.
+    // Lookups are lock-free; inserts (first touch of a row) lock only their shard.
+    private static final class CellMap {
+
+        interface Loader {
+            Cell load(Long storeId, Long productId);
+        }
+
+        private final Shard[] shards;
+        private final int shardMask;
+
+        CellMap(int shardCount) {
+            int size = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+            shards = new Shard[size];
+            for (int i = 0; i < size; i++) {
+                shards[i] = new Shard();
+            }
+            shardMask = size - 1;
+        }
+
+        Cell get(long storeId, long productId) {
+            long hash = hash(storeId, productId);
+            return shards[(int) (hash >>> 40) & shardMask].get(hash, storeId, productId);
+        }
+
+        Cell computeIfAbsent(Long storeId, Long productId, Loader loader) {
+            long hash = hash(storeId, productId);
+            return shards[(int) (hash >>> 40) & shardMask].computeIfAbsent(hash, storeId, productId, loader);
+        }
+
+        private static long hash(long storeId, long productId) {
+            long h = storeId * 0x9E3779B97F4A7C15L + productId;
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            return h ^ (h >>> 33);
+        }
+
+        private static final class Shard {
+            private volatile Cell[] table = new Cell[16];
+            private int size;
+
+            Cell get(long hash, long storeId, long productId) {
+                Cell[] current = table;
+                int mask = current.length - 1;
+                for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                    Cell cell = current[i];
+                    if (cell == null) {
+                        return null;
+                    }
+                    if (cell.storeId == storeId && cell.productId == productId) {
+                        return cell;
+                    }
+                }
+            }
+
+            synchronized Cell computeIfAbsent(long hash, Long storeId, Long productId, Loader loader) {
+                Cell existing = get(hash, storeId, productId);
+                if (existing != null) {
+                    return existing;
+                }
+                Cell cell = loader.load(storeId, productId);
+                if ((size + 1) * 2 > table.length) {
+                    Cell[] grown = new Cell[table.length * 2];
+                    for (Cell moved : table) {
+                        if (moved != null) {
+                            insert(grown, hash(moved.storeId, moved.productId), moved);
+                        }
+                    }
+                    table = grown;
+                }
+                insert(table, hash, cell);
+                size++;
+                return cell;
+            }
+
+            private static void insert(Cell[] target, long hash, Cell cell) {
+                int mask = target.length - 1;
+                int i = (int) hash & mask;
+                while (target[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                target[i] = cell;
+            }
+        }
+    }
+}
@@ -1,32 +1,51 @@
 package com.inventory.service;
 
+import com.inventory.dto.BulkTransferRequest;
 import com.inventory.dto.InventoryDTO;
+import com.inventory.dto.InventoryFilter;
+import com.inventory.dto.InventoryPageDTO;
+import com.inventory.dto.InventorySort;
 import com.inventory.dto.InventoryUpdateRequest;
 import com.inventory.model.Inventory;
-import com.inventory.model.Store;
 import com.inventory.model.Product;
+import com.inventory.model.SagaInstance;
 import com.inventory.model.Transaction;
 import com.inventory.repository.InventoryRepository;
 import com.inventory.repository.StoreRepository;
 import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SagaInstanceRepository;
 import com.inventory.repository.TransactionRepository;
 import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.saga.InventoryTransferSaga;
+import com.inventory.event.InventoryAuditEvent;
 import com.inventory.event.InventoryUpdateEvent;
 import com.inventory.event.InventoryTransferEvent;
+import com.inventory.event.TransferLine;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -34,6 +53,11 @@ import java.util.stream.Collectors;
 @Transactional
 public class InventoryService {
 
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private InventoryRepository inventoryRepository;
     
@@ -54,41 +78,107 @@ public class InventoryService {
     
     @Autowired
     private NotificationService notificationService;
+    
+    @Autowired
+    private InventoryCacheInvalidator cacheInvalidator;
+    
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    
+    @Autowired
+    private InventoryLedger inventoryLedger;
+    
+    @Autowired
+    private LowStockIndex lowStockIndex;
+    
+    @Autowired
+    private InventoryTransferSaga transferSaga;
+    
+    @Autowired
+    private SagaInstanceRepository sagaInstanceRepository;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Value("${inventory.saga.max-transfer-lines:1000}")
+    private int maxTransferLines;
 
-    // @Cacheable(value = "inventory", key = "'all'")  // Temporarily disabled
-    public List<InventoryDTO> getAllInventory() {
-        System.out.println("📦 Loading all inventory from database (cache disabled)");
-        return inventoryRepository.findAll().stream()
-                .map(InventoryDTO::fromEntity)
-                .collect(Collectors.toList());
+    // Ids per IN list when reading the rows the low-stock index selected
+    @Value("${inventory.low-stock.index.lookup-chunk-size:1000}")
+    private int lowStockLookupChunkSize;
+
+    // Keyset page in the requested order ("property[,asc|desc]"). Callers continue with the previous
+    // page's nextPageToken and the same filters and sort. The total is counted for the first page only,
+    // shared for a minute between callers with the same filters, and carried along in the token.
+    @Transactional(readOnly = true)
+    public InventoryPageDTO getInventoryPage(InventoryFilter filter, String sort, String pageToken, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String[] sortParts = (sort == null || sort.isBlank() ? "id" : sort).split(",");
+        InventorySort order = InventorySort.fromProperty(sortParts[0].trim());
+        String direction = sortParts.length > 1 ? sortParts[1].trim().toLowerCase() : "asc";
+        if (sortParts.length > 2 || !(direction.equals("asc") || direction.equals("desc"))) {
+            throw new IllegalArgumentException("Invalid sort: " + sort);
+        }
+        boolean descending = direction.equals("desc");
+        PageToken token = pageToken != null && !pageToken.isBlank()
+                ? decodePageToken(pageToken, order, descending)
+                : null;
+
+        // Fetch one extra row to know whether another page exists
+        List<InventoryDTO> rows = inventoryRepository.findPage(filter, order, descending,
+                token != null ? token.value() : null, token != null ? token.id() : null, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = List.copyOf(rows.subList(0, pageSize));
+        }
+
+        long total;
+        if (token != null) {
+            total = token.total();
+        } else if (!hasMore) {
+            total = rows.size();
+        } else {
+            total = countMatching(filter);
+        }
+        String nextPageToken = hasMore
+                ? encodePageToken(order, descending, rows.get(rows.size() - 1), total)
+                : null;
+        return new InventoryPageDTO(rows, nextPageToken, hasMore, total);
     }
 
     @Cacheable(value = "inventory", key = "'store:' + #storeId")
+    @Transactional(readOnly = true)
     public List<InventoryDTO> getInventoryByStore(Long storeId) {
-        System.out.println("📦 Cache MISS: Loading inventory for store " + storeId + " from database");
-        return inventoryRepository.findByStoreIdWithDetails(storeId).stream()
-                .map(InventoryDTO::fromEntity)
-                .collect(Collectors.toList());
+        log.debug("Cache miss: loading inventory for store {}", storeId);
+        return inventoryRepository.findDetailsByStoreId(storeId);
     }
 
     @Cacheable(value = "inventory", key = "'product:' + #productId")
+    @Transactional(readOnly = true)
     public List<InventoryDTO> getInventoryByProduct(Long productId) {
-        System.out.println("📦 Cache MISS: Loading inventory for product " + productId + " from database");
-        return inventoryRepository.findByProductId(productId).stream()
-                .map(InventoryDTO::fromEntity)
-                .collect(Collectors.toList());
+        log.debug("Cache miss: loading inventory for product {}", productId);
+        return inventoryRepository.findDetailsByProductId(productId);
     }
 
-    @Cacheable(value = "inventory", key = "'store:' + #storeId + ':product:' + #productId")
+    // Rows held by the in-memory ledger are newer than the table, so they skip the cache entirely
+    @Cacheable(value = "inventory", key = "'store:' + #storeId + ':product:' + #productId",
+            condition = "!#root.target.isServedByLedger(#storeId, #productId)")
+    @Transactional(readOnly = true)
     public Optional<InventoryDTO> getInventoryByStoreAndProduct(Long storeId, Long productId) {
-        System.out.println("📦 Cache MISS: Loading inventory for store " + storeId + " and product " + productId + " from database");
-        return inventoryRepository.findByStoreIdAndProductId(storeId, productId)
-                .map(InventoryDTO::fromEntity);
+        Optional<InventoryDTO> live = inventoryLedger.read(storeId, productId);
+        if (live.isPresent()) {
+            return live;
+        }
+        log.debug("Cache miss: loading inventory for store {} and product {}", storeId, productId);
+        return inventoryRepository.findDetailsByStoreIdAndProductId(storeId, productId);
+    }
+
+    public boolean isServedByLedger(Long storeId, Long productId) {
+        return inventoryLedger.holds(storeId, productId);
     }
 
     @CircuitBreaker(name = "inventory-service", fallbackMethod = "updateInventoryFallback")
     @Retry(name = "inventory-service")
-    @CacheEvict(value = {"inventory", "low-stock", "metrics"}, allEntries = true)
     public String updateInventory(InventoryUpdateRequest request) {
         try {
             // Validate store and product exist
@@ -112,24 +202,23 @@ public class InventoryService {
             event.setVersion(request.getVersion());
             event.setCorrelationId(UUID.randomUUID().toString());
 
-            // Publish to Kafka for asynchronous processing
-            eventPublisher.publishInventoryUpdate(event);
+            // Queue for Kafka in this transaction (outbox); the consumer applies it asynchronously
+            eventPublisher.enqueueInventoryUpdate(event);
             
             return "Inventory update event published: " + event.getEventId();
             
         } catch (Exception e) {
-            System.err.println("❌ Failed to publish inventory update: " + e.getMessage());
+            log.error("Failed to publish inventory update: {}", e.getMessage());
             throw new RuntimeException("Failed to process inventory update", e);
         }
     }
 
     public String updateInventoryFallback(InventoryUpdateRequest request, Exception ex) {
-        System.err.println("🔄 Circuit breaker activated for inventory update: " + ex.getMessage());
+        log.warn("Circuit breaker activated for inventory update: {}", ex.getMessage());
         return "Inventory service is currently unavailable. Your request has been queued for processing.";
     }
 
     @CircuitBreaker(name = "inventory-service")
-    @CacheEvict(value = {"inventory", "low-stock", "metrics"}, allEntries = true)
     public String transferInventory(Long fromStoreId, Long toStoreId, Long productId, Integer quantity, String notes) {
         try {
             // Validate stores and product exist
@@ -145,7 +234,6 @@ public class InventoryService {
 
             String sagaId = UUID.randomUUID().toString();
 
-            // Create and publish transfer start event
             InventoryTransferEvent event = new InventoryTransferEvent(
                 fromStoreId, toStoreId, productId, quantity, "START"
             );
@@ -153,23 +241,120 @@ public class InventoryService {
             event.setNotes(notes);
             event.setCorrelationId(sagaId);
 
-            // Publish to Kafka for saga orchestration
-            eventPublisher.publishInventoryTransfer(event);
+            // Same-database transfers complete in this transaction; others continue over transfers.commands
+            SagaInstance saga = transferSaga.startTransfer(event);
             
-            return "Inventory transfer started with saga ID: " + sagaId;
+            return saga.getStatus() == SagaInstance.Status.COMPLETED
+                    ? "Inventory transfer completed with saga ID: " + sagaId
+                    : "Inventory transfer started with saga ID: " + sagaId;
             
         } catch (Exception e) {
-            System.err.println("❌ Failed to initiate transfer: " + e.getMessage());
+            log.error("Failed to initiate transfer: {}", e.getMessage());
             throw new RuntimeException("Failed to initiate inventory transfer", e);
         }
     }
 
-    @Cacheable(value = "low-stock", key = "'threshold:' + #threshold")
+    // Many product lines in one saga (store replenishment runs): each step locks all of its rows with
+    // one query and applies every line in the same transaction
+    @CircuitBreaker(name = "inventory-service")
+    public Map<String, Object> transferInventoryBulk(BulkTransferRequest request) {
+        if (request.getLines().size() > maxTransferLines) {
+            throw new IllegalArgumentException("At most " + maxTransferLines + " lines per transfer");
+        }
+        // Lines for the same product are merged so every row is locked and changed once
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (TransferLine line : request.getLines()) {
+            if (line.getProductId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Every line needs a productId and a positive quantity");
+            }
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        if (!storeRepository.existsById(request.getFromStoreId())) {
+            throw new RuntimeException("Source store not found: " + request.getFromStoreId());
+        }
+        if (!storeRepository.existsById(request.getToStoreId())) {
+            throw new RuntimeException("Destination store not found: " + request.getToStoreId());
+        }
+        Set<Long> knownProducts = productRepository.findAllById(quantities.keySet()).stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+        for (Long productId : quantities.keySet()) {
+            if (!knownProducts.contains(productId)) {
+                throw new RuntimeException("Product not found: " + productId);
+            }
+        }
+
+        String sagaId = UUID.randomUUID().toString();
+        InventoryTransferEvent event = new InventoryTransferEvent(
+            request.getFromStoreId(), request.getToStoreId(), null, null, "START"
+        );
+        event.setSagaId(sagaId);
+        event.setNotes(request.getNotes());
+        event.setCorrelationId(sagaId);
+        event.setLines(quantities.entrySet().stream()
+                .map(entry -> new TransferLine(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+
+        SagaInstance saga = transferSaga.startTransfer(event);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("sagaId", sagaId);
+        result.put("mode", saga.getMode());
+        result.put("status", saga.getStatus());
+        result.put("lines", quantities.size());
+        result.put("quantity", quantities.values().stream().mapToInt(Integer::intValue).sum());
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getTransferStatus(String sagaId) {
+        return sagaInstanceRepository.findById(sagaId).map(saga -> {
+            Map<String, Object> status = new HashMap<>();
+            status.put("sagaId", saga.getId());
+            status.put("mode", saga.getMode());
+            status.put("status", saga.getStatus());
+            status.put("currentStep", saga.getCurrentStep());
+            status.put("completedSteps", saga.getCompletedSteps());
+            status.put("failureReason", saga.getFailureReason());
+            status.put("createdAt", saga.getCreatedAt());
+            status.put("updatedAt", saga.getUpdatedAt());
+            return status;
+        });
+    }
+
+    // Rows come from the low-stock index and are then read by primary key; a null threshold means
+    // each product's own threshold. The table is only scanned while the index is still loading.
+    @Cacheable(value = "low-stock", key = "'threshold:' + #threshold", condition = "#threshold != null")
+    @Transactional(readOnly = true)
     public List<InventoryDTO> getLowStockItems(Integer threshold) {
-        int finalThreshold = threshold != null ? threshold : 10;
-        System.out.println("⚠️ Cache MISS: Loading low stock items (threshold: " + finalThreshold + ") from database");
-        return inventoryRepository.findLowStockItems(finalThreshold).stream()
-                .map(InventoryDTO::fromEntity)
+        if (threshold != null) {
+            cacheInvalidator.registerLowStockThreshold(threshold);
+        }
+        log.debug("Cache miss: loading low stock items (threshold {})", threshold != null ? threshold : "per product");
+        if (!lowStockIndex.isReady()) {
+            return threshold != null
+                    ? inventoryRepository.findLowStockDetails(threshold)
+                    : inventoryRepository.findDetailsBelowOwnThreshold(lowStockIndex.getDefaultThreshold());
+        }
+
+        List<Long> ids = threshold != null ? lowStockIndex.below(threshold) : lowStockIndex.belowOwnThreshold();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Rows that changed since the index saw them are checked again by the query, one bounded IN list
+        // at a time so a large index result neither exceeds the driver's bind limit nor one huge plan
+        Map<Long, InventoryDTO> rows = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += lowStockLookupChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + lowStockLookupChunkSize));
+            (threshold != null
+                    ? inventoryRepository.findDetailsByIdInBelow(chunk, threshold)
+                    : inventoryRepository.findDetailsByIdInBelowOwnThreshold(chunk, lowStockIndex.getDefaultThreshold()))
+                    .forEach(dto -> rows.put(dto.getId(), dto));
+        }
+        // Index order: lowest first
+        return ids.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -180,7 +365,7 @@ public class InventoryService {
             event.setNotes("Inventory reservation");
             event.setCorrelationId(UUID.randomUUID().toString());
 
-            eventPublisher.publishInventoryUpdate(event);
+            eventPublisher.enqueueInventoryUpdate(event);
             
             return "Inventory reservation event published: " + event.getEventId();
             
@@ -196,7 +381,7 @@ public class InventoryService {
             event.setNotes("Reservation release");
             event.setCorrelationId(UUID.randomUUID().toString());
 
-            eventPublisher.publishInventoryUpdate(event);
+            eventPublisher.enqueueInventoryUpdate(event);
             
             return "Reservation release event published: " + event.getEventId();
             
@@ -205,7 +390,6 @@ public class InventoryService {
         }
     }
 
-    @CacheEvict(value = {"inventory", "low-stock", "metrics"}, allEntries = true)
     public String stockIn(Long storeId, Long productId, Integer quantity, String referenceId, String notes) {
         try {
             // Validate inputs
@@ -219,120 +403,94 @@ public class InventoryService {
                 throw new RuntimeException("Product not found: " + productId);
             }
 
-            // Try to publish event, but continue with direct update if it fails
-            String eventId = UUID.randomUUID().toString();
-            try {
-                InventoryUpdateEvent event = new InventoryUpdateEvent(storeId, productId, quantity, "STOCK_IN");
-                event.setNotes(notes != null ? notes : "Stock entry - product received");
-                event.setReferenceId(referenceId);
-                event.setCorrelationId(eventId);
-
-                eventPublisher.publishInventoryUpdate(event);
-                
-                // Notify operation success
-                notificationService.notifyOperationSuccess("STOCK_IN", 
-                    "Entrada de estoque realizada com sucesso", 
-                    Map.of("storeId", storeId, "productId", productId, "quantity", quantity, "referenceId", referenceId));
-                
-                return "Stock in event published: " + event.getEventId() + " - Added " + quantity + " units";
-                
-            } catch (Exception eventError) {
-                System.err.println("⚠️ Event publishing failed, processing directly: " + eventError.getMessage());
-                
-                // Process directly if event publishing fails
-                InventoryUpdateRequest directRequest = new InventoryUpdateRequest();
-                directRequest.setStoreId(storeId);
-                directRequest.setProductId(productId);
-                directRequest.setQuantityAdjustment(quantity);
-                directRequest.setNotes(notes);
-                directRequest.setReferenceId(referenceId);
-                
-                InventoryDTO result = updateInventoryDirect(directRequest);
-                
-                // Create transaction record manually
-                Store store = storeRepository.findById(storeId).orElseThrow();
-                Product product = productRepository.findById(productId).orElseThrow();
-                Transaction transaction = new Transaction(store, product, Transaction.TransactionType.STOCK_IN, quantity, referenceId, notes);
-                transactionRepository.save(transaction);
-                
-                return "Stock in processed directly (event system unavailable): " + eventId + " - Added " + quantity + " units";
-            }
+            // Stored in this transaction and relayed to Kafka by OutboxRelay; no broker round trip here
+            InventoryUpdateEvent event = new InventoryUpdateEvent(storeId, productId, quantity, "STOCK_IN");
+            event.setNotes(notes != null ? notes : "Stock entry - product received");
+            event.setReferenceId(referenceId);
+            event.setCorrelationId(UUID.randomUUID().toString());
+
+            eventPublisher.enqueueInventoryUpdate(event);
+
+            // Notify operation success
+            notificationService.notifyOperationSuccess("STOCK_IN", 
+                "Entrada de estoque realizada com sucesso", 
+                Map.of("storeId", storeId, "productId", productId, "quantity", quantity, "referenceId", referenceId));
+
+            return "Stock in event published: " + event.getEventId() + " - Added " + quantity + " units";
             
         } catch (Exception e) {
-            System.err.println("🔥 Stock In Exception: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-            e.printStackTrace();
+            log.error("Stock in failed: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to process stock in: " + e.getMessage(), e);
         }
     }
 
-    @CacheEvict(value = {"inventory", "low-stock", "metrics"}, allEntries = true)
     public String stockOut(Long storeId, Long productId, Integer quantity, String referenceId, String notes) {
         try {
             // Validate inputs
             if (quantity <= 0) {
                 throw new RuntimeException("Quantity must be positive for stock out");
             }
-            if (!storeRepository.existsById(storeId)) {
-                throw new RuntimeException("Store not found: " + storeId);
-            }
-            if (!productRepository.existsById(productId)) {
-                throw new RuntimeException("Product not found: " + productId);
-            }
 
-            // Check if sufficient stock exists
-            Optional<Inventory> existingInventory = inventoryRepository.findByStoreIdAndProductId(storeId, productId);
-            if (existingInventory.isEmpty() || existingInventory.get().getQuantity() < quantity) {
-                throw new RuntimeException("Insufficient stock. Available: " + 
-                    (existingInventory.isPresent() ? existingInventory.get().getQuantity() : 0) + 
-                    ", Requested: " + quantity);
+            // A row the ledger holds is checked against its live cell first, which may carry commands not
+            // flushed yet; undone if this transaction rolls back
+            boolean viaLedger = inventoryLedger.applyDirect(storeId, productId, -quantity, 0);
+
+            // Check availability and decrement in a single conditional UPDATE; no entity load or version retry
+            if (inventoryRepository.decrementIfAvailable(storeId, productId, quantity) == 0) {
+                throw new RuntimeException(describeStockOutFailure(storeId, productId, quantity));
             }
+            // The row stays locked by our UPDATE until commit, so this read sees exactly our result
+            int newQuantity = inventoryRepository.findQuantityByStoreIdAndProductId(storeId, productId).orElse(0);
+            int oldQuantity = newQuantity + quantity;
 
-            // Try to publish event, but continue with direct update if it fails
             String eventId = UUID.randomUUID().toString();
-            try {
-                InventoryUpdateEvent event = new InventoryUpdateEvent(storeId, productId, -quantity, "STOCK_OUT");
-                event.setNotes(notes != null ? notes : "Stock exit - product sold/dispatched");
-                event.setReferenceId(referenceId);
-                event.setCorrelationId(eventId);
-
-                eventPublisher.publishInventoryUpdate(event);
-                return "Stock out event published: " + event.getEventId() + " - Removed " + quantity + " units";
-                
-            } catch (Exception eventError) {
-                System.err.println("⚠️ Event publishing failed, processing directly: " + eventError.getMessage());
-                
-                // Process directly if event publishing fails
-                InventoryUpdateRequest directRequest = new InventoryUpdateRequest();
-                directRequest.setStoreId(storeId);
-                directRequest.setProductId(productId);
-                directRequest.setQuantityAdjustment(-quantity);
-                directRequest.setNotes(notes);
-                directRequest.setReferenceId(referenceId);
-                
-                InventoryDTO result = updateInventoryDirect(directRequest);
-                
-                // Create transaction record manually
-                Store store = storeRepository.findById(storeId).orElseThrow();
-                Product product = productRepository.findById(productId).orElseThrow();
-                Transaction transaction = new Transaction(store, product, Transaction.TransactionType.STOCK_OUT, quantity, referenceId, notes);
-                transactionRepository.save(transaction);
-                
-                return "Stock out processed directly (event system unavailable): " + eventId + " - Removed " + quantity + " units";
-            }
+            String transactionNotes = notes != null ? notes : "Stock exit - product sold/dispatched";
+            Transaction transaction = new Transaction(
+                storeRepository.getReferenceById(storeId),
+                productRepository.getReferenceById(productId),
+                Transaction.TransactionType.STOCK_OUT,
+                quantity,
+                referenceId,
+                transactionNotes
+            );
+            transactionRepository.save(transaction);
+            applicationEventPublisher.publishEvent(
+                    InventoryLedger.changeEvent(viaLedger, storeId, productId, oldQuantity, newQuantity));
+
+            // The stock change is already applied, so downstream consumers only get the audit record,
+            // committed atomically with the decrement through the outbox
+            InventoryAuditEvent audit = new InventoryAuditEvent("STOCK_OUT", storeId, productId, oldQuantity, newQuantity);
+            audit.setCorrelationId(eventId);
+            eventPublisher.enqueueInventoryAudit(audit);
+
+            return "Stock out processed: " + eventId + " - Removed " + quantity + " units";
             
         } catch (Exception e) {
-            System.err.println("🔥 Stock Out Exception: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-            e.printStackTrace();
+            log.error("Stock out failed: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to process stock out: " + e.getMessage(), e);
         }
     }
 
+    // Only reached when the conditional UPDATE matched nothing, so the extra reads stay off the success path
+    private String describeStockOutFailure(Long storeId, Long productId, Integer quantity) {
+        if (!storeRepository.existsById(storeId)) {
+            return "Store not found: " + storeId;
+        }
+        if (!productRepository.existsById(productId)) {
+            return "Product not found: " + productId;
+        }
+        int available = inventoryRepository.findByStoreIdAndProductId(storeId, productId)
+                .map(Inventory::getAvailableQuantity)
+                .orElse(0);
+        return "Insufficient stock. Available: " + available + ", Requested: " + quantity;
+    }
+
     // Synchronous methods for direct database access (used by consumers)
     @Transactional(timeout = 10) // Short timeout to prevent long locks
     public InventoryDTO updateInventoryDirect(InventoryUpdateRequest request) {
         // Find or create inventory record (removed pessimistic locking for SQLite)
         Inventory inventory = inventoryRepository
-                .findByStoreIdAndProductId(request.getStoreId(), request.getProductId())
+                .findWithDetailsByStoreIdAndProductId(request.getStoreId(), request.getProductId())
                 .orElseGet(() -> {
                     var store = storeRepository.findById(request.getStoreId())
                             .orElseThrow(() -> new RuntimeException("Store not found"));
@@ -342,9 +500,61 @@ public class InventoryService {
                 });
 
         // Apply quantity adjustment
+        boolean viaLedger = inventoryLedger.applyDirect(
+                request.getStoreId(), request.getProductId(), request.getQuantityAdjustment(), 0);
+        int oldQuantity = inventory.getQuantity();
         inventory.adjustQuantity(request.getQuantityAdjustment());
         inventory = inventoryRepository.save(inventory);
+        applicationEventPublisher.publishEvent(InventoryLedger.changeEvent(viaLedger,
+                request.getStoreId(), request.getProductId(), oldQuantity, inventory.getQuantity()));
 
         return InventoryDTO.fromEntity(inventory);
     }
-}
\ No newline at end of file
+
+    private long countMatching(InventoryFilter filter) {
+        Cache counts = null;
+        try {
+            counts = cacheManager.getCache("inventory-count");
+            Cache.ValueWrapper cached = counts != null ? counts.get(filter.cacheKey()) : null;
+            if (cached != null && cached.get() instanceof Number total) {
+                return total.longValue();
+            }
+        } catch (Exception e) {
+            log.warn("Inventory count cache unavailable: {}", e.getMessage());
+        }
+        long total = inventoryRepository.countMatching(filter);
+        try {
+            if (counts != null) {
+                counts.put(filter.cacheKey(), total);
+            }
+        } catch (Exception e) {
+            log.warn("Inventory count cache unavailable: {}", e.getMessage());
+        }
+        return total;
+    }
+
+    // property|direction|id|total|value; the value goes last since string columns may contain '|'
+    private String encodePageToken(InventorySort order, boolean descending, InventoryDTO last, long total) {
+        String raw = order.getProperty() + "|" + (descending ? "desc" : "asc") + "|" + last.getId() + "|" + total
+                + "|" + order.valueOf(last);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private PageToken decodePageToken(String pageToken, InventorySort order, boolean descending) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Invalid page token: " + pageToken);
+            }
+            if (!parts[0].equals(order.getProperty()) || !parts[1].equals(descending ? "desc" : "asc")) {
+                throw new IllegalArgumentException("Page token was issued for sort " + parts[0] + "," + parts[1]);
+            }
+            return new PageToken(order.parse(parts[4]), Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+    }
+
+    private record PageToken(Object value, Long id, long total) {}
+}
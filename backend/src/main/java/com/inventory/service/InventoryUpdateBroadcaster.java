@@ -0,0 +1,135 @@
+package com.inventory.service;
+
+import com.inventory.dto.InventoryDeltaDTO;
+import com.inventory.event.InventoryChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class InventoryUpdateBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryUpdateBroadcaster.class);
+
+    public static final String DESTINATION = "/topic/inventory-updates";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.websocket.coalesce-window:100ms}")
+    private Duration coalesceWindow;
+
+    @Value("${inventory.websocket.max-pending:10000}")
+    private int maxPending;
+
+    // One pending frame per store/product; later changes in the same window fold into it
+    private final Map<String, PendingDelta> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private Counter sentFrames;
+    private Counter mergedFrames;
+    private Counter droppedFrames;
+
+    @PostConstruct
+    void start() {
+        sentFrames = meterRegistry.counter("inventory.websocket.frames", "outcome", "sent");
+        mergedFrames = meterRegistry.counter("inventory.websocket.frames", "outcome", "merged");
+        droppedFrames = meterRegistry.counter("inventory.websocket.frames", "outcome", "dropped");
+        meterRegistry.gaugeMapSize("inventory.websocket.pending", Tags.empty(), pending);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-ws-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long windowMillis = Math.max(1, coalesceWindow.toMillis());
+        scheduler.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    // Runs on the committing thread, so it only records the change; frames go out from the scheduler
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent change) {
+        String key = change.getStoreId() + ":" + change.getProductId();
+        PendingDelta existing = pending.get(key);
+        if (existing == null) {
+            if (change.getOldQuantity() == change.getNewQuantity()) {
+                return;
+            }
+            if (pending.size() >= maxPending) {
+                droppedFrames.increment();
+                return;
+            }
+        }
+        PendingDelta merged = pending.merge(key, new PendingDelta(change), PendingDelta::merge);
+        if (merged.changes > 1) {
+            mergedFrames.increment();
+        }
+    }
+
+    void flush() {
+        for (String key : pending.keySet()) {
+            PendingDelta delta = pending.remove(key);
+            if (delta == null || delta.oldQuantity == delta.newQuantity) {
+                continue;
+            }
+            try {
+                messagingTemplate.convertAndSend(DESTINATION, new InventoryDeltaDTO(
+                        delta.storeId, delta.productId, delta.oldQuantity, delta.newQuantity, delta.changes));
+                sentFrames.increment();
+            } catch (Exception e) {
+                droppedFrames.increment();
+                log.warn("Failed to broadcast inventory update for {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private static final class PendingDelta {
+        private final Long storeId;
+        private final Long productId;
+        private final int oldQuantity;
+        private final int newQuantity;
+        private final int changes;
+
+        PendingDelta(InventoryChangedEvent change) {
+            this(change.getStoreId(), change.getProductId(), change.getOldQuantity(), change.getNewQuantity(), 1);
+        }
+
+        private PendingDelta(Long storeId, Long productId, int oldQuantity, int newQuantity, int changes) {
+            this.storeId = storeId;
+            this.productId = productId;
+            this.oldQuantity = oldQuantity;
+            this.newQuantity = newQuantity;
+            this.changes = changes;
+        }
+
+        PendingDelta merge(PendingDelta later) {
+            return new PendingDelta(storeId, productId, oldQuantity, later.newQuantity, changes + later.changes);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockLevel;
+import com.inventory.event.InventoryChangedEvent;
+import com.inventory.repository.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory index of inventory quantities for low-stock queries (inventory.low-stock.index.enabled).
+//
+// Every row is an entry in two skip lists: one ordered by quantity, for "below t" with a caller's
+// threshold, and one ordered by quantity minus the product's own threshold, for "below its own
+// threshold". Both are a headSet walk, O(log n + k), without reading the inventory table. Entries are
+// replaced from committed InventoryChangedEvents (consumers, sagas, ledger flushes, direct updates) and
+// a change that takes a row below its product's threshold sends a STOCK_LOW notification.
+//
+// The index only sees this node's commits and after-commit callbacks of concurrent transactions may
+// run out of order, so it is reloaded periodically; a reload never overwrites a row changed after its
+// query started.
+@Service
+public class LowStockIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockIndex.class);
+
+    private static final Comparator<Entry> BY_QUANTITY = Comparator.comparingInt(Entry::quantity)
+            .thenComparingLong(Entry::storeId)
+            .thenComparingLong(Entry::productId);
+
+    private static final Comparator<Entry> BY_MARGIN = Comparator.comparingInt(Entry::margin)
+            .thenComparingLong(Entry::storeId)
+            .thenComparingLong(Entry::productId);
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Value("${inventory.low-stock.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.low-stock.default-threshold:10}")
+    private int defaultThreshold;
+
+    private final Map<RowKey, Entry> rows = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byQuantity = new ConcurrentSkipListSet<>(BY_QUANTITY);
+    private final NavigableSet<Entry> byMargin = new ConcurrentSkipListSet<>(BY_MARGIN);
+    private final AtomicLong clock = new AtomicLong();
+
+    // Changes are applied from the moment the first load starts; queries use the index once it finished
+    private volatile boolean tracking;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        tracking = true;
+        long start = System.currentTimeMillis();
+        reload();
+        ready = true;
+        log.info("Low-stock index loaded: {} row(s) in {}ms", rows.size(), System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.low-stock.resync-interval-ms:300000}",
+            initialDelayString = "${inventory.low-stock.resync-interval-ms:300000}")
+    public void resync() {
+        if (!ready) {
+            return;
+        }
+        try {
+            int changed = reload();
+            if (changed > 0) {
+                log.info("Low-stock index resync corrected {} row(s)", changed);
+            }
+        } catch (Exception e) {
+            log.warn("Low-stock index resync failed: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getDefaultThreshold() {
+        return defaultThreshold;
+    }
+
+    // Inventory ids of the rows with quantity < threshold, lowest quantity first
+    public List<Long> below(int threshold) {
+        return ids(byQuantity.headSet(new Entry(null, Long.MIN_VALUE, Long.MIN_VALUE, threshold, 0, 0), false));
+    }
+
+    // Inventory ids of the rows below their product's threshold, furthest below first
+    public List<Long> belowOwnThreshold() {
+        return ids(byMargin.headSet(new Entry(null, Long.MIN_VALUE, Long.MIN_VALUE, 0, 0, 0), false));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent change) {
+        if (!tracking) {
+            return;
+        }
+        try {
+            Entry entry = apply(change);
+            if (entry != null && change.getOldQuantity() >= entry.threshold()
+                    && change.getNewQuantity() < entry.threshold()) {
+                notificationService.notifyStockLow(change.getStoreId(), change.getProductId(),
+                        change.getNewQuantity(), entry.threshold());
+            }
+        } catch (Exception e) {
+            log.warn("Low-stock index update failed for store {} product {}: {}",
+                    change.getStoreId(), change.getProductId(), e.getMessage());
+        }
+    }
+
+    // Called with a product's new threshold; takes effect once the caller's transaction commits.
+    // Re-keys the product's rows with a scan of the index, which is fine for an admin edit.
+    public void productThresholdChanged(Long productId, Integer threshold) {
+        if (!tracking) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rekey(productId, threshold(threshold));
+                }
+            });
+        } else {
+            rekey(productId, threshold(threshold));
+        }
+    }
+
+    private Entry apply(InventoryChangedEvent change) {
+        RowKey key = new RowKey(change.getStoreId(), change.getProductId());
+        synchronized (this) {
+            Entry current = rows.get(key);
+            if (current != null) {
+                if (current.quantity() == change.getNewQuantity()) {
+                    return current;
+                }
+                return put(key, new Entry(current.inventoryId(), current.storeId(), current.productId(),
+                        change.getNewQuantity(), current.threshold(), clock.incrementAndGet()));
+            }
+        }
+        // First change of a row this node has not indexed yet (usually a new row): read it once
+        return inventoryRepository.findStockLevel(change.getStoreId(), change.getProductId())
+                .map(level -> {
+                    synchronized (this) {
+                        return put(key, entry(level));
+                    }
+                })
+                .orElse(null);
+    }
+
+    private synchronized void rekey(Long productId, int threshold) {
+        for (Entry entry : new ArrayList<>(rows.values())) {
+            if (entry.productId() == productId && entry.threshold() != threshold) {
+                put(new RowKey(entry.storeId(), entry.productId()), new Entry(entry.inventoryId(), entry.storeId(),
+                        entry.productId(), entry.quantity(), threshold, clock.incrementAndGet()));
+            }
+        }
+    }
+
+    // Brings the index in line with the table and returns how many rows differed. Locks row by row,
+    // so change listeners are never held up for the whole reload.
+    private int reload() {
+        long start = clock.get();
+        List<StockLevel> levels = inventoryRepository.findAllStockLevels();
+        Set<RowKey> present = new HashSet<>(levels.size() * 2);
+        int changed = 0;
+        for (StockLevel level : levels) {
+            RowKey key = new RowKey(level.getStoreId(), level.getProductId());
+            present.add(key);
+            synchronized (this) {
+                Entry current = rows.get(key);
+                if (current != null && (current.seq() > start || (current.quantity() == level.getQuantity()
+                        && current.threshold() == threshold(level.getLowStockThreshold())))) {
+                    continue;
+                }
+                put(key, entry(level));
+                changed++;
+            }
+        }
+        for (Map.Entry<RowKey, Entry> row : rows.entrySet()) {
+            if (!present.contains(row.getKey())) {
+                synchronized (this) {
+                    Entry current = rows.get(row.getKey());
+                    if (current != null && current.seq() <= start) {
+                        remove(row.getKey(), current);
+                        changed++;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private Entry entry(StockLevel level) {
+        return new Entry(level.getInventoryId(), level.getStoreId(), level.getProductId(), level.getQuantity(),
+                threshold(level.getLowStockThreshold()), clock.incrementAndGet());
+    }
+
+    // Callers hold the monitor: replacing a row touches the map and both skip lists
+    private Entry put(RowKey key, Entry next) {
+        Entry previous = rows.put(key, next);
+        if (previous != null) {
+            byQuantity.remove(previous);
+            byMargin.remove(previous);
+        }
+        byQuantity.add(next);
+        byMargin.add(next);
+        return next;
+    }
+
+    private void remove(RowKey key, Entry current) {
+        rows.remove(key, current);
+        byQuantity.remove(current);
+        byMargin.remove(current);
+    }
+
+    // Skip lists are walked without locking; an entry replaced during the walk is left out
+    private List<Long> ids(NavigableSet<Entry> entries) {
+        List<Long> ids = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (rows.get(new RowKey(entry.storeId(), entry.productId())) == entry) {
+                ids.add(entry.inventoryId());
+            }
+        }
+        return ids;
+    }
+
+    private int threshold(Integer productThreshold) {
+        return productThreshold != null ? productThreshold : defaultThreshold;
+    }
+
+    private record RowKey(long storeId, long productId) {}
+
+    private record Entry(Long inventoryId, long storeId, long productId, int quantity, int threshold, long seq) {
+        int margin() {
+            return quantity - threshold;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.inventory.service;
 
+import com.inventory.logging.EventSamplingFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -11,6 +14,8 @@ import java.util.Map;
 @Service
 public class NotificationService {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
@@ -108,9 +113,9 @@ public class NotificationService {
     private void sendNotification(String destination, Map<String, Object> notification) {
         try {
             messagingTemplate.convertAndSend(destination, notification);
-            System.out.println("📢 Notificação enviada: " + destination + " - " + notification.get("title"));
+            log.info(EventSamplingFilter.EVENT, "Notificação enviada: {} - {}", destination, notification.get("title"));
         } catch (Exception e) {
-            System.err.println("❌ Erro ao enviar notificação: " + e.getMessage());
+            log.error("Erro ao enviar notificação para {}: {}", destination, e.getMessage());
         }
     }
 }
\ No newline at end of file
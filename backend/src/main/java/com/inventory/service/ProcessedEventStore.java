@@ -0,0 +1,164 @@
+package com.inventory.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventory.model.ProcessedEvent;
+import com.inventory.repository.ProcessedEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Idempotency guard for Kafka consumers, keyed on InventoryEvent.eventId.
+//
+// Recently seen ids live in a bounded in-memory LRU so redeliveries are rejected without a query;
+// misses fall back to the processed_events table. markProcessed must run inside the transaction
+// that applies the event: the row commits or rolls back with the inventory change, and the id only
+// enters the LRU once that transaction has committed.
+@Service
+public class ProcessedEventStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventStore.class);
+
+    private static final String INSERT_SQL = "INSERT INTO processed_events (event_id, processed_at) VALUES (?, ?)";
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${inventory.idempotency.cache-size:100000}")
+    private long cacheSize;
+
+    @Value("${inventory.idempotency.retention:7d}")
+    private Duration retention;
+
+    private Cache<String, Boolean> recent;
+
+    @PostConstruct
+    void init() {
+        recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    public boolean isDuplicate(String eventId) {
+        if (eventId == null) {
+            return false;
+        }
+        if (recent.getIfPresent(eventId) != null) {
+            return true;
+        }
+        if (processedEventRepository.existsById(eventId)) {
+            recent.put(eventId, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+
+    // Batch form for a whole poll: ids are checked against the LRU first and only the misses are
+    // looked up, in one IN query. Returns the ids that were already processed.
+    public Set<String> findDuplicates(Collection<String> eventIds) {
+        Set<String> duplicates = new HashSet<>();
+        List<String> misses = new ArrayList<>();
+        for (String eventId : eventIds) {
+            if (eventId == null) {
+                continue;
+            }
+            if (recent.getIfPresent(eventId) != null) {
+                duplicates.add(eventId);
+            } else {
+                misses.add(eventId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return duplicates;
+        }
+        for (ProcessedEvent processed : processedEventRepository.findAllById(misses)) {
+            recent.put(processed.getEventId(), Boolean.TRUE);
+            duplicates.add(processed.getEventId());
+        }
+        return duplicates;
+    }
+
+    // LRU only, for the ledger: an applied id is remembered at once and replay after a restart starts
+    // at the last flushed checkpoint, so the table does not need to be asked
+    public boolean isRecentlyProcessed(String eventId) {
+        return eventId != null && recent.getIfPresent(eventId) != null;
+    }
+
+    public void markProcessed(String eventId) {
+        if (eventId != null) {
+            markProcessed(List.of(eventId));
+        }
+    }
+
+    public void markProcessed(Collection<String> eventIds) {
+        List<Object[]> rows = new ArrayList<>(eventIds.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (String eventId : eventIds) {
+            if (eventId != null) {
+                rows.add(new Object[]{eventId, now});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(eventIds);
+                }
+            });
+        } else {
+            remember(eventIds);
+        }
+    }
+
+    // Marks ids as seen in memory only, for callers that persist them later (the ledger's flush)
+    public void remember(Collection<String> eventIds) {
+        for (String eventId : eventIds) {
+            if (eventId != null) {
+                recent.put(eventId, Boolean.TRUE);
+            }
+        }
+    }
+
+    // Undoes remember for an id that will not be persisted after all, so a replay of it is applied
+    public void forget(String eventId) {
+        if (eventId != null) {
+            recent.invalidate(eventId);
+        }
+    }
+
+    // Ids older than the retention window can no longer be redelivered by the brokers we run
+    @Scheduled(fixedDelayString = "${inventory.idempotency.compaction-interval-ms:3600000}")
+    @Transactional
+    public void compact() {
+        int removed = processedEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        if (removed > 0) {
+            log.info("Compacted {} processed event id(s) older than {}", removed, retention);
+        }
+    }
+}
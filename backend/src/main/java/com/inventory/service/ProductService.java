@@ -1,9 +1,12 @@
 package com.inventory.service;
 
 import com.inventory.dto.ProductDTO;
+import com.inventory.dto.ProductStockSummary;
 import com.inventory.model.Product;
 import com.inventory.repository.ProductRepository;
 import com.inventory.repository.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
@@ -11,37 +14,47 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ProductService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
+
     @Autowired
     private ProductRepository productRepository;
     
     @Autowired
     private InventoryRepository inventoryRepository;
+    
+    @Autowired
+    private LowStockIndex lowStockIndex;
 
     @Cacheable(value = "products", key = "'all'")
     public List<ProductDTO> getAllProducts() {
-        System.out.println("🛍️ Cache MISS: Loading all products from database");
+        log.debug("Cache miss: loading all products");
+        Map<Long, ProductStockSummary> summaries = inventoryRepository.summarizeAllProducts().stream()
+                .collect(Collectors.toMap(ProductStockSummary::getProductId, Function.identity()));
         return productRepository.findAll().stream()
-                .map(this::convertToDTO)
+                .map(product -> convertToDTO(product, summaries.get(product.getId())))
                 .collect(Collectors.toList());
     }
 
     @Cacheable(value = "products", key = "'id:' + #id")
     public Optional<ProductDTO> getProductById(Long id) {
-        System.out.println("🛍️ Cache MISS: Loading product " + id + " from database");
+        log.debug("Cache miss: loading product {}", id);
         return productRepository.findById(id)
                 .map(this::convertToDTO);
     }
 
     @Cacheable(value = "products", key = "'sku:' + #sku")
     public Optional<ProductDTO> getProductBySku(String sku) {
-        System.out.println("🛍️ Cache MISS: Loading product with SKU " + sku + " from database");
+        log.debug("Cache miss: loading product with SKU {}", sku);
         return productRepository.findBySku(sku)
                 .map(this::convertToDTO);
     }
@@ -75,6 +88,10 @@ public class ProductService {
                     product.setCategory(productDTO.getCategory());
                     product.setPrice(productDTO.getPrice());
                     product.setSku(productDTO.getSku());
+                    if (!Objects.equals(product.getLowStockThreshold(), productDTO.getLowStockThreshold())) {
+                        product.setLowStockThreshold(productDTO.getLowStockThreshold());
+                        lowStockIndex.productThresholdChanged(id, productDTO.getLowStockThreshold());
+                    }
                     
                     return convertToDTO(productRepository.save(product));
                 });
@@ -84,8 +101,7 @@ public class ProductService {
     public boolean deleteProduct(Long id) {
         if (productRepository.existsById(id)) {
             // Check if product has inventory records
-            List<com.inventory.model.Inventory> inventories = inventoryRepository.findByProductId(id);
-            if (!inventories.isEmpty()) {
+            if (inventoryRepository.existsByProductId(id)) {
                 throw new RuntimeException("Cannot delete product with existing inventory records");
             }
             
@@ -96,34 +112,47 @@ public class ProductService {
     }
 
     public List<ProductDTO> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(productRepository.findByCategory(category));
     }
 
     public List<ProductDTO> searchProducts(String searchTerm) {
-        return productRepository.searchProducts(searchTerm).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(productRepository.searchProducts(searchTerm));
     }
 
     @Cacheable(value = "products", key = "'categories'")
     public List<String> getAllCategories() {
-        System.out.println("🏷️ Cache MISS: Loading product categories from database");
+        log.debug("Cache miss: loading product categories");
         return productRepository.findAllCategories();
     }
 
+    // List paths fetch every aggregate in one grouped query instead of three queries per product
+    private List<ProductDTO> convertToDTOs(List<Product> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+        List<Long> productIds = products.stream().map(Product::getId).collect(Collectors.toList());
+        Map<Long, ProductStockSummary> summaries = inventoryRepository.summarizeProducts(productIds).stream()
+                .collect(Collectors.toMap(ProductStockSummary::getProductId, Function.identity()));
+        return products.stream()
+                .map(product -> convertToDTO(product, summaries.get(product.getId())))
+                .collect(Collectors.toList());
+    }
+
     private ProductDTO convertToDTO(Product product) {
+        List<ProductStockSummary> summary = inventoryRepository.summarizeProducts(List.of(product.getId()));
+        return convertToDTO(product, summary.isEmpty() ? null : summary.get(0));
+    }
+
+    private ProductDTO convertToDTO(Product product, ProductStockSummary summary) {
         ProductDTO dto = ProductDTO.fromEntity(product);
         
         // Add computed fields
-        Integer totalQuantity = inventoryRepository.getTotalQuantityByProduct(product.getId());
-        Integer availableQuantity = inventoryRepository.getAvailableQuantityByProduct(product.getId());
-        long storeCount = inventoryRepository.findByProductId(product.getId()).size();
-        
-        dto.setTotalQuantity(totalQuantity != null ? totalQuantity : 0);
-        dto.setAvailableQuantity(availableQuantity != null ? availableQuantity : 0);
-        dto.setStoreCount(storeCount);
+        if (summary == null) {
+            summary = ProductStockSummary.empty(product.getId());
+        }
+        dto.setTotalQuantity((int) summary.getTotalQuantity());
+        dto.setAvailableQuantity((int) summary.getAvailableQuantity());
+        dto.setStoreCount(summary.getStoreCount());
         
         return dto;
     }
@@ -135,6 +164,7 @@ public class ProductService {
         product.setCategory(dto.getCategory());
         product.setPrice(dto.getPrice());
         product.setSku(dto.getSku());
+        product.setLowStockThreshold(dto.getLowStockThreshold());
         return product;
     }
 }
\ No newline at end of file
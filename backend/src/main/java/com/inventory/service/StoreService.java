@@ -1,9 +1,12 @@
 package com.inventory.service;
 
 import com.inventory.dto.StoreDTO;
+import com.inventory.dto.StoreStockSummary;
 import com.inventory.model.Store;
 import com.inventory.repository.StoreRepository;
 import com.inventory.repository.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
@@ -12,13 +15,17 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class StoreService {
 
+    private static final Logger log = LoggerFactory.getLogger(StoreService.class);
+
     @Autowired
     private StoreRepository storeRepository;
     
@@ -27,15 +34,17 @@ public class StoreService {
 
     @Cacheable(value = "stores", key = "'all'")
     public List<StoreDTO> getAllStores() {
-        System.out.println("🏪 Cache MISS: Loading all stores from database");
+        log.debug("Cache miss: loading all stores");
+        Map<Long, StoreStockSummary> summaries = inventoryRepository.summarizeAllStores().stream()
+                .collect(Collectors.toMap(StoreStockSummary::getStoreId, Function.identity()));
         return storeRepository.findAll().stream()
-                .map(this::convertToDTO)
+                .map(store -> convertToDTO(store, summaries.get(store.getId())))
                 .collect(Collectors.toList());
     }
 
     @Cacheable(value = "stores", key = "'id:' + #id")
     public Optional<StoreDTO> getStoreById(Long id) {
-        System.out.println("🏪 Cache MISS: Loading store " + id + " from database");
+        log.debug("Cache miss: loading store {}", id);
         return storeRepository.findById(id)
                 .map(this::convertToDTO);
     }
@@ -67,22 +76,16 @@ public class StoreService {
     }
 
     public List<StoreDTO> getStoresByStatus(Store.StoreStatus status) {
-        return storeRepository.findByStatus(status).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(storeRepository.findByStatus(status));
     }
 
     public List<StoreDTO> searchStoresByLocation(String location) {
-        return storeRepository.findByLocationContainingIgnoreCase(location).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(storeRepository.findByLocationContainingIgnoreCase(location));
     }
 
     public List<StoreDTO> getStoresNeedingSync() {
         LocalDateTime threshold = LocalDateTime.now().minusMinutes(30);
-        return storeRepository.findStoresNeedingSync(threshold).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(storeRepository.findStoresNeedingSync(threshold));
     }
 
     public StoreDTO updateSyncStatus(Long storeId) {
@@ -106,18 +109,33 @@ public class StoreService {
                 .orElseThrow(() -> new RuntimeException("Store not found with id: " + storeId));
     }
 
+    // List paths fetch counts and totals for all stores in one grouped query
+    private List<StoreDTO> convertToDTOs(List<Store> stores) {
+        if (stores.isEmpty()) {
+            return List.of();
+        }
+        List<Long> storeIds = stores.stream().map(Store::getId).collect(Collectors.toList());
+        Map<Long, StoreStockSummary> summaries = inventoryRepository.summarizeStores(storeIds).stream()
+                .collect(Collectors.toMap(StoreStockSummary::getStoreId, Function.identity()));
+        return stores.stream()
+                .map(store -> convertToDTO(store, summaries.get(store.getId())))
+                .collect(Collectors.toList());
+    }
+
     private StoreDTO convertToDTO(Store store) {
+        List<StoreStockSummary> summary = inventoryRepository.summarizeStores(List.of(store.getId()));
+        return convertToDTO(store, summary.isEmpty() ? null : summary.get(0));
+    }
+
+    private StoreDTO convertToDTO(Store store, StoreStockSummary summary) {
         StoreDTO dto = StoreDTO.fromEntity(store);
         
         // Add additional computed fields
-        long productCount = inventoryRepository.findByStoreId(store.getId()).size();
-        long totalQuantity = inventoryRepository.findByStoreId(store.getId())
-                .stream()
-                .mapToLong(inventory -> inventory.getQuantity())
-                .sum();
-        
-        dto.setTotalProducts(productCount);
-        dto.setTotalQuantity(totalQuantity);
+        if (summary == null) {
+            summary = StoreStockSummary.empty(store.getId());
+        }
+        dto.setTotalProducts(summary.getProductCount());
+        dto.setTotalQuantity(summary.getTotalQuantity());
         
         return dto;
     }
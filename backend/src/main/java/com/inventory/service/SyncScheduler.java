@@ -0,0 +1,190 @@
+package com.inventory.service;
+
+import com.inventory.model.Store;
+import com.inventory.model.SyncEvent;
+import com.inventory.repository.SyncEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs store syncs on a dedicated pool with a fixed concurrency limit. A store is never queued
+// twice: while one of its syncs is pending or running, further requests for it are ignored.
+@Service
+public class SyncScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncScheduler.class);
+
+    private static final int MAX_RETRIES = 3;
+
+    @Autowired
+    private SyncEventRepository syncEventRepository;
+
+    @Autowired
+    private StoreService storeService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.sync.max-concurrency:16}")
+    private int maxConcurrency;
+
+    private final Set<Long> storesInFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Unbounded queue is fine: per-store dedup caps it at one entry per store
+        executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "store-sync-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    // Queues a sync for each store that has none in flight and returns how many were queued.
+    // onComplete runs once after all of those syncs have finished, successfully or not.
+    public int submit(List<Store> stores, Runnable onComplete) {
+        List<Store> accepted = new ArrayList<>();
+        for (Store store : stores) {
+            if (storesInFlight.add(store.getId())) {
+                accepted.add(store);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        List<SyncEvent> syncEvents;
+        try {
+            // Commit the PENDING rows before any worker can pick them up
+            syncEvents = newTransaction.execute(status -> {
+                String payload = "{\"triggered_at\":\"" + LocalDateTime.now() + "\"}";
+                List<SyncEvent> created = new ArrayList<>(accepted.size());
+                for (Store store : accepted) {
+                    created.add(new SyncEvent(store, SyncEvent.EventType.SYNC_REQUEST, payload));
+                }
+                return syncEventRepository.saveAll(created);
+            });
+        } catch (RuntimeException e) {
+            accepted.forEach(store -> storesInFlight.remove(store.getId()));
+            throw e;
+        }
+
+        CompletableFuture<?>[] runs = new CompletableFuture<?>[syncEvents.size()];
+        for (int i = 0; i < syncEvents.size(); i++) {
+            runs[i] = schedule(syncEvents.get(i), accepted.get(i).getId());
+        }
+        CompletableFuture.allOf(runs).thenRun(onComplete);
+        return accepted.size();
+    }
+
+    // Re-runs a failed event unless its store already has a sync in flight
+    public CompletableFuture<Void> retry(SyncEvent syncEvent) {
+        Long storeId = syncEvent.getStore() != null ? syncEvent.getStore().getId() : null;
+        if (storeId != null && !storesInFlight.add(storeId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        syncEvent.setStatus(SyncEvent.EventStatus.RETRY);
+        syncEventRepository.save(syncEvent);
+        return schedule(syncEvent, storeId);
+    }
+
+    public int getInFlightCount() {
+        return storesInFlight.size();
+    }
+
+    private CompletableFuture<Void> schedule(SyncEvent syncEvent, Long storeId) {
+        try {
+            return CompletableFuture.runAsync(() -> runSync(syncEvent, storeId), executor);
+        } catch (RuntimeException e) {
+            if (storeId != null) {
+                storesInFlight.remove(storeId);
+            }
+            throw e;
+        }
+    }
+
+    private void runSync(SyncEvent syncEvent, Long storeId) {
+        try {
+            syncEvent.setStatus(SyncEvent.EventStatus.PROCESSING);
+            syncEvent = syncEventRepository.save(syncEvent);
+
+            if (storeId != null) {
+                storeService.updateSyncStatus(storeId);
+            }
+
+            syncEvent.setStatus(SyncEvent.EventStatus.COMPLETED);
+            syncEvent.setErrorMessage(null);
+            syncEvent.setProcessedAt(LocalDateTime.now());
+            syncEventRepository.save(syncEvent);
+        } catch (Exception e) {
+            handleSyncFailure(syncEvent, storeId, e);
+        } finally {
+            if (storeId != null) {
+                storesInFlight.remove(storeId);
+            }
+        }
+    }
+
+    private void handleSyncFailure(SyncEvent syncEvent, Long storeId, Exception e) {
+        log.error("Sync failed for store {}: {}", storeId, e.getMessage());
+        try {
+            syncEvent.setStatus(SyncEvent.EventStatus.FAILED);
+            syncEvent.setErrorMessage(e.getMessage());
+            syncEvent.setRetryCount(syncEvent.getRetryCount() + 1);
+            syncEvent.setProcessedAt(LocalDateTime.now());
+            syncEventRepository.save(syncEvent);
+
+            // Update store status to sync error if retries exceeded
+            if (syncEvent.getRetryCount() >= MAX_RETRIES && storeId != null) {
+                storeService.updateStoreStatus(storeId, Store.StoreStatus.SYNC_ERROR);
+            }
+        } catch (Exception recordFailure) {
+            log.error("Could not record sync failure for store {}: {}", storeId, recordFailure.getMessage());
+        }
+
+        // Send error notification
+        Map<String, Object> error = new HashMap<>();
+        error.put("storeId", storeId);
+        error.put("error", e.getMessage());
+        error.put("timestamp", LocalDateTime.now());
+        messagingTemplate.convertAndSend("/topic/sync-errors", error);
+    }
+}
@@ -4,22 +4,28 @@ import com.inventory.model.SyncEvent;
 import com.inventory.model.Store;
 import com.inventory.repository.SyncEventRepository;
 import com.inventory.repository.StoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Transactional
 public class SyncService {
 
+    private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+
     @Autowired
     private SyncEventRepository syncEventRepository;
     
@@ -32,88 +38,48 @@ public class SyncService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
-    @Async
-    public void triggerSync(Long storeId) {
+    @Autowired
+    private SyncScheduler syncScheduler;
+
+    // Returns false when the store already has a sync pending or running
+    public boolean triggerSync(Long storeId) {
         Store store = storeRepository.findById(storeId)
                 .orElseThrow(() -> new RuntimeException("Store not found"));
         
-        SyncEvent syncEvent = new SyncEvent(store, SyncEvent.EventType.SYNC_REQUEST, 
-                "{\"triggered_at\":\"" + LocalDateTime.now() + "\"}");
-        syncEvent = syncEventRepository.save(syncEvent);
-        
-        try {
-            // Simulate sync process
-            processSyncEvent(syncEvent);
-        } catch (Exception e) {
-            handleSyncFailure(syncEvent, e);
-        }
+        return syncScheduler.submit(List.of(store), this::broadcastSyncStatus) > 0;
     }
 
-    @Async
-    public void triggerGlobalSync() {
+    // Queues every active store on the sync pool and returns how many were newly queued
+    public int triggerGlobalSync() {
         List<Store> stores = storeRepository.findByStatus(Store.StoreStatus.ACTIVE);
         
-        for (Store store : stores) {
-            triggerSync(store.getId());
-        }
-    }
-
-    private void processSyncEvent(SyncEvent syncEvent) {
-        try {
-            syncEvent.setStatus(SyncEvent.EventStatus.PROCESSING);
-            syncEventRepository.save(syncEvent);
-            
-            // Simulate processing time
-            Thread.sleep(1000 + (long)(Math.random() * 2000));
-            
-            // Update store sync status
-            if (syncEvent.getStore() != null) {
-                storeService.updateSyncStatus(syncEvent.getStore().getId());
-            }
-            
-            // Mark as completed
-            syncEvent.setStatus(SyncEvent.EventStatus.COMPLETED);
-            syncEvent.setProcessedAt(LocalDateTime.now());
-            syncEventRepository.save(syncEvent);
-            
-            // Send real-time update
-            messagingTemplate.convertAndSend("/topic/sync-updates", getSyncStatus());
-            
-        } catch (Exception e) {
-            handleSyncFailure(syncEvent, e);
-        }
-    }
-
-    private void handleSyncFailure(SyncEvent syncEvent, Exception e) {
-        syncEvent.setStatus(SyncEvent.EventStatus.FAILED);
-        syncEvent.setErrorMessage(e.getMessage());
-        syncEvent.setRetryCount(syncEvent.getRetryCount() + 1);
-        syncEvent.setProcessedAt(LocalDateTime.now());
-        syncEventRepository.save(syncEvent);
-        
-        // Update store status to sync error if retries exceeded
-        if (syncEvent.getRetryCount() >= 3 && syncEvent.getStore() != null) {
-            storeService.updateStoreStatus(syncEvent.getStore().getId(), Store.StoreStatus.SYNC_ERROR);
-        }
-        
-        // Send error notification
-        messagingTemplate.convertAndSend("/topic/sync-errors", 
-                Map.of("storeId", syncEvent.getStore() != null ? syncEvent.getStore().getId() : null,
-                       "error", e.getMessage(),
-                       "timestamp", LocalDateTime.now()));
+        // One status broadcast for the whole run instead of one per store
+        return syncScheduler.submit(stores, this::broadcastSyncStatus);
     }
 
     @Scheduled(fixedRate = 300000) // Every 5 minutes
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void retryFailedSyncs() {
         List<SyncEvent> failedEvents = syncEventRepository.findPendingEvents(SyncEvent.EventStatus.FAILED, 3);
         
+        List<CompletableFuture<Void>> retries = new ArrayList<>();
         for (SyncEvent event : failedEvents) {
             if (event.getRetryCount() < 3) {
-                event.setStatus(SyncEvent.EventStatus.RETRY);
-                syncEventRepository.save(event);
-                processSyncEvent(event);
+                retries.add(syncScheduler.retry(event));
             }
         }
+        if (!retries.isEmpty()) {
+            CompletableFuture.allOf(retries.toArray(new CompletableFuture<?>[0]))
+                    .thenRun(this::broadcastSyncStatus);
+        }
+    }
+
+    private void broadcastSyncStatus() {
+        try {
+            messagingTemplate.convertAndSend("/topic/sync-updates", getSyncStatus());
+        } catch (Exception e) {
+            log.warn("Failed to broadcast sync status: {}", e.getMessage());
+        }
     }
 
     public Map<String, Object> getSyncStatus() {
@@ -128,6 +94,7 @@ public class SyncService {
         status.put("processing", processingCount);
         status.put("completed", completedCount);
         status.put("failed", failedCount);
+        status.put("inFlight", syncScheduler.getInFlightCount());
         status.put("timestamp", LocalDateTime.now());
         
         int storesNeedingSyncCount = storeService.getStoresNeedingSync().size();
@@ -1,82 +1,170 @@
 package com.inventory.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.inventory.dto.TransactionDTO;
+import com.inventory.dto.TransactionFilter;
+import com.inventory.dto.TransactionPageDTO;
 import com.inventory.model.Transaction;
 import com.inventory.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 public class TransactionService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    // Rows written between persistence context clears during an export
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+
+    private static final String CSV_HEADER = "id,timestamp,storeId,storeName,productId,productSku,productName,type,quantity,referenceId,notes";
+
     @Autowired
     private TransactionRepository transactionRepository;
 
-    public List<TransactionDTO> getAllTransactions() {
-        return transactionRepository.findAll().stream()
-                .map(TransactionDTO::fromEntity)
-                .collect(Collectors.toList());
-    }
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public Optional<TransactionDTO> getTransactionById(Long id) {
         return transactionRepository.findById(id)
                 .map(TransactionDTO::fromEntity);
     }
 
-    public List<TransactionDTO> getTransactionsByStore(Long storeId) {
-        return transactionRepository.findByStoreId(storeId).stream()
-                .map(TransactionDTO::fromEntity)
-                .collect(Collectors.toList());
-    }
+    // Newest-first keyset page; pass the previous page's nextCursor to continue
+    public TransactionPageDTO getTransactions(TransactionFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime cursorTimestamp = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            cursorTimestamp = LocalDateTime.parse(parts[0]);
+            cursorId = Long.parseLong(parts[1]);
+        }
 
-    public List<TransactionDTO> getTransactionsByProduct(Long productId) {
-        return transactionRepository.findByProductId(productId).stream()
+        // Fetch one extra row to know whether another page exists without running a COUNT
+        List<Transaction> rows = transactionRepository.findPage(filter, cursorTimestamp, cursorId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        List<TransactionDTO> items = rows.stream()
                 .map(TransactionDTO::fromEntity)
                 .collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(rows.get(rows.size() - 1)) : null;
+        return new TransactionPageDTO(items, nextCursor, hasMore);
     }
 
-    public List<TransactionDTO> getTransactionsByType(Transaction.TransactionType type) {
-        return transactionRepository.findByType(type).stream()
-                .map(TransactionDTO::fromEntity)
-                .collect(Collectors.toList());
+    public List<TransactionDTO> getRecentTransactions(int limit) {
+        return getTransactions(new TransactionFilter(), null, limit).getItems();
     }
 
-    public List<TransactionDTO> getTransactionsByReferenceId(String referenceId) {
-        return transactionRepository.findByReferenceId(referenceId).stream()
-                .map(TransactionDTO::fromEntity)
-                .collect(Collectors.toList());
+    // Writes every transaction in the range to the output as NDJSON or CSV, oldest first. Rows are
+    // pulled through a database cursor and the persistence context is cleared periodically, so
+    // memory stays flat no matter how large the range is. Returns the number of rows written.
+    public long exportTransactions(LocalDateTime startDate, LocalDateTime endDate, Long storeId, boolean csv,
+                                   OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long written = 0;
+        try (Stream<Transaction> rows = storeId != null
+                ? transactionRepository.streamByStoreIdAndDateRange(storeId, startDate, endDate)
+                : transactionRepository.streamByDateRange(startDate, endDate)) {
+            for (Transaction transaction : (Iterable<Transaction>) rows::iterator) {
+                TransactionDTO dto = TransactionDTO.fromEntity(transaction);
+                if (csv) {
+                    writeCsvRow(writer, dto);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+                if (++written % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return written;
     }
 
-    public List<TransactionDTO> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.findByDateRange(startDate, endDate).stream()
-                .map(TransactionDTO::fromEntity)
-                .collect(Collectors.toList());
+    private void writeCsvRow(Writer writer, TransactionDTO dto) throws IOException {
+        writer.write(String.valueOf(dto.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.getTimestamp()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.getStoreId()));
+        writer.write(',');
+        writer.write(csvField(dto.getStoreName()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.getProductId()));
+        writer.write(',');
+        writer.write(csvField(dto.getProductSku()));
+        writer.write(',');
+        writer.write(csvField(dto.getProductName()));
+        writer.write(',');
+        writer.write(dto.getType().name());
+        writer.write(',');
+        writer.write(String.valueOf(dto.getQuantity()));
+        writer.write(',');
+        writer.write(csvField(dto.getReferenceId()));
+        writer.write(',');
+        writer.write(csvField(dto.getNotes()));
+        writer.write('\n');
     }
 
-    public List<TransactionDTO> getTransactionsByStoreAndDateRange(Long storeId, LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.findByStoreIdAndDateRange(storeId, startDate, endDate).stream()
-                .map(TransactionDTO::fromEntity)
-                .collect(Collectors.toList());
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
 
-    public List<TransactionDTO> getTransactionsByProductAndDateRange(Long productId, LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.findByProductIdAndDateRange(productId, startDate, endDate).stream()
-                .map(TransactionDTO::fromEntity)
-                .collect(Collectors.toList());
+    private String encodeCursor(Transaction transaction) {
+        String raw = transaction.getTimestamp() + "|" + transaction.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
-    public List<TransactionDTO> getRecentTransactions(int limit) {
-        return transactionRepository.findAll().stream()
-                .sorted((t1, t2) -> t2.getTimestamp().compareTo(t1.getTimestamp()))
-                .limit(limit)
-                .map(TransactionDTO::fromEntity)
-                .collect(Collectors.toList());
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
     }
-}
\ No newline at end of file
+}
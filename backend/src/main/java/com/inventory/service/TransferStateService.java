@@ -1,5 +1,7 @@
 package com.inventory.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
@@ -14,6 +16,8 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class TransferStateService {
 
+    private static final Logger log = LoggerFactory.getLogger(TransferStateService.class);
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
@@ -22,7 +26,7 @@ public class TransferStateService {
 
     @CachePut(value = "transfer-state", key = "#sagaId")
     public Map<String, Object> saveTransferState(String sagaId, Map<String, Object> state) {
-        System.out.println("💾 Saving transfer state for saga: " + sagaId);
+        log.debug("Saving transfer state for saga {}", sagaId);
         
         // Also save directly to Redis with TTL
         redisTemplate.opsForValue().set(
@@ -36,7 +40,7 @@ public class TransferStateService {
 
     @Cacheable(value = "transfer-state", key = "#sagaId")
     public Map<String, Object> getTransferState(String sagaId) {
-        System.out.println("📄 Cache MISS: Loading transfer state for saga: " + sagaId);
+        log.debug("Cache miss: loading transfer state for saga {}", sagaId);
         
         @SuppressWarnings("unchecked")
         Map<String, Object> state = (Map<String, Object>) redisTemplate.opsForValue()
@@ -47,7 +51,7 @@ public class TransferStateService {
 
     @CacheEvict(value = "transfer-state", key = "#sagaId")
     public void deleteTransferState(String sagaId) {
-        System.out.println("🗑️ Deleting transfer state for saga: " + sagaId);
+        log.debug("Deleting transfer state for saga {}", sagaId);
         redisTemplate.delete(TRANSFER_STATE_PREFIX + sagaId);
     }
 
@@ -60,14 +64,14 @@ public class TransferStateService {
             Duration.ofSeconds(timeoutSeconds)
         );
         
-        System.out.println("🔒 Transfer lock " + (Boolean.TRUE.equals(acquired) ? "ACQUIRED" : "FAILED") + " for saga: " + sagaId);
+        log.debug("Transfer lock {} for saga {}", Boolean.TRUE.equals(acquired) ? "acquired" : "not acquired", sagaId);
         return Boolean.TRUE.equals(acquired);
     }
 
     public void releaseTransferLock(String sagaId) {
         String lockKey = TRANSFER_LOCK_PREFIX + sagaId;
         redisTemplate.delete(lockKey);
-        System.out.println("🔓 Transfer lock RELEASED for saga: " + sagaId);
+        log.debug("Transfer lock released for saga {}", sagaId);
     }
 
     public void updateTransferProgress(String sagaId, String step, String status, Object data) {
@@ -0,0 +1,92 @@
+package com.inventory.load;
+
+import com.inventory.dto.ProductStockSummary;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:product-aggregate-load;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false"
+})
+class ProductAggregateLoadTest {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int STORES = 200;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        if (productRepository.count() >= PRODUCTS) {
+            return;
+        }
+        // Bulk seed through SQL: 10k products x 200 stores = 2M inventory rows
+        jdbcTemplate.update("DELETE FROM transactions");
+        jdbcTemplate.update("DELETE FROM inventory");
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.update("DELETE FROM stores");
+        jdbcTemplate.update("INSERT INTO stores (id, name, location, status, created_at) " +
+                "SELECT X, 'Load Store ' || X, 'Load Location', 'ACTIVE', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + STORES + ")");
+        jdbcTemplate.update("INSERT INTO products (id, name, category, price, sku, created_at) " +
+                "SELECT X, 'Load Product ' || X, 'Load', 10.00, 'LOAD-' || X, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + PRODUCTS + ")");
+        jdbcTemplate.update("INSERT INTO inventory (id, store_id, product_id, quantity, reserved_quantity, version) " +
+                "SELECT X, MOD(X - 1, " + STORES + ") + 1, (X - 1) / " + STORES + " + 1, MOD(X, 97), MOD(X, 5), 0 " +
+                "FROM SYSTEM_RANGE(1, " + ((long) PRODUCTS * STORES) + ")");
+    }
+
+    @Test
+    void testGroupedAggregate_vs_PerProductQueries() {
+        // Legacy shape: three queries per product (two sums + loading every row to count stores)
+        List<Long> sample = productRepository.findAll().stream().limit(200).map(p -> p.getId()).toList();
+        long legacyStart = System.currentTimeMillis();
+        for (Long productId : sample) {
+            inventoryRepository.getTotalQuantityByProduct(productId);
+            inventoryRepository.getAvailableQuantityByProduct(productId);
+            inventoryRepository.findByProductId(productId).size();
+        }
+        long legacyDuration = System.currentTimeMillis() - legacyStart;
+        long legacyProjected = legacyDuration * PRODUCTS / sample.size();
+
+        long groupedStart = System.currentTimeMillis();
+        List<ProductStockSummary> summaries = inventoryRepository.summarizeAllProducts();
+        long groupedDuration = System.currentTimeMillis() - groupedStart;
+
+        long listStart = System.currentTimeMillis();
+        int listed = productService.getAllProducts().size();
+        long listDuration = System.currentTimeMillis() - listStart;
+
+        System.out.println("=== PRODUCT AGGREGATE RESULTS (" + PRODUCTS + " products x " + STORES + " stores) ===");
+        System.out.println("Per-product queries (" + sample.size() + " products): " + legacyDuration + "ms, projected: " + legacyProjected + "ms");
+        System.out.println("Grouped aggregate query: " + groupedDuration + "ms");
+        System.out.println("ProductService.getAllProducts: " + listDuration + "ms");
+
+        assertEquals(PRODUCTS, summaries.size());
+        assertEquals(PRODUCTS, listed);
+        assertTrue(groupedDuration < legacyProjected, "Grouped aggregate should beat per-product queries");
+    }
+}
@@ -0,0 +1,13 @@
+package com.inventory;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+// Configuration for @DataJpaTest slices: entities and repositories only, services are @Imported by
+// each test. Tests name it with @ContextConfiguration, so the slice does not look for the
+// @SpringBootApplication classes in com.inventory. Deliberately not a @Configuration: component
+// scanning in @SpringBootTest runs must not pick it up.
+@EntityScan("com.inventory.model")
+@EnableJpaRepositories("com.inventory.repository")
+public class JpaSliceConfig {
+}
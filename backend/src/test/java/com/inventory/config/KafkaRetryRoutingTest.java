@@ -0,0 +1,38 @@
+package com.inventory.config;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaRetryRoutingTest {
+
+    private static final RuntimeException TRANSIENT =
+            new ListenerExecutionFailedException("failed", new RuntimeException("Product not found: 7"));
+
+    @Test
+    void failedRecordsWalkThroughEachRetryStageBeforeTheDlq() {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("inventory.commands.stock", 0, 10L, "1:7", "{}");
+
+        for (int stage = 0; stage < KafkaConfig.RETRY_TOPICS.length; stage++) {
+            assertThat(KafkaConfig.retryDestination(record, TRANSIENT).topic()).isEqualTo(KafkaConfig.RETRY_TOPICS[stage]);
+            Headers next = KafkaConfig.retryHeaders(record, TRANSIENT);
+            assertThat(next.lastHeader(KafkaConfig.RETRY_DUE_HEADER)).isNotNull();
+            next.forEach(header -> record.headers().add(header));
+            assertThat(KafkaConfig.retryAttempt(record.headers())).isEqualTo(stage + 1);
+        }
+
+        assertThat(KafkaConfig.retryDestination(record, TRANSIENT).topic()).isEqualTo("inventory.dlq");
+    }
+
+    @Test
+    void brokenInvariantsGoStraightToTheDlq() {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("inventory.commands.stock", 0, 10L, "1:7", "{}");
+        RuntimeException invariant = new ListenerExecutionFailedException("failed",
+                new IllegalArgumentException("Quantity cannot be negative"));
+
+        assertThat(KafkaConfig.retryDestination(record, invariant).topic()).isEqualTo("inventory.dlq");
+    }
+}
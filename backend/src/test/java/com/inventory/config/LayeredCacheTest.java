@@ -0,0 +1,67 @@
+package com.inventory.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class LayeredCacheTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private ConcurrentMapCacheManager remote;
+    private Cache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        remote = new ConcurrentMapCacheManager("inventory");
+        LayeredCacheManager manager = new LayeredCacheManager(remote, redisTemplate, Map.of(),
+                Duration.ofMinutes(1), 100, null);
+        cache = manager.getCache("inventory");
+    }
+
+    @Test
+    void fillsAreNotBroadcastButEvictionsAre() {
+        cache.put("store:1", "s1");
+        cache.get("store:2", () -> "s2");
+        remote.getCache("inventory").put("store:3", "s3");
+        cache.get("store:3");
+
+        verify(redisTemplate, never()).convertAndSend(eq(LayeredCacheManager.INVALIDATION_CHANNEL), any());
+
+        cache.evict("store:1");
+        cache.clear();
+
+        verify(redisTemplate, times(2)).convertAndSend(eq(LayeredCacheManager.INVALIDATION_CHANNEL), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void localHitsShareAnUnmodifiableCopy() {
+        List<String> loaded = new ArrayList<>(List.of("a", "b"));
+        cache.put("store:1", loaded);
+        loaded.add("c");
+
+        List<Object> first = cache.get("store:1", List.class);
+        List<Object> second = cache.get("store:1", List.class);
+
+        assertThat(first).containsExactly("a", "b").isSameAs(second);
+        assertThatThrownBy(first::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,151 @@
+package com.inventory.consumer;
+
+import com.inventory.JpaSliceConfig;
+import com.inventory.event.InventoryUpdateEvent;
+import com.inventory.model.Inventory;
+import com.inventory.model.Product;
+import com.inventory.model.Store;
+import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StoreRepository;
+import com.inventory.repository.TransactionRepository;
+import com.inventory.service.ProcessedEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Not wrapped in a test transaction: a rejected batch rolls back exactly as in production
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = JpaSliceConfig.class)
+@Import({InventoryUpdateBatchProcessor.class, ProcessedEventStore.class})
+class InventoryUpdateBatchProcessorTest {
+
+    @Autowired
+    private InventoryUpdateBatchProcessor batchProcessor;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @MockBean
+    private InventoryEventPublisher eventPublisher;
+
+    private Long storeId;
+    private Long productId;
+    private Long otherProductId;
+
+    @BeforeEach
+    void setUp() {
+        Store store = storeRepository.save(new Store("Store", "Location"));
+        Product product = productRepository.save(new Product("Product", "Description", "Category",
+                new BigDecimal("10.00"), "SKU-" + UUID.randomUUID()));
+        Product other = productRepository.save(new Product("Other", "Description", "Category",
+                new BigDecimal("10.00"), "SKU-" + UUID.randomUUID()));
+        inventoryRepository.save(new Inventory(store, product, 10));
+        inventoryRepository.save(new Inventory(store, other, 10));
+        storeId = store.getId();
+        productId = product.getId();
+        otherProductId = other.getId();
+    }
+
+    @Test
+    void versionedCommandsAreCheckedAgainstTheRunningVersion() {
+        Long version = stock(productId).getVersion();
+
+        batchProcessor.applyBatch(List.of(
+                versioned(productId, 5, "STOCK_IN", version),
+                versioned(productId, 3, "STOCK_OUT", version + 1),
+                versioned(productId, 1, "STOCK_IN", version + 2)));
+
+        Inventory inventory = stock(productId);
+        assertThat(inventory.getQuantity()).isEqualTo(13);
+        assertThat(inventory.getVersion()).isEqualTo(version + 3);
+        verify(eventPublisher).enqueueInventoryAudit(any());
+    }
+
+    @Test
+    void rejectedEventRollsTheBatchBackAndReportsItsIndex() {
+        long transactionsBefore = transactionRepository.count();
+        List<InventoryUpdateEvent> events = List.of(
+                new InventoryUpdateEvent(storeId, otherProductId, 2, "STOCK_IN"),
+                new InventoryUpdateEvent(storeId, productId, 4, "STOCK_OUT"),
+                new InventoryUpdateEvent(storeId, otherProductId, 50, "STOCK_OUT"),
+                new InventoryUpdateEvent(storeId, productId, 50, "STOCK_OUT"),
+                new InventoryUpdateEvent(storeId, productId, 1, "STOCK_OUT"));
+
+        BatchListenerFailedException failure = catchThrowableOfType(
+                () -> batchProcessor.applyBatch(events), BatchListenerFailedException.class);
+
+        assertThat(failure.getIndex()).isEqualTo(2);
+        assertThat(failure.getCause()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(stock(productId).getQuantity()).isEqualTo(10);
+        assertThat(stock(otherProductId).getQuantity()).isEqualTo(10);
+        assertThat(transactionRepository.count()).isEqualTo(transactionsBefore);
+        // The audits enqueued before the failure went into the outbox and rolled back with the batch
+        clearInvocations(eventPublisher);
+
+        // Replaying the events ahead of the failed one applies them exactly once
+        batchProcessor.applyBatch(events.subList(0, failure.getIndex()));
+        batchProcessor.applyBatch(events.subList(0, failure.getIndex()));
+        assertThat(stock(otherProductId).getQuantity()).isEqualTo(12);
+        assertThat(stock(productId).getQuantity()).isEqualTo(6);
+        assertThat(transactionRepository.count()).isEqualTo(transactionsBefore + 2);
+        verify(eventPublisher, times(2)).enqueueInventoryAudit(any());
+    }
+
+    @Test
+    void staleVersionAndUnknownProductAreRejected() {
+        Long version = stock(productId).getVersion();
+
+        BatchListenerFailedException stale = catchThrowableOfType(() -> batchProcessor.applyBatch(List.of(
+                versioned(productId, 5, "STOCK_IN", version),
+                versioned(productId, 1, "STOCK_IN", version))), BatchListenerFailedException.class);
+        assertThat(stale.getIndex()).isEqualTo(1);
+        assertThat(stale.getMessage()).contains("Expected version: " + version);
+
+        BatchListenerFailedException unknown = catchThrowableOfType(() -> batchProcessor.applyBatch(List.of(
+                new InventoryUpdateEvent(storeId, productId, 1, "STOCK_IN"),
+                new InventoryUpdateEvent(storeId, -1L, 1, "STOCK_IN"))), BatchListenerFailedException.class);
+        assertThat(unknown.getIndex()).isEqualTo(1);
+        assertThat(unknown.getMessage()).contains("Product not found");
+        assertThat(stock(productId).getQuantity()).isEqualTo(10);
+    }
+
+    private InventoryUpdateEvent versioned(Long product, int quantity, String operation, Long version) {
+        InventoryUpdateEvent event = new InventoryUpdateEvent(storeId, product, quantity, operation);
+        event.setVersion(version);
+        return event;
+    }
+
+    private Inventory stock(Long product) {
+        return inventoryRepository.findByStoreIdAndProductId(storeId, product).orElseThrow();
+    }
+}
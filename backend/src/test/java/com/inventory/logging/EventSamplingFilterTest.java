@@ -0,0 +1,73 @@
+package com.inventory.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.inventory.event.InventoryUpdateEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventSamplingFilterTest {
+
+    private Logger logger;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(MDC.getMDCAdapter());
+        EventSamplingFilter filter = new EventSamplingFilter();
+        filter.setSampleRate(10);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        // Captures MDC and arguments when the event is appended, as the AsyncAppender does
+        appender = new ListAppender<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                event.prepareForDeferredProcessing();
+                super.append(event);
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        logger = context.getLogger("sampling-test");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+    }
+
+    @Test
+    void eventLogsAreSampledButWarningsAndUnmarkedLogsAreNot() {
+        for (int i = 0; i < 100; i++) {
+            logger.info(EventSamplingFilter.EVENT, "processed {}", i);
+            logger.debug(EventSamplingFilter.EVENT, "below the logger level {}", i);
+        }
+        logger.warn(EventSamplingFilter.EVENT, "failed");
+        logger.info("unmarked");
+
+        assertThat(appender.list).hasSize(12);
+        assertThat(appender.list.get(1).getFormattedMessage()).isEqualTo("processed 10");
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).contains("failed", "unmarked");
+    }
+
+    @Test
+    void eventContextIsCopiedToTheMdcOfLogsWrittenWhileItIsOpen() {
+        InventoryUpdateEvent event = new InventoryUpdateEvent(1L, 2L, 5, "STOCK_IN");
+        event.setCorrelationId("corr-1");
+
+        try (var ignored = EventLogContext.open(event)) {
+            logger.info("inside");
+        }
+        logger.info("outside");
+
+        assertThat(appender.list.get(0).getMDCPropertyMap())
+                .containsEntry(EventLogContext.CORRELATION_ID, "corr-1")
+                .containsEntry(EventLogContext.EVENT_ID, event.getEventId());
+        assertThat(appender.list.get(1).getMDCPropertyMap()).doesNotContainKey(EventLogContext.CORRELATION_ID);
+    }
+}
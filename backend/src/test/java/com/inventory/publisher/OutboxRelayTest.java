@@ -0,0 +1,121 @@
+package com.inventory.publisher;
+
+import com.inventory.model.OutboxEvent;
+import com.inventory.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        kafkaTemplate = mock(KafkaTemplate.class);
+
+        relay = new OutboxRelay();
+        ReflectionTestUtils.setField(relay, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(relay, "outboxKafkaTemplate", kafkaTemplate);
+        KafkaSendObserver sendObserver = new KafkaSendObserver();
+        ReflectionTestUtils.setField(sendObserver, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "sendObserver", sendObserver);
+        ReflectionTestUtils.setField(relay, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "sendTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(relay, "lease", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+    }
+
+    @Test
+    void fullBatchIsSentAndMarkedInOneUpdate() {
+        claims(event(1L, "1:1"), event(2L, "1:2"));
+        when(kafkaTemplate.send(eq("inventory.commands.stock"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+        verify(outboxEventRepository).claim(eq(List.of(1L, 2L)), anyString(), any(), any());
+        verify(outboxEventRepository).markSent(eq(List.of(1L, 2L)), any());
+        verify(outboxEventRepository, never()).recordFailedAttempt(any(), anyInt(), any());
+    }
+
+    @Test
+    void onlyThePrefixBeforeTheFirstUnacknowledgedRowIsMarkedSent() {
+        ReflectionTestUtils.setField(relay, "batchSize", 4);
+        claims(event(1L, "1:1"), event(2L, "1:2"), event(3L, "1:3"), event(4L, "1:4"));
+        when(kafkaTemplate.send(eq("inventory.commands.stock"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+        when(kafkaTemplate.send("inventory.commands.stock", "1:2", "{}"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThat(relay.relayBatch()).isEqualTo(-1);
+        // Rows 3 and 4 were acknowledged after the failure; they go out again behind row 2
+        verify(outboxEventRepository).markSent(eq(List.of(1L)), any());
+        verify(outboxEventRepository).recordFailedAttempt(2L, 1, null);
+        verify(outboxEventRepository).release(List.of(3L, 4L));
+    }
+
+    @Test
+    void rowsThatKeepFailingAreDeadLettered() {
+        OutboxEvent poison = event(1L, "1:1");
+        poison.setAttempts(2);
+        claims(poison, event(2L, "1:2"));
+        when(kafkaTemplate.send("inventory.commands.stock", "1:1", "{}"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("record too large")));
+        when(kafkaTemplate.send("inventory.commands.stock", "1:2", "{}"))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        assertThat(relay.relayBatch()).isEqualTo(-1);
+        verify(outboxEventRepository, never()).markSent(any(), any());
+        verify(outboxEventRepository).recordFailedAttempt(eq(1L), eq(3), notNull());
+        verify(outboxEventRepository).release(List.of(2L));
+    }
+
+    @Test
+    void emptyOutboxSendsNothing() {
+        when(outboxEventRepository.findClaimable(any(), any(Pageable.class))).thenReturn(List.of());
+
+        assertThat(relay.relayBatch()).isZero();
+        verify(outboxEventRepository, never()).claim(any(), any(), any(), any());
+        verify(outboxEventRepository, never()).markSent(any(), any());
+    }
+
+    private void claims(OutboxEvent... events) {
+        List<OutboxEvent> claimed = List.of(events);
+        when(outboxEventRepository.findClaimable(any(), any(Pageable.class)))
+                .thenReturn(claimed.stream().map(OutboxEvent::getId).toList());
+        when(outboxEventRepository.claim(any(), anyString(), any(), any())).thenReturn(claimed.size());
+        when(outboxEventRepository.findClaimed(anyString())).thenReturn(claimed);
+    }
+
+    private static OutboxEvent event(Long id, String key) {
+        OutboxEvent event = new OutboxEvent("inventory.commands.stock", key, "{}");
+        event.setId(id);
+        return event;
+    }
+}
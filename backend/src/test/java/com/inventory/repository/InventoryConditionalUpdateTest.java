@@ -0,0 +1,63 @@
+package com.inventory.repository;
+
+import com.inventory.JpaSliceConfig;
+import com.inventory.model.Inventory;
+import com.inventory.model.Product;
+import com.inventory.model.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ContextConfiguration(classes = JpaSliceConfig.class)
+class InventoryConditionalUpdateTest {
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long storeId;
+    private Long productId;
+    private Long inventoryId;
+
+    @BeforeEach
+    void setUp() {
+        Store store = entityManager.persist(new Store("Store", "Location"));
+        Product product = entityManager.persist(new Product("Product", "Description", "Category", new BigDecimal("10.00"), "SKU-1"));
+        Inventory inventory = new Inventory(store, product, 10);
+        inventory.setReservedQuantity(3);
+        inventoryId = entityManager.persist(inventory).getId();
+        entityManager.flush();
+        entityManager.clear();
+        storeId = store.getId();
+        productId = product.getId();
+    }
+
+    @Test
+    void decrementAppliesOnlyWhileAvailableQuantityCoversTheAmount() {
+        assertThat(inventoryRepository.decrementIfAvailable(storeId, productId, 5)).isEqualTo(1);
+        assertThat(inventoryRepository.decrementIfAvailable(storeId, productId, 3)).isZero(); // 5 left, 3 reserved
+        assertThat(inventoryRepository.decrementIfAvailable(storeId, productId, 2)).isEqualTo(1);
+
+        entityManager.clear();
+        Inventory inventory = entityManager.find(Inventory.class, inventoryId);
+        assertThat(inventory.getQuantity()).isEqualTo(3);
+        assertThat(inventory.getVersion()).isEqualTo(2L);
+        assertThat(inventoryRepository.findQuantityByStoreIdAndProductId(storeId, productId)).contains(3);
+    }
+
+    @Test
+    void unknownRowIsNotUpdated() {
+        assertThat(inventoryRepository.decrementIfAvailable(storeId, productId + 1000, 1)).isZero();
+        assertThat(inventoryRepository.findQuantityByStoreIdAndProductId(storeId, productId + 1000)).isEmpty();
+    }
+}
@@ -0,0 +1,72 @@
+package com.inventory.repository;
+
+import com.inventory.JpaSliceConfig;
+import com.inventory.model.OutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ContextConfiguration(classes = JpaSliceConfig.class)
+class OutboxClaimTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            ids.add(entityManager.persist(new OutboxEvent("inventory.commands.stock", "1:" + i, "{}")).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void aLeasedRowIsNotClaimedAgainUntilTheLeaseRunsOut() {
+        List<Long> read = outboxEventRepository.findClaimable(NOW, PageRequest.of(0, 2));
+        assertThat(outboxEventRepository.claim(read, "relay-a", NOW.plusMinutes(2), NOW)).isEqualTo(2);
+        // A relay that read the same ids before the lease was taken gets none of them
+        assertThat(outboxEventRepository.claim(read, "relay-b", NOW.plusMinutes(2), NOW)).isZero();
+
+        assertThat(read).containsExactly(ids.get(0), ids.get(1));
+        assertThat(outboxEventRepository.findClaimed("relay-a")).extracting(OutboxEvent::getId)
+                .containsExactly(ids.get(0), ids.get(1));
+        assertThat(outboxEventRepository.findClaimable(NOW.plusMinutes(1), PageRequest.of(0, 10)))
+                .containsExactly(ids.get(2), ids.get(3));
+        assertThat(outboxEventRepository.findClaimable(NOW.plusMinutes(3), PageRequest.of(0, 10)))
+                .containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void sentAndDeadLetteredRowsAreNotClaimable() {
+        outboxEventRepository.claim(ids, "relay-a", NOW.plusMinutes(2), NOW);
+        outboxEventRepository.markSent(List.of(ids.get(0)), NOW);
+        outboxEventRepository.recordFailedAttempt(ids.get(1), 10, NOW);
+        outboxEventRepository.recordFailedAttempt(ids.get(2), 1, null);
+        outboxEventRepository.release(List.of(ids.get(3)));
+        entityManager.clear();
+
+        assertThat(outboxEventRepository.findClaimable(NOW, PageRequest.of(0, 10)))
+                .containsExactly(ids.get(2), ids.get(3));
+        assertThat(entityManager.find(OutboxEvent.class, ids.get(2)).getAttempts()).isEqualTo(1);
+        assertThat(entityManager.find(OutboxEvent.class, ids.get(1)).getDeadLetteredAt()).isEqualTo(NOW);
+    }
+}
@@ -0,0 +1,244 @@
+package com.inventory.saga;
+
+import com.inventory.JpaSliceConfig;
+import com.inventory.config.JacksonConfig;
+import com.inventory.event.InventoryTransferEvent;
+import com.inventory.event.TransferLine;
+import com.inventory.model.Inventory;
+import com.inventory.model.Product;
+import com.inventory.model.SagaInstance;
+import com.inventory.model.Store;
+import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SagaInstanceRepository;
+import com.inventory.repository.StoreRepository;
+import com.inventory.service.InventoryLedger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Not wrapped in a test transaction: the saga commits (and records failures) exactly as in production
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = JpaSliceConfig.class)
+@Import({InventoryTransferSaga.class, SagaOrchestrator.class, JacksonConfig.class, InventoryTransferSagaTest.Beans.class})
+class InventoryTransferSagaTest {
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Beans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private InventoryTransferSaga transferSaga;
+
+    @Autowired
+    private SagaInstanceRepository sagaInstanceRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private InventoryEventPublisher eventPublisher;
+
+    @MockBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @MockBean
+    private InventoryLedger inventoryLedger;
+
+    private Long sourceStoreId;
+    private Long destinationStoreId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Store source = storeRepository.save(new Store("Source", "Location"));
+        Store destination = storeRepository.save(new Store("Destination", "Location"));
+        Product product = productRepository.save(new Product("Product", "Description", "Category",
+                new BigDecimal("10.00"), "SKU-" + UUID.randomUUID()));
+        inventoryRepository.save(new Inventory(source, product, 10));
+        sourceStoreId = source.getId();
+        destinationStoreId = destination.getId();
+        productId = product.getId();
+        remoteStores(Set.of());
+    }
+
+    @Test
+    void localTransferCompletesInOneTransactionWithoutCommands() {
+        SagaInstance saga = transferSaga.startTransfer(transfer(4));
+
+        assertThat(saga.getMode()).isEqualTo(SagaInstance.Mode.LOCAL);
+        assertThat(saga.getStatus()).isEqualTo(SagaInstance.Status.COMPLETED);
+        assertThat(stock(sourceStoreId).getQuantity()).isEqualTo(6);
+        assertThat(stock(sourceStoreId).getReservedQuantity()).isZero();
+        assertThat(stock(destinationStoreId).getQuantity()).isEqualTo(4);
+        verify(eventPublisher, never()).enqueueInventoryTransfer(any());
+        verify(eventPublisher).enqueueInventoryAudit(any());
+    }
+
+    @Test
+    void failedLocalTransferRollsBackAndIsRecorded() {
+        InventoryTransferEvent event = transfer(50);
+
+        assertThatThrownBy(() -> transferSaga.startTransfer(event))
+                .hasMessageContaining("Insufficient available quantity");
+
+        SagaInstance saga = sagaInstanceRepository.findById(event.getSagaId()).orElseThrow();
+        assertThat(saga.getStatus()).isEqualTo(SagaInstance.Status.FAILED);
+        assertThat(saga.getCurrentStep()).isEqualTo("RESERVE");
+        assertThat(stock(sourceStoreId).getReservedQuantity()).isZero();
+    }
+
+    @Test
+    void remoteTransferStepsThroughCommandsAndCompensatesAFailedStep() {
+        remoteStores(Set.of(destinationStoreId));
+        InventoryTransferEvent event = transfer(4);
+        ArgumentCaptor<InventoryTransferEvent> commands = ArgumentCaptor.forClass(InventoryTransferEvent.class);
+
+        assertThat(transferSaga.startTransfer(event).getMode()).isEqualTo(SagaInstance.Mode.ASYNC);
+        transferSaga.handleCommand(command(event, "RESERVE"));
+        // A redelivered RESERVE no longer matches the saga's current step
+        transferSaga.handleCommand(command(event, "RESERVE"));
+        assertThat(stock(sourceStoreId).getReservedQuantity()).isEqualTo(4);
+
+        transferSaga.failCommand(command(event, "CONFIRM"), new RuntimeException("Destination unavailable"));
+        transferSaga.handleCommand(command(event, "ROLLBACK"));
+
+        verify(eventPublisher, times(3)).enqueueInventoryTransfer(commands.capture());
+        assertThat(commands.getAllValues()).extracting(InventoryTransferEvent::getTransferType)
+                .containsExactly("RESERVE", "CONFIRM", "ROLLBACK");
+        SagaInstance saga = sagaInstanceRepository.findById(event.getSagaId()).orElseThrow();
+        assertThat(saga.getStatus()).isEqualTo(SagaInstance.Status.COMPENSATED);
+        assertThat(saga.getFailureReason()).isEqualTo("Destination unavailable");
+        assertThat(stock(sourceStoreId).getReservedQuantity()).isZero();
+        assertThat(stock(sourceStoreId).getQuantity()).isEqualTo(10);
+        assertThat(meterRegistry.get("inventory.saga.compensations").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("inventory.saga.step")
+                .tags("step", "RESERVE", "mode", "async", "phase", "compensation").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkTransferMovesEveryLineInOneLocalSaga() {
+        Long otherProductId = newProductStockedAt(sourceStoreId, 5);
+        InventoryTransferEvent event = transfer(0);
+        event.setLines(List.of(new TransferLine(otherProductId, 5), new TransferLine(productId, 4)));
+
+        SagaInstance saga = transferSaga.startTransfer(event);
+
+        assertThat(saga.getStatus()).isEqualTo(SagaInstance.Status.COMPLETED);
+        assertThat(stock(sourceStoreId).getQuantity()).isEqualTo(6);
+        assertThat(stock(destinationStoreId).getQuantity()).isEqualTo(4);
+        assertThat(inventoryRepository.findByStoreIdAndProductId(sourceStoreId, otherProductId).orElseThrow().getQuantity()).isZero();
+        assertThat(inventoryRepository.findByStoreIdAndProductId(destinationStoreId, otherProductId).orElseThrow().getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void oppositeBulkTransfersDoNotDeadlock() throws Exception {
+        Long otherProductId = newProductStockedAt(sourceStoreId, 10);
+        inventoryRepository.save(new Inventory(storeRepository.getReferenceById(destinationStoreId),
+                productRepository.getReferenceById(productId), 10));
+        inventoryRepository.save(new Inventory(storeRepository.getReferenceById(destinationStoreId),
+                productRepository.getReferenceById(otherProductId), 10));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> runs = List.of(
+                    pool.submit(() -> repeatTransfers(sourceStoreId, destinationStoreId, otherProductId)),
+                    pool.submit(() -> repeatTransfers(destinationStoreId, sourceStoreId, otherProductId)));
+            for (Future<?> run : runs) {
+                run.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Every transfer went through (no lock timeout or deadlock), so both stores end where they started
+        assertThat(stock(sourceStoreId).getQuantity()).isEqualTo(10);
+        assertThat(stock(destinationStoreId).getQuantity()).isEqualTo(10);
+    }
+
+    private void repeatTransfers(Long fromStoreId, Long toStoreId, Long otherProductId) {
+        for (int i = 0; i < 20; i++) {
+            InventoryTransferEvent event = new InventoryTransferEvent(fromStoreId, toStoreId, null, null, "START");
+            event.setSagaId(UUID.randomUUID().toString());
+            event.setLines(List.of(new TransferLine(productId, 1), new TransferLine(otherProductId, 1)));
+            transferSaga.startTransfer(event);
+        }
+    }
+
+    private Long newProductStockedAt(Long storeId, int quantity) {
+        Product product = productRepository.save(new Product("Other", "Description", "Category",
+                new BigDecimal("5.00"), "SKU-" + UUID.randomUUID()));
+        inventoryRepository.save(new Inventory(storeRepository.getReferenceById(storeId), product, quantity));
+        return product.getId();
+    }
+
+    private InventoryTransferEvent transfer(int quantity) {
+        InventoryTransferEvent event = new InventoryTransferEvent(sourceStoreId, destinationStoreId, productId, quantity, "START");
+        event.setSagaId(UUID.randomUUID().toString());
+        event.setNotes("test");
+        return event;
+    }
+
+    private static InventoryTransferEvent command(InventoryTransferEvent transfer, String step) {
+        InventoryTransferEvent command = new InventoryTransferEvent(transfer.getFromStoreId(), transfer.getToStoreId(),
+                transfer.getProductId(), transfer.getQuantity(), step);
+        command.setSagaId(transfer.getSagaId());
+        command.setNotes(transfer.getNotes());
+        return command;
+    }
+
+    private void remoteStores(Set<Long> storeIds) {
+        InventoryTransferSaga target = AopTestUtils.getTargetObject(transferSaga);
+        ReflectionTestUtils.setField(target, "remoteStores", storeIds);
+    }
+
+    private Inventory stock(Long storeId) {
+        return inventoryRepository.findByStoreIdAndProductId(storeId, productId).orElseThrow();
+    }
+}
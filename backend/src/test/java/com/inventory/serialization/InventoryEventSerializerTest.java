@@ -0,0 +1,86 @@
+package com.inventory.serialization;
+
+import com.inventory.event.InventoryAuditEvent;
+import com.inventory.event.InventoryEvent;
+import com.inventory.event.InventoryTransferEvent;
+import com.inventory.event.InventoryUpdateEvent;
+import com.inventory.event.TransferLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryEventSerializerTest {
+
+    private static final String BINARY_TOPIC = "inventory.commands.stock";
+    private static final String JSON_TOPIC = "inventory.events";
+
+    private InventoryEventSerializer serializer;
+    private InventoryEventDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        serializer = new InventoryEventSerializer(List.of(BINARY_TOPIC));
+        deserializer = new InventoryEventDeserializer();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false,
+                JsonDeserializer.VALUE_DEFAULT_TYPE, InventoryEvent.class.getName()), false);
+    }
+
+    @Test
+    void binaryTopicRoundTripsEveryField() {
+        InventoryUpdateEvent update = new InventoryUpdateEvent(3L, 42L, -5, "STOCK_OUT");
+        update.setReferenceId("SO-1");
+        update.setCorrelationId("not-a-uuid");
+        update.setVersion(7L);
+
+        byte[] payload = serializer.serialize(BINARY_TOPIC, update);
+        byte[] json = serializer.serialize(JSON_TOPIC, update);
+        InventoryUpdateEvent decoded = (InventoryUpdateEvent) deserializer.deserialize(BINARY_TOPIC, payload);
+
+        assertThat(payload[0]).isEqualTo(InventoryEventCodec.MAGIC);
+        assertThat(payload.length).isLessThan(json.length / 2);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(update);
+        assertThat(decoded.getNotes()).isNull();
+        assertThat(decoded.getNewQuantity()).isNull();
+    }
+
+    @Test
+    void embeddedValuesAndIdsSurviveTheCodec() {
+        InventoryAuditEvent audit = new InventoryAuditEvent("UPDATE", 1L, 2L, Map.of("quantity", 10), "note");
+        InventoryTransferEvent transfer = new InventoryTransferEvent(1L, 2L, 42L, 5, "START");
+        transfer.setSagaId("5b3a0c2e-6f1d-4c8e-9a7b-2d4e6f8a0b1c");
+        transfer.setLines(List.of(new TransferLine(42L, 5), new TransferLine(7L, 300)));
+
+        InventoryAuditEvent decodedAudit = (InventoryAuditEvent) InventoryEventCodec.decode(InventoryEventCodec.encode(audit));
+        InventoryTransferEvent decodedTransfer =
+                (InventoryTransferEvent) InventoryEventCodec.decode(InventoryEventCodec.encode(transfer));
+
+        assertThat(decodedAudit.getOldValue()).isEqualTo(Map.of("quantity", 10));
+        assertThat(decodedAudit.getNewValue()).isEqualTo("note");
+        assertThat(decodedAudit.getEventId()).isEqualTo(audit.getEventId());
+        assertThat(decodedTransfer).usingRecursiveComparison().isEqualTo(transfer);
+    }
+
+    @Test
+    void jsonRecordsAndOutboxPayloadsAreAcceptedOnBinaryTopics() {
+        InventoryUpdateEvent update = new InventoryUpdateEvent(3L, 42L, 5, "STOCK_IN");
+        byte[] json = serializer.serialize(JSON_TOPIC, update);
+        String outboxPayload = new String(json, StandardCharsets.UTF_8);
+
+        // Records written before the switch are still JSON; outbox rows are JSON text and get re-encoded
+        InventoryEvent fromJson = (InventoryEvent) deserializer.deserialize(BINARY_TOPIC, json);
+        byte[] reEncoded = serializer.serialize(BINARY_TOPIC, outboxPayload);
+
+        assertThat(json[0]).isEqualTo((byte) '{');
+        assertThat(fromJson).usingRecursiveComparison().isEqualTo(update);
+        assertThat(InventoryEventCodec.isBinary(reEncoded)).isTrue();
+        assertThat(deserializer.deserialize(BINARY_TOPIC, reEncoded)).usingRecursiveComparison().isEqualTo(update);
+    }
+}
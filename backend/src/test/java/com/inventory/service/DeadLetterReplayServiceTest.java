@@ -0,0 +1,86 @@
+package com.inventory.service;
+
+import com.inventory.publisher.InventoryEventPublisher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class DeadLetterReplayServiceTest {
+
+    private static final String DLQ = InventoryEventPublisher.DLQ_TOPIC;
+
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private DeadLetterReplayService replayService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TopicPartition partition = new TopicPartition(DLQ, 0);
+        MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions(DLQ, List.of(new PartitionInfo(DLQ, 0, Node.noNode(), null, null)));
+        consumer.updateBeginningOffsets(Map.of(partition, 0L));
+        consumer.updateEndOffsets(Map.of(partition, 3L));
+        consumer.schedulePollTask(() -> {
+            for (long offset = 0; offset < 3; offset++) {
+                consumer.addRecord(dlqRecord(offset, offset == 1 ? "inventory.commands.transfer" : "inventory.commands.stock"));
+            }
+        });
+
+        kafkaTemplate = mock(KafkaTemplate.class);
+        replayService = spy(new DeadLetterReplayService());
+        ReflectionTestUtils.setField(replayService, "deadLetterKafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(replayService, "replayMaxRecords", 100);
+        doReturn(consumer).when(replayService).createConsumer();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedSendsAreReportedByOffsetAndTheRestCount() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, Object> record = invocation.getArgument(0);
+            return "key-1".equals(record.key())
+                    ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                    : CompletableFuture.completedFuture(new SendResult<>(record, null));
+        });
+
+        Map<String, Object> result = replayService.replay(0, 0, 3);
+
+        assertThat(result.get("replayed")).isEqualTo(2);
+        assertThat(result.get("failed")).isEqualTo(1);
+        assertThat(result.get("failedOffsets")).isEqualTo(List.of(1L));
+        assertThat(result.get("byTopic")).isEqualTo(Map.of("inventory.commands.stock", 2));
+        assertThat(result.get("lastOffset")).isEqualTo(2L);
+    }
+
+    private static ConsumerRecord<String, byte[]> dlqRecord(long offset, String originalTopic) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, originalTopic.getBytes(StandardCharsets.UTF_8));
+        return new ConsumerRecord<>(DLQ, 0, offset, 0L, TimestampType.CREATE_TIME, 0, 0,
+                "key-" + offset, "{}".getBytes(StandardCharsets.UTF_8), headers, Optional.empty());
+    }
+}
@@ -0,0 +1,75 @@
+package com.inventory.service;
+
+import com.inventory.event.InventoryChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryCacheInvalidatorTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private InventoryCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("inventory", "low-stock");
+        invalidator = new InventoryCacheInvalidator();
+        ReflectionTestUtils.setField(invalidator, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(invalidator, "defaultLowStockThresholds", List.of(5, 10, 20));
+        invalidator.init();
+
+        Cache inventory = cacheManager.getCache("inventory");
+        inventory.put("store:1", "s1");
+        inventory.put("store:2", "s2");
+        inventory.put("product:7", "p7");
+        inventory.put("product:8", "p8");
+        inventory.put("store:1:product:7", "s1p7");
+        inventory.put("store:2:product:7", "s2p7");
+
+        Cache lowStock = cacheManager.getCache("low-stock");
+        lowStock.put("threshold:5", "t5");
+        lowStock.put("threshold:10", "t10");
+        lowStock.put("threshold:20", "t20");
+    }
+
+    @Test
+    void shouldEvictOnlyKeysOfTheChangedRow() {
+        invalidator.onInventoryChanged(new InventoryChangedEvent(1L, 7L, 50, 45));
+
+        Cache inventory = cacheManager.getCache("inventory");
+        assertThat(inventory.get("store:1")).isNull();
+        assertThat(inventory.get("product:7")).isNull();
+        assertThat(inventory.get("store:1:product:7")).isNull();
+        assertThat(inventory.get("store:2")).isNotNull();
+        assertThat(inventory.get("product:8")).isNotNull();
+        assertThat(inventory.get("store:2:product:7")).isNotNull();
+    }
+
+    @Test
+    void shouldEvictOnlyLowStockThresholdsContainingTheRow() {
+        invalidator.onInventoryChanged(new InventoryChangedEvent(1L, 7L, 12, 8));
+
+        Cache lowStock = cacheManager.getCache("low-stock");
+        assertThat(lowStock.get("threshold:5")).isNotNull();
+        assertThat(lowStock.get("threshold:10")).isNull();
+        assertThat(lowStock.get("threshold:20")).isNull();
+    }
+
+    @Test
+    void shouldKeepLowStockListsWhenRowStaysAboveAllThresholds() {
+        invalidator.registerLowStockThreshold(30);
+        cacheManager.getCache("low-stock").put("threshold:30", "t30");
+
+        invalidator.onInventoryChanged(new InventoryChangedEvent(1L, 7L, 100, 90));
+
+        Cache lowStock = cacheManager.getCache("low-stock");
+        assertThat(lowStock.get("threshold:20")).isNotNull();
+        assertThat(lowStock.get("threshold:30")).isNotNull();
+    }
+}
@@ -0,0 +1,190 @@
+package com.inventory.service;
+
+import com.inventory.JpaSliceConfig;
+import com.inventory.dto.InventoryDTO;
+import com.inventory.event.InventoryAuditEvent;
+import com.inventory.event.InventoryChangedEvent;
+import com.inventory.event.InventoryUpdateEvent;
+import com.inventory.model.Inventory;
+import com.inventory.model.Product;
+import com.inventory.model.Store;
+import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.LedgerCheckpointRepository;
+import com.inventory.repository.ProcessedEventRepository;
+import com.inventory.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "inventory.ledger.enabled=true",
+        "inventory.ledger.shards=4",
+        "inventory.ledger.flush-interval=1h"
+})
+@ContextConfiguration(classes = JpaSliceConfig.class)
+@Import({InventoryLedger.class, ProcessedEventStore.class})
+class InventoryLedgerTest {
+
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProcessedEventStore processedEvents;
+
+    @MockBean
+    private InventoryEventPublisher eventPublisher;
+
+    private Long storeId;
+    private Long productId;
+    private Long inventoryId;
+
+    @BeforeEach
+    void setUp() {
+        Store store = entityManager.persist(new Store("Store", "Location"));
+        Product product = entityManager.persist(new Product("Product", "Description", "Category", new BigDecimal("10.00"), "SKU-1"));
+        inventoryId = entityManager.persist(new Inventory(store, product, 10)).getId();
+        entityManager.flush();
+        entityManager.clear();
+        storeId = store.getId();
+        productId = product.getId();
+    }
+
+    @Test
+    void appliedChangesAreServedFromMemoryAndFlushedWithTheirOffsets() {
+        ledger.apply(new InventoryUpdateEvent(storeId, productId, 5, "STOCK_IN"), 0, 41);
+        ledger.apply(new InventoryUpdateEvent(storeId, productId, 3, "STOCK_OUT"), 0, 42);
+        assertThatThrownBy(() -> ledger.apply(new InventoryUpdateEvent(storeId, productId, 50, "STOCK_OUT"), 0, 43))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        InventoryDTO live = ledger.read(storeId, productId).orElseThrow();
+        assertThat(live.getQuantity()).isEqualTo(12);
+        assertThat(live.getVersion()).isEqualTo(2L);
+        assertThat(entityManager.find(Inventory.class, inventoryId).getQuantity()).isEqualTo(10);
+        verify(eventPublisher, never()).enqueueInventoryAudit(any());
+
+        ledger.flush();
+        entityManager.flush();
+        entityManager.clear();
+
+        Inventory stored = entityManager.find(Inventory.class, inventoryId);
+        assertThat(stored.getQuantity()).isEqualTo(12);
+        assertThat(stored.getVersion()).isEqualTo(2L);
+        assertThat(transactionRepository.count()).isEqualTo(2);
+        // The rejected record at 43 is left to the listener's error handler
+        assertThat(ledger.checkpoints(InventoryLedger.TOPIC)).isEqualTo(Map.of(0, 42L));
+        assertThat(checkpointRepository.count()).isEqualTo(1);
+        assertThat(processedEventRepository.count()).isEqualTo(2);
+        ArgumentCaptor<InventoryAuditEvent> audit = ArgumentCaptor.forClass(InventoryAuditEvent.class);
+        verify(eventPublisher).enqueueInventoryAudit(audit.capture());
+        assertThat(audit.getValue().getOldValue()).isEqualTo(10);
+        assertThat(audit.getValue().getNewValue()).isEqualTo(12);
+    }
+
+    @Test
+    void versionedCommandsMustMatchTheLedgerVersion() {
+        ledger.apply(new InventoryUpdateEvent(storeId, productId, 1, "ADD"), 1, 0);
+
+        InventoryUpdateEvent stale = new InventoryUpdateEvent(storeId, productId, 1, "ADD");
+        stale.setVersion(0L);
+        assertThatThrownBy(() -> ledger.apply(stale, 1, 1)).hasMessageContaining("Expected version: 0");
+
+        InventoryUpdateEvent current = new InventoryUpdateEvent(storeId, productId, 1, "ADD");
+        current.setVersion(1L);
+        ledger.apply(current, 1, 2);
+        assertThat(ledger.read(storeId, productId).orElseThrow().getQuantity()).isEqualTo(12);
+    }
+
+    @Test
+    void directDecrementBetweenLedgerAppliesIsRevalidatedOnRebase() {
+        InventoryUpdateEvent first = new InventoryUpdateEvent(storeId, productId, 6, "STOCK_OUT");
+        ledger.apply(first, 0, 1);
+        // A stock-out that bypassed the ledger: 10 -> 5 in the table, and its commit marks the cell stale
+        assertThat(inventoryRepository.decrementIfAvailable(storeId, productId, 5)).isEqualTo(1);
+        ledger.onInventoryChanged(new InventoryChangedEvent(storeId, productId, 10, 5));
+        // Still checked against the cell (4 left), so it is accepted until the rebase
+        ledger.apply(new InventoryUpdateEvent(storeId, productId, 4, "STOCK_OUT"), 0, 2);
+
+        ledger.flush();
+
+        // Replayed on the stored 5: the first command no longer fits and is dropped, the second does
+        assertThat(storedQuantity()).isEqualTo(1);
+        assertThat(ledger.read(storeId, productId).orElseThrow().getQuantity()).isEqualTo(1);
+        assertThat(transactionRepository.findAll()).extracting(t -> t.getQuantity()).containsExactly(4);
+        assertThat(ledger.checkpoints(InventoryLedger.TOPIC)).isEqualTo(Map.of(0, 2L));
+        // The dropped command is dead-lettered and may be applied again when replayed from there
+        verify(eventPublisher).publishDeadLetter(eq(InventoryLedger.TOPIC), eq(first.partitionKey()), same(first),
+                any(IllegalArgumentException.class));
+        assertThat(processedEvents.isRecentlyProcessed(first.getEventId())).isFalse();
+        assertThat(processedEventRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void flushUpdateRefusesADeltaThatWouldOversellTheRow() {
+        ledger.apply(new InventoryUpdateEvent(storeId, productId, 6, "STOCK_OUT"), 0, 1);
+        // Committed elsewhere and not announced to this ledger yet
+        assertThat(inventoryRepository.decrementIfAvailable(storeId, productId, 5)).isEqualTo(1);
+        ledger.apply(new InventoryUpdateEvent(storeId, productId, 4, "STOCK_OUT"), 0, 2);
+
+        ledger.flush();
+
+        assertThat(storedQuantity()).isEqualTo(1);
+        assertThat(ledger.read(storeId, productId).orElseThrow().getQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void directWritesOnAHeldRowAreCheckedAgainstTheCellAndNotFlushedTwice() {
+        ledger.apply(new InventoryUpdateEvent(storeId, productId, 6, "STOCK_OUT"), 0, 1);
+
+        // The table still says 10, but the ledger has already given away 6 of them
+        assertThatThrownBy(() -> ledger.applyDirect(storeId, productId, -5, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Available: 4");
+        assertThat(ledger.applyDirect(storeId, productId, -3, 0)).isTrue();
+        assertThat(inventoryRepository.decrementIfAvailable(storeId, productId, 3)).isEqualTo(1);
+
+        ledger.flush();
+
+        assertThat(storedQuantity()).isEqualTo(1);
+        assertThat(ledger.read(storeId, productId).orElseThrow().getQuantity()).isEqualTo(1);
+    }
+
+    private int storedQuantity() {
+        entityManager.flush();
+        entityManager.clear();
+        return entityManager.find(Inventory.class, inventoryId).getQuantity();
+    }
+}
@@ -0,0 +1,274 @@
+package com.inventory.service;
+
+import com.inventory.JpaSliceConfig;
+import com.inventory.dto.InventoryDTO;
+import com.inventory.dto.InventoryFilter;
+import com.inventory.dto.InventoryPageDTO;
+import com.inventory.dto.InventoryUpdateRequest;
+import com.inventory.model.Inventory;
+import com.inventory.model.Product;
+import com.inventory.model.Store;
+import com.inventory.publisher.InventoryEventPublisher;
+import com.inventory.saga.InventoryTransferSaga;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+// Every InventoryService read builds its DTOs from one statement, however many rows it returns;
+// inventory pages add one COUNT for the first page of a filter
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ContextConfiguration(classes = JpaSliceConfig.class)
+@Import({InventoryService.class, InventoryReadQueryCountTest.Beans.class})
+class InventoryReadQueryCountTest {
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Beans {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private InventoryEventPublisher eventPublisher;
+
+    @MockBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private InventoryCacheInvalidator cacheInvalidator;
+
+    @MockBean
+    private InventoryLedger inventoryLedger;
+
+    @MockBean
+    private LowStockIndex lowStockIndex;
+
+    @MockBean
+    private InventoryTransferSaga transferSaga;
+
+    private final List<Store> stores = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private final List<Inventory> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int s = 0; s < 3; s++) {
+            stores.add(entityManager.persist(new Store("Store " + s, "Location " + s)));
+        }
+        for (int p = 0; p < 4; p++) {
+            products.add(entityManager.persist(new Product("Product " + p, "Description", "Category " + p,
+                    new BigDecimal("10.00"), "SKU-" + p)));
+        }
+        for (Store store : stores) {
+            for (Product product : products) {
+                rows.add(entityManager.persist(new Inventory(store, product, rows.size() + 1)));
+            }
+        }
+        entityManager.flush();
+        cacheManager.getCache("inventory-count").clear();
+    }
+
+    @Test
+    void listReadsRunOneStatement() {
+        Store store = stores.get(1);
+        Product product = products.get(2);
+
+        List<InventoryDTO> byStore = assertStatements(1, () -> inventoryService.getInventoryByStore(store.getId()));
+        List<InventoryDTO> byProduct = assertStatements(1, () -> inventoryService.getInventoryByProduct(product.getId()));
+        InventoryDTO single = assertStatements(1,
+                () -> inventoryService.getInventoryByStoreAndProduct(store.getId(), product.getId())).orElseThrow();
+
+        assertThat(byStore).hasSize(4).allMatch(dto -> "Store 1".equals(dto.getStoreName()));
+        assertThat(byProduct).hasSize(3).allMatch(dto -> "SKU-2".equals(dto.getProductSku()));
+        assertThat(single.getStoreLocation()).isEqualTo("Location 1");
+        assertThat(single.getProductName()).isEqualTo("Product 2");
+        assertThat(single.getProductCategory()).isEqualTo("Category 2");
+        assertThat(single.getQuantity()).isEqualTo(7);
+        assertThat(single.getAvailableQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    void pagesRunOneStatementOnceTheTotalIsKnown() {
+        InventoryFilter all = new InventoryFilter();
+
+        InventoryPageDTO first = assertStatements(2, () -> inventoryService.getInventoryPage(all, "id", null, 5));
+        InventoryPageDTO second = assertStatements(1,
+                () -> inventoryService.getInventoryPage(all, "id", first.getNextPageToken(), 5));
+        InventoryPageDTO last = assertStatements(1,
+                () -> inventoryService.getInventoryPage(all, "id", second.getNextPageToken(), 5));
+        InventoryPageDTO again = assertStatements(1, () -> inventoryService.getInventoryPage(all, "id", null, 5));
+
+        assertThat(first.getItems()).extracting(InventoryDTO::getQuantity).containsExactly(1, 2, 3, 4, 5);
+        assertThat(second.getItems()).extracting(InventoryDTO::getQuantity).containsExactly(6, 7, 8, 9, 10);
+        assertThat(last.getItems()).extracting(InventoryDTO::getQuantity).containsExactly(11, 12);
+        assertThat(last.isHasMore()).isFalse();
+        assertThat(last.getNextPageToken()).isNull();
+        assertThat(List.of(first, second, last, again)).allMatch(page -> page.getTotalEstimate() == 12);
+    }
+
+    @Test
+    void filtersAndSortAreAppliedByTheDatabase() {
+        // SKU descending; rows sharing a SKU continue by id across the page boundary
+        InventoryFilter range = new InventoryFilter(null, null, "SKU-", 3, 10, false);
+        List<Integer> quantities = new ArrayList<>();
+        String token = null;
+        long total;
+        do {
+            InventoryPageDTO page = inventoryService.getInventoryPage(range, "productSku,desc", token, 3);
+            page.getItems().forEach(dto -> quantities.add(dto.getQuantity()));
+            token = page.getNextPageToken();
+            total = page.getTotalEstimate();
+        } while (token != null);
+
+        Inventory reserved = rows.get(9);
+        reserved.reserve(reserved.getQuantity());
+        entityManager.flush();
+        InventoryPageDTO byStore = inventoryService.getInventoryPage(
+                new InventoryFilter(stores.get(2).getId(), null, null, null, null, true), "quantity,desc", null, 10);
+        InventoryPageDTO category = inventoryService.getInventoryPage(
+                new InventoryFilter(null, "Category 1", null, null, null, false), "storeName", null, 10);
+        InventoryPageDTO literalUnderscore = inventoryService.getInventoryPage(
+                new InventoryFilter(null, null, "SKU_", null, null, false), "id", null, 10);
+
+        assertThat(quantities).containsExactly(8, 4, 7, 3, 10, 6, 9, 5);
+        assertThat(total).isEqualTo(8);
+        assertThat(byStore.getItems()).extracting(InventoryDTO::getQuantity).containsExactly(12, 11, 9);
+        assertThat(category.getItems()).extracting(InventoryDTO::getStoreName).containsExactly("Store 0", "Store 1", "Store 2");
+        assertThat(literalUnderscore.getItems()).isEmpty();
+    }
+
+    @Test
+    void searchMatchesProductNameSkuOrStoreName() {
+        InventoryFilter byProduct = new InventoryFilter();
+        byProduct.setSearch("product 3");
+        InventoryFilter byStore = new InventoryFilter(null, "Category 0", null, null, null, false);
+        byStore.setSearch(" STORE 1 ");
+        InventoryFilter blank = new InventoryFilter();
+        blank.setSearch("  ");
+
+        InventoryPageDTO product = inventoryService.getInventoryPage(byProduct, "id", null, 2);
+        InventoryPageDTO store = inventoryService.getInventoryPage(byStore, "id", null, 10);
+
+        // More matches than the page holds: the total is counted with the same joins as the page
+        assertThat(product.getItems()).extracting(InventoryDTO::getProductSku).containsExactly("SKU-3", "SKU-3");
+        assertThat(product.getTotalEstimate()).isEqualTo(3);
+        assertThat(store.getItems()).extracting(InventoryDTO::getQuantity).containsExactly(5);
+        assertThat(store.getTotalEstimate()).isEqualTo(1);
+        assertThat(blank.getSearch()).isNull();
+    }
+
+    @Test
+    void pageTokensOnlyContinueTheSortTheyWereIssuedFor() {
+        String token = inventoryService.getInventoryPage(new InventoryFilter(), "quantity", null, 2).getNextPageToken();
+
+        assertThatThrownBy(() -> inventoryService.getInventoryPage(new InventoryFilter(), "id", token, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> inventoryService.getInventoryPage(new InventoryFilter(), "quantity", "not-a-token", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> inventoryService.getInventoryPage(new InventoryFilter(), "price", null, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(inventoryService.getInventoryPage(new InventoryFilter(), "quantity", token, 2).getItems())
+                .extracting(InventoryDTO::getQuantity).containsExactly(3, 4);
+    }
+
+    @Test
+    void lowStockReadsRunOneStatementWithAndWithoutTheIndex() {
+        when(lowStockIndex.getDefaultThreshold()).thenReturn(10);
+        List<InventoryDTO> scanned = assertStatements(1, () -> inventoryService.getLowStockItems(4));
+        List<InventoryDTO> ownThreshold = assertStatements(1, () -> inventoryService.getLowStockItems(null));
+
+        when(lowStockIndex.isReady()).thenReturn(true);
+        when(lowStockIndex.below(4)).thenReturn(List.of(rows.get(2).getId(), rows.get(1).getId(), rows.get(0).getId()));
+        List<InventoryDTO> indexed = assertStatements(1, () -> inventoryService.getLowStockItems(4));
+
+        assertThat(scanned).extracting(InventoryDTO::getQuantity).containsExactly(1, 2, 3);
+        assertThat(ownThreshold).extracting(InventoryDTO::getQuantity).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(indexed).extracting(InventoryDTO::getQuantity).containsExactly(3, 2, 1);
+        assertThat(indexed).allMatch(dto -> dto.getStoreName() != null && dto.getProductSku() != null);
+    }
+
+    @Test
+    void lowStockIndexIdsAreReadInChunksKeepingIndexOrder() {
+        InventoryService target = AopTestUtils.getTargetObject(inventoryService);
+        ReflectionTestUtils.setField(target, "lowStockLookupChunkSize", 2);
+        try {
+            when(lowStockIndex.isReady()).thenReturn(true);
+            when(lowStockIndex.below(4)).thenReturn(List.of(rows.get(2).getId(), rows.get(0).getId(), rows.get(1).getId()));
+
+            List<InventoryDTO> indexed = assertStatements(2, () -> inventoryService.getLowStockItems(4));
+
+            assertThat(indexed).extracting(InventoryDTO::getQuantity).containsExactly(3, 1, 2);
+        } finally {
+            ReflectionTestUtils.setField(target, "lowStockLookupChunkSize", 1000);
+        }
+    }
+
+    @Test
+    void directUpdateLoadsTheRowWithItsStoreAndProduct() {
+        Inventory row = rows.get(5);
+        InventoryUpdateRequest request = new InventoryUpdateRequest();
+        request.setStoreId(row.getStore().getId());
+        request.setProductId(row.getProduct().getId());
+        request.setQuantityAdjustment(4);
+
+        InventoryDTO updated = assertStatements(1, () -> inventoryService.updateInventoryDirect(request));
+
+        assertThat(updated.getQuantity()).isEqualTo(10);
+        assertThat(updated.getStoreName()).isEqualTo("Store 1");
+        assertThat(updated.getProductSku()).isEqualTo("SKU-1");
+    }
+
+    // Runs the call against an empty persistence context and checks the JDBC statements it prepared
+    private <T> T assertStatements(long expected, Supplier<T> call) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = call.get();
+        assertThat(statistics.getPrepareStatementCount()).as("statements prepared").isEqualTo(expected);
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package com.inventory.service;
+
+import com.inventory.dto.InventoryDeltaDTO;
+import com.inventory.event.InventoryChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class InventoryUpdateBroadcasterTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryUpdateBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new InventoryUpdateBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(broadcaster, "meterRegistry", meterRegistry);
+        // Long window so only the explicit flush() calls below send frames
+        ReflectionTestUtils.setField(broadcaster, "coalesceWindow", Duration.ofHours(1));
+        ReflectionTestUtils.setField(broadcaster, "maxPending", 2);
+        broadcaster.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void coalescesChangesToTheSameRowIntoOneDelta() {
+        broadcaster.onInventoryChanged(new InventoryChangedEvent(1L, 7L, 10, 8));
+        broadcaster.onInventoryChanged(new InventoryChangedEvent(1L, 7L, 8, 5));
+        broadcaster.onInventoryChanged(new InventoryChangedEvent(1L, 7L, 5, 6));
+        broadcaster.flush();
+
+        ArgumentCaptor<InventoryDeltaDTO> frame = ArgumentCaptor.forClass(InventoryDeltaDTO.class);
+        verify(messagingTemplate, times(1)).convertAndSend(eq(InventoryUpdateBroadcaster.DESTINATION), frame.capture());
+        assertThat(frame.getValue().getOldQuantity()).isEqualTo(10);
+        assertThat(frame.getValue().getQuantity()).isEqualTo(6);
+        assertThat(frame.getValue().getDelta()).isEqualTo(-4);
+        assertThat(frame.getValue().getChanges()).isEqualTo(3);
+        assertThat(count("sent")).isEqualTo(1);
+        assertThat(count("merged")).isEqualTo(2);
+    }
+
+    @Test
+    void skipsNetZeroChangesAndDropsRowsBeyondMaxPending() {
+        broadcaster.onInventoryChanged(new InventoryChangedEvent(1L, 7L, 10, 10));
+        broadcaster.onInventoryChanged(new InventoryChangedEvent(1L, 8L, 10, 12));
+        broadcaster.onInventoryChanged(new InventoryChangedEvent(1L, 8L, 12, 10));
+        broadcaster.flush();
+        verifyNoInteractions(messagingTemplate);
+
+        for (InventoryChangedEvent change : List.of(
+                new InventoryChangedEvent(2L, 7L, 1, 2),
+                new InventoryChangedEvent(3L, 7L, 1, 2),
+                new InventoryChangedEvent(4L, 7L, 1, 2))) {
+            broadcaster.onInventoryChanged(change);
+        }
+        broadcaster.flush();
+        verify(messagingTemplate, times(2)).convertAndSend(eq(InventoryUpdateBroadcaster.DESTINATION), any(InventoryDeltaDTO.class));
+        assertThat(count("dropped")).isEqualTo(1);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("inventory.websocket.frames", "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,135 @@
+package com.inventory.service;
+
+import com.inventory.JpaSliceConfig;
+import com.inventory.event.InventoryChangedEvent;
+import com.inventory.model.Inventory;
+import com.inventory.model.Product;
+import com.inventory.model.Store;
+import com.inventory.repository.InventoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StoreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+// Not wrapped in a test transaction: the index loads committed rows and applies threshold changes after commit
+@DataJpaTest(properties = {"spring.jpa.show-sql=false", "inventory.low-stock.default-threshold=10"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = JpaSliceConfig.class)
+@Import(LowStockIndex.class)
+class LowStockIndexTest {
+
+    @Autowired
+    private LowStockIndex index;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    private Store storeA;
+    private Store storeB;
+    private Product bolts;
+    private Product screws;
+    private Inventory boltsAtA;
+    private Inventory screwsAtA;
+    private Inventory boltsAtB;
+
+    @BeforeEach
+    void setUp() {
+        storeA = storeRepository.save(new Store("Store A", "Location A"));
+        storeB = storeRepository.save(new Store("Store B", "Location B"));
+        bolts = productRepository.save(new Product("Bolts", "Description", "Hardware", new BigDecimal("1.00"), "SKU-BOLT"));
+        Product product = new Product("Screws", "Description", "Hardware", new BigDecimal("1.00"), "SKU-SCREW");
+        product.setLowStockThreshold(3);
+        screws = productRepository.save(product);
+
+        boltsAtA = inventoryRepository.save(new Inventory(storeA, bolts, 25));
+        screwsAtA = inventoryRepository.save(new Inventory(storeA, screws, 5));
+        boltsAtB = inventoryRepository.save(new Inventory(storeB, bolts, 4));
+        index.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryRepository.deleteAll();
+        productRepository.deleteAll();
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void queriesFollowCommittedChangesAndNotifyOnCrossing() {
+        assertThat(index.below(10)).containsExactly(boltsAtB.getId(), screwsAtA.getId());
+        assertThat(index.belowOwnThreshold()).containsExactly(boltsAtB.getId());
+
+        index.onInventoryChanged(new InventoryChangedEvent(storeA.getId(), bolts.getId(), 25, 8));
+        // Reservation-only change: quantity unchanged, no crossing
+        index.onInventoryChanged(new InventoryChangedEvent(storeA.getId(), screws.getId(), 5, 5));
+
+        assertThat(index.below(10)).containsExactly(boltsAtB.getId(), screwsAtA.getId(), boltsAtA.getId());
+        assertThat(index.belowOwnThreshold()).containsExactly(boltsAtB.getId(), boltsAtA.getId());
+        verify(notificationService).notifyStockLow(storeA.getId(), bolts.getId(), 8, 10);
+        verifyNoMoreInteractions(notificationService);
+
+        index.onInventoryChanged(new InventoryChangedEvent(storeA.getId(), screws.getId(), 5, 2));
+
+        assertThat(index.belowOwnThreshold()).containsExactly(boltsAtB.getId(), boltsAtA.getId(), screwsAtA.getId());
+        verify(notificationService).notifyStockLow(storeA.getId(), screws.getId(), 2, 3);
+    }
+
+    @Test
+    void newRowsAndThresholdChangesAreIndexedAfterCommit() {
+        Inventory screwsAtB = inventoryRepository.save(new Inventory(storeB, screws, 1));
+        index.onInventoryChanged(new InventoryChangedEvent(storeB.getId(), screws.getId(), 0, 1));
+
+        assertThat(index.below(2)).containsExactly(screwsAtB.getId());
+        verify(notificationService, never()).notifyStockLow(anyLong(), anyLong(), anyInt(), anyInt());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            index.productThresholdChanged(bolts.getId(), 2);
+            assertThat(index.belowOwnThreshold()).containsExactly(boltsAtB.getId(), screwsAtB.getId());
+        });
+
+        assertThat(index.belowOwnThreshold()).containsExactly(screwsAtB.getId());
+    }
+
+    @Test
+    void resyncPicksUpWritesTheIndexDidNotSee() {
+        Inventory stored = inventoryRepository.findById(boltsAtA.getId()).orElseThrow();
+        stored.setQuantity(1);
+        inventoryRepository.save(stored);
+        inventoryRepository.deleteById(boltsAtB.getId());
+
+        index.resync();
+
+        assertThat(index.below(10)).containsExactly(boltsAtA.getId(), screwsAtA.getId());
+    }
+}
@@ -0,0 +1,64 @@
+package com.inventory.service;
+
+import com.inventory.JpaSliceConfig;
+import com.inventory.model.ProcessedEvent;
+import com.inventory.repository.ProcessedEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {"spring.jpa.show-sql=false", "inventory.idempotency.retention=1d"})
+@ContextConfiguration(classes = JpaSliceConfig.class)
+@Import(ProcessedEventStore.class)
+class ProcessedEventStoreTest {
+
+    @Autowired
+    private ProcessedEventStore processedEvents;
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @Test
+    void markedEventsAreDuplicatesAndOthersAreNot() {
+        processedEvents.markProcessed(List.of("event-1", "event-2"));
+
+        assertThat(processedEvents.isDuplicate("event-1")).isTrue();
+        assertThat(processedEvents.isDuplicate("event-2")).isTrue();
+        assertThat(processedEvents.isDuplicate("event-3")).isFalse();
+        assertThat(processedEvents.isDuplicate(null)).isFalse();
+    }
+
+    @Test
+    void duplicatesOfAPollAreFoundInTheCacheOrTheTable() {
+        processedEvents.markProcessed(List.of("cached"));
+        processedEventRepository.save(new ProcessedEvent("stored", LocalDateTime.now()));
+        processedEventRepository.flush();
+
+        assertThat(processedEvents.findDuplicates(Arrays.asList("cached", "stored", "fresh", null)))
+                .containsExactlyInAnyOrder("cached", "stored");
+        // The table hit is cached from now on; ids that were never remembered are not recent
+        assertThat(processedEvents.isRecentlyProcessed("stored")).isTrue();
+        assertThat(processedEvents.isRecentlyProcessed("fresh")).isFalse();
+        assertThat(processedEvents.findDuplicates(List.of())).isEmpty();
+    }
+
+    @Test
+    void compactionRemovesIdsOlderThanTheRetention() {
+        processedEventRepository.save(new ProcessedEvent("old", LocalDateTime.now().minusDays(2)));
+        processedEventRepository.save(new ProcessedEvent("new", LocalDateTime.now()));
+        processedEventRepository.flush();
+
+        processedEvents.compact();
+
+        assertThat(processedEventRepository.existsById("old")).isFalse();
+        assertThat(processedEventRepository.existsById("new")).isTrue();
+    }
+}
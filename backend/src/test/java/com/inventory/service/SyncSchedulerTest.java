@@ -0,0 +1,103 @@
+package com.inventory.service;
+
+import com.inventory.model.Store;
+import com.inventory.model.SyncEvent;
+import com.inventory.repository.SyncEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncSchedulerTest {
+
+    private SyncEventRepository syncEventRepository;
+    private StoreService storeService;
+    private SyncScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        syncEventRepository = mock(SyncEventRepository.class);
+        storeService = mock(StoreService.class);
+        AtomicLong ids = new AtomicLong();
+        when(syncEventRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<SyncEvent> events = invocation.getArgument(0);
+            events.forEach(event -> event.setId(ids.incrementAndGet()));
+            return events;
+        });
+        when(syncEventRepository.save(any(SyncEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        scheduler = new SyncScheduler();
+        ReflectionTestUtils.setField(scheduler, "syncEventRepository", syncEventRepository);
+        ReflectionTestUtils.setField(scheduler, "storeService", storeService);
+        ReflectionTestUtils.setField(scheduler, "messagingTemplate", mock(SimpMessagingTemplate.class));
+        ReflectionTestUtils.setField(scheduler, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(scheduler, "maxConcurrency", 8);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void storeWithSyncInFlightIsNotQueuedTwice() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(storeService.updateSyncStatus(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        CountDownLatch done = new CountDownLatch(1);
+
+        assertThat(scheduler.submit(List.of(store(1L)), done::countDown)).isEqualTo(1);
+        assertThat(scheduler.submit(List.of(store(1L), store(2L)), () -> {})).isEqualTo(1);
+
+        release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(storeService, times(1)).updateSyncStatus(1L);
+    }
+
+    @Test
+    void globalSyncRunsStoresInParallelAndTracksCompletion() throws Exception {
+        List<Store> stores = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            stores.add(store(id));
+        }
+        when(storeService.updateSyncStatus(any())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return null;
+        });
+        CountDownLatch done = new CountDownLatch(1);
+
+        long started = System.nanoTime();
+        assertThat(scheduler.submit(stores, done::countDown)).isEqualTo(500);
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // 500 x 20ms serially would be 10s; eight workers need about 1.25s
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(5000);
+        assertThat(scheduler.getInFlightCount()).isZero();
+        verify(syncEventRepository, times(1000)).save(any(SyncEvent.class)); // PROCESSING + COMPLETED per store
+    }
+
+    private static Store store(Long id) {
+        Store store = new Store();
+        store.setId(id);
+        return store;
+    }
+}
@@ -0,0 +1,134 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.JpaSliceConfig;
+import com.inventory.dto.TransactionDTO;
+import com.inventory.dto.TransactionFilter;
+import com.inventory.dto.TransactionPageDTO;
+import com.inventory.model.Product;
+import com.inventory.model.Store;
+import com.inventory.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ContextConfiguration(classes = JpaSliceConfig.class)
+@Import({TransactionService.class, TransactionPaginationTest.Beans.class})
+class TransactionPaginationTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Beans {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Store storeA;
+    private Store storeB;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        storeA = entityManager.persist(new Store("Store A", "Location A"));
+        storeB = entityManager.persist(new Store("Store B", "Location B"));
+        Product product = entityManager.persist(new Product("Bolts", "Description", "Hardware",
+                new BigDecimal("1.00"), "SKU-BOLT"));
+
+        // Five rows share T0, so pages have to break ties on id; the later rows are older the higher
+        // their id. The timestamp is a creation timestamp, so it is backdated with an UPDATE.
+        for (int i = 0; i < 9; i++) {
+            Transaction transaction = entityManager.persist(new Transaction(i % 2 == 0 ? storeA : storeB, product,
+                    Transaction.TransactionType.STOCK_IN, i + 1));
+            entityManager.flush();
+            entityManager.getEntityManager()
+                    .createNativeQuery("UPDATE transactions SET timestamp = ? WHERE id = ?")
+                    .setParameter(1, i < 5 ? T0 : T0.plusMinutes(9 - i))
+                    .setParameter(2, transaction.getId())
+                    .executeUpdate();
+            ids.add(transaction.getId());
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesWalkNewestFirstAndBreakTimestampTiesById() {
+        List<Long> walked = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionPageDTO page = transactionService.getTransactions(new TransactionFilter(), cursor, 2);
+            page.getItems().forEach(dto -> walked.add(dto.getId()));
+            pageSizes.add(page.getItems().size());
+            assertThat(page.isHasMore()).isEqualTo(page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Rows 5..8 by timestamp, then the five T0 rows by id descending, each exactly once
+        assertThat(walked).containsExactly(ids.get(5), ids.get(6), ids.get(7), ids.get(8),
+                ids.get(4), ids.get(3), ids.get(2), ids.get(1), ids.get(0));
+        assertThat(pageSizes).containsExactly(2, 2, 2, 2, 1);
+    }
+
+    @Test
+    void cursorEncodesTheLastRowAndKeepsTheFilter() {
+        TransactionFilter storeFilter = new TransactionFilter(storeA.getId(), null, null, null, null, null);
+        TransactionPageDTO first = transactionService.getTransactions(storeFilter, null, 3);
+        TransactionDTO last = first.getItems().get(2);
+
+        String raw = new String(Base64.getUrlDecoder().decode(first.getNextCursor()), StandardCharsets.UTF_8);
+        TransactionPageDTO second = transactionService.getTransactions(storeFilter, first.getNextCursor(), 3);
+
+        assertThat(raw).isEqualTo(T0 + "|" + last.getId());
+        assertThat(first.getItems()).extracting(TransactionDTO::getId)
+                .containsExactly(ids.get(6), ids.get(8), ids.get(4));
+        assertThat(second.getItems()).extracting(TransactionDTO::getId).containsExactly(ids.get(2), ids.get(0));
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void invalidCursorsAreRejected() {
+        String notBase64 = "%%%";
+        String wrongShape = encode("2024-03-01T10:00");
+        String badTimestamp = encode("yesterday|12");
+        String badId = encode("2024-03-01T10:00|twelve");
+
+        for (String cursor : List.of(notBase64, wrongShape, badTimestamp, badId)) {
+            assertThatThrownBy(() -> transactionService.getTransactions(new TransactionFilter(), cursor, 2))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("Invalid cursor");
+        }
+        assertThat(transactionService.getTransactions(new TransactionFilter(), "", 2).getItems()).hasSize(2);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -483,6 +483,17 @@ class BackendTester:
         except Exception as e:
             self.log_result("Stock Out Operations", False, f"Error: {str(e)}")
 
+    def collect_transaction_pages(self, url, page, max_pages=20):
+        """Follow nextCursor from a transaction page and return the items of all pages"""
+        transactions = list(page['items'])
+        while page.get('nextCursor') and max_pages > 1:
+            response = self.session.get(url, params={'cursor': page['nextCursor']})
+            response.raise_for_status()
+            page = response.json()
+            transactions.extend(page['items'])
+            max_pages -= 1
+        return transactions
+
     def test_transaction_tracking(self):
         """Test transaction tracking and audit trail functionality"""
         try:
@@ -490,7 +501,8 @@ class BackendTester:
             response = self.session.get(f"{BACKEND_URL.replace('/api', '')}/api/transactions")
             
             if response.status_code == 200:
-                transactions = response.json()
+                transactions = self.collect_transaction_pages(
+                    f"{BACKEND_URL.replace('/api', '')}/api/transactions", response.json())
                 self.log_result("Transaction Tracking - Get All", True, 
                               f"Retrieved {len(transactions)} transactions")
                 
@@ -520,9 +532,10 @@ class BackendTester:
                 response = self.session.get(f"{BACKEND_URL.replace('/api', '')}/api/transactions/type/{transaction_type}")
                 
                 if response.status_code == 200:
-                    transactions = response.json()
+                    page = response.json()
                     self.log_result(f"Transaction Tracking - {transaction_type} Filter", True, 
-                                  f"Retrieved {len(transactions)} {transaction_type} transactions")
+                                  f"Retrieved {len(page['items'])} {transaction_type} transactions "
+                                  f"(first page, hasMore={page['hasMore']})")
                 else:
                     self.log_result(f"Transaction Tracking - {transaction_type} Filter", False, 
                                   f"HTTP {response.status_code}")
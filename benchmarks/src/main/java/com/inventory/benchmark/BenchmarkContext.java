@@ -0,0 +1,62 @@
+package com.inventory.benchmark;
+
+import com.inventory.consumer.InventoryUpdateBatchProcessor;
+import com.inventory.service.ProcessedEventStore;
+import com.inventory.service.ProductService;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+// Minimal Spring context for the database-backed benchmarks: JPA + H2 in-memory and only the
+// beans under test. Kafka, Redis, caching and the web layer are left out on purpose so the
+// numbers measure our code and the database, not brokers or cache hits.
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+        KafkaAutoConfiguration.class,
+        RedisAutoConfiguration.class,
+        RedisRepositoriesAutoConfiguration.class
+})
+@EntityScan("com.inventory.model")
+@EnableJpaRepositories("com.inventory.repository")
+@Import({ProductService.class, InventoryUpdateBatchProcessor.class, ProcessedEventStore.class})
+public class BenchmarkContext {
+
+    public static ConfigurableApplicationContext start() {
+        // Command-line style arguments outrank the backend's application.yml on the classpath
+        return new SpringApplicationBuilder(BenchmarkContext.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.inventory=WARN"
+                );
+    }
+
+    // Seeds stores x products inventory rows through SQL so setup stays fast at any size
+    public static void seed(ConfigurableApplicationContext context, int stores, int products) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO stores (id, name, location, status, created_at) " +
+                "SELECT X, 'Bench Store ' || X, 'Bench Location', 'ACTIVE', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + stores + ")");
+        jdbcTemplate.update("INSERT INTO products (id, name, category, price, sku, created_at) " +
+                "SELECT X, 'Bench Product ' || X, 'Category ' || MOD(X, 10), 10.00, 'BENCH-' || X, CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, " + products + ")");
+        jdbcTemplate.update("INSERT INTO inventory (id, store_id, product_id, quantity, reserved_quantity, version) " +
+                "SELECT X, MOD(X - 1, " + stores + ") + 1, (X - 1) / " + stores + " + 1, 100000, 0, 0 " +
+                "FROM SYSTEM_RANGE(1, " + ((long) stores * products) + ")");
+    }
+}
@@ -0,0 +1,77 @@
+package com.inventory.benchmark;
+
+import com.inventory.consumer.InventoryUpdateBatchProcessor;
+import com.inventory.event.InventoryUpdateEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Consumer apply path for inventory.commands.stock: load rows, apply operations, write
+// transactions and commit, against H2. batchSize 1 is the per-record cost.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsumerApplyBenchmark {
+
+    private static final int STORES = 20;
+    private static final int PRODUCTS = 500;
+    private static final String[] OPERATIONS = {"STOCK_IN", "STOCK_OUT", "ADD", "SUBTRACT"};
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private InventoryUpdateBatchProcessor batchProcessor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, STORES, PRODUCTS);
+        batchProcessor = context.getBean(InventoryUpdateBatchProcessor.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<InventoryUpdateBatchProcessor.AppliedUpdate> applyBatch() {
+        return batchProcessor.applyBatch(events());
+    }
+
+    private List<InventoryUpdateEvent> events() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<InventoryUpdateEvent> events = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            // Small changes against a 100k starting quantity never drive a row negative
+            InventoryUpdateEvent event = new InventoryUpdateEvent(
+                    (long) random.nextInt(1, STORES + 1),
+                    (long) random.nextInt(1, PRODUCTS + 1),
+                    random.nextInt(1, 5),
+                    OPERATIONS[random.nextInt(OPERATIONS.length)]);
+            event.setReferenceId("BENCH");
+            events.add(event);
+        }
+        return events;
+    }
+}
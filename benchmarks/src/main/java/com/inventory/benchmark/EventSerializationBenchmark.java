@@ -0,0 +1,100 @@
+package com.inventory.benchmark;
+
+import com.inventory.event.InventoryAuditEvent;
+import com.inventory.event.InventoryEvent;
+import com.inventory.event.InventorySyncEvent;
+import com.inventory.event.InventoryTransferEvent;
+import com.inventory.event.InventoryUpdateEvent;
+import com.inventory.serialization.InventoryEventDeserializer;
+import com.inventory.serialization.InventoryEventSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Kafka value (de)serialization of the InventoryEvent hierarchy, configured like KafkaConfig, in both
+// wire formats: json (the default) and binary (topics in inventory.kafka.serialization.binary-topics).
+// Scores are ns per event; the tear-down line reports the serialized size of the event.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    private static final String TOPIC = "inventory.events";
+
+    @Param({"INVENTORY_UPDATE", "INVENTORY_TRANSFER", "INVENTORY_SYNC", "INVENTORY_AUDIT"})
+    public String eventType;
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private InventoryEventSerializer serializer;
+    private InventoryEventDeserializer deserializer;
+    private InventoryEvent event;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        serializer = new InventoryEventSerializer("binary".equals(format) ? List.of(TOPIC) : List.of());
+        deserializer = new InventoryEventDeserializer();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false,
+                JsonDeserializer.VALUE_DEFAULT_TYPE, InventoryEvent.class.getName()), false);
+
+        event = sampleEvent(eventType);
+        payload = serializer.serialize(TOPIC, event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n[%s %s] %d bytes/event%n", eventType, format, payload.length);
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.deserialize(TOPIC, payload);
+    }
+
+    private static InventoryEvent sampleEvent(String eventType) {
+        switch (eventType) {
+            case "INVENTORY_UPDATE": {
+                InventoryUpdateEvent update = new InventoryUpdateEvent(1L, 42L, 5, "STOCK_IN");
+                update.setReferenceId("PO-2024-0001");
+                update.setNotes("Weekly replenishment");
+                return update;
+            }
+            case "INVENTORY_TRANSFER":
+                return new InventoryTransferEvent(1L, 2L, 42L, 5, "STORE_TO_STORE");
+            case "INVENTORY_SYNC":
+                return new InventorySyncEvent("FULL", 1L);
+            case "INVENTORY_AUDIT":
+                return new InventoryAuditEvent("UPDATE", 1L, 42L, 95, 100);
+            default:
+                throw new IllegalArgumentException("Unknown event type: " + eventType);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.inventory.benchmark;
+
+import com.inventory.dto.InventoryDTO;
+import com.inventory.model.Inventory;
+import com.inventory.model.Product;
+import com.inventory.model.Store;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Entity arithmetic and entity -> DTO mapping, no database involved
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryModelBenchmark {
+
+    private Inventory inventory;
+
+    @Setup
+    public void setUp() {
+        Store store = new Store("Bench Store", "Bench Location");
+        store.setId(1L);
+        Product product = new Product("Bench Product", "Benchmark product", "Bench", new BigDecimal("10.00"), "BENCH-1");
+        product.setId(1L);
+        inventory = new Inventory(store, product, 100_000);
+        inventory.setId(1L);
+        inventory.setReservedQuantity(0);
+        inventory.setVersion(0L);
+        inventory.setLastUpdated(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public Integer adjustQuantity() {
+        inventory.adjustQuantity(5);
+        inventory.adjustQuantity(-5);
+        return inventory.getQuantity();
+    }
+
+    @Benchmark
+    public Integer reserveAndRelease() {
+        inventory.reserve(5);
+        inventory.releaseReservation(5);
+        return inventory.getReservedQuantity();
+    }
+
+    @Benchmark
+    public InventoryDTO inventoryDtoFromEntity() {
+        return InventoryDTO.fromEntity(inventory);
+    }
+}
@@ -0,0 +1,127 @@
+package com.inventory.benchmark;
+
+import com.inventory.event.InventoryEvent;
+import com.inventory.event.InventoryUpdateEvent;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Client-side cost of the producer profiles in KafkaConfig: serialized inventory commands are packed
+// into record batches the way the producer's accumulator does, with each profile's batch.size and
+// compression.type. Scores are records/s; the tear-down line reports bytes on the wire per record.
+// Broker round trips are not included, so this bounds what a profile costs per record, not end-to-end.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProducerBatchBenchmark {
+
+    private static final String TOPIC = "inventory.commands.stock";
+    private static final int RECORDS = 10_000;
+    private static final Header[] NO_HEADERS = new Header[0];
+
+    // default = application.yml, throughput = application-throughput.yml, throughput-zstd = same with zstd
+    @Param({"default", "throughput", "throughput-zstd"})
+    public String profile;
+
+    private int batchSize;
+    private CompressionType compression;
+    private byte[][] keys;
+    private byte[][] values;
+    private ByteBuffer buffer;
+    private long wireBytes;
+    private long batches;
+
+    @Setup
+    public void setUp() {
+        switch (profile) {
+            case "default":
+                batchSize = 65536;
+                compression = CompressionType.NONE;
+                break;
+            case "throughput":
+                batchSize = 262144;
+                compression = CompressionType.LZ4;
+                break;
+            case "throughput-zstd":
+                batchSize = 262144;
+                compression = CompressionType.ZSTD;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown profile: " + profile);
+        }
+
+        JsonSerializer<InventoryEvent> serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        keys = new byte[RECORDS][];
+        values = new byte[RECORDS][];
+        for (int i = 0; i < RECORDS; i++) {
+            InventoryUpdateEvent event = new InventoryUpdateEvent((long) (i % 50) + 1, (long) (i % 500) + 1, (i % 20) + 1,
+                    i % 2 == 0 ? "STOCK_IN" : "STOCK_OUT");
+            event.setReferenceId("PO-" + i);
+            event.setNotes("Benchmark command " + i);
+            keys[i] = event.partitionKey().getBytes(StandardCharsets.UTF_8);
+            values[i] = serializer.serialize(TOPIC, event);
+        }
+        serializer.close();
+        buffer = ByteBuffer.allocate(batchSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (batches > 0) {
+            System.out.printf("%n[%s] %.1f bytes/record on the wire, %.0f records/batch%n",
+                    profile, (double) wireBytes / RECORDS, (double) RECORDS / batches);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long buildBatches() {
+        long bytes = 0;
+        int count = 0;
+        long timestamp = System.currentTimeMillis();
+        MemoryRecordsBuilder builder = newBuilder();
+        for (int i = 0; i < RECORDS; i++) {
+            if (!builder.hasRoomFor(timestamp, keys[i], values[i], NO_HEADERS)) {
+                bytes += builder.build().sizeInBytes();
+                count++;
+                builder = newBuilder();
+            }
+            builder.append(timestamp, keys[i], values[i]);
+        }
+        bytes += builder.build().sizeInBytes();
+        count++;
+        wireBytes = bytes;
+        batches = count;
+        return bytes;
+    }
+
+    private MemoryRecordsBuilder newBuilder() {
+        buffer.clear();
+        return MemoryRecords.builder(buffer, compression, TimestampType.CREATE_TIME, 0L);
+    }
+}
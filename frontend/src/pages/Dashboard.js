@@ -17,7 +17,7 @@ const Dashboard = () => {
     totalProducts: 0,
     totalStores: 0,
     lowStockItems: 0,
-    totalValue: 0
+    inventoryRecords: 0
   });
 
   const { notifications, connected, unreadCount } = useNotifications();
@@ -30,27 +30,23 @@ const Dashboard = () => {
     setLoading(true);
     try {
       const [inventoryRes, storesRes, productsRes, lowStockRes] = await Promise.all([
-        inventoryAPI.getAllInventory(),
+        inventoryAPI.getInventoryPage({ limit: 10, sort: 'quantity,asc' }),
         storeAPI.getAllStores(),
         productAPI.getAllProducts(),
         inventoryAPI.getLowStock(10)
       ]);
 
-      setInventory(inventoryRes.data);
+      setInventory(inventoryRes.data.items);
       setStores(storesRes.data);
       setProducts(productsRes.data);
       setLowStock(lowStockRes.data);
 
-      // Calculate stats
-      const totalValue = inventoryRes.data.reduce((sum, item) => 
-        sum + (item.quantity * (item.product?.price || 0)), 0
-      );
-
+      // Only the first page is loaded; its totalEstimate counts every inventory record
       setStats({
         totalProducts: productsRes.data.length,
         totalStores: storesRes.data.length,
         lowStockItems: lowStockRes.data.length,
-        totalValue: totalValue
+        inventoryRecords: inventoryRes.data.totalEstimate
       });
 
     } catch (error) {
@@ -179,8 +175,8 @@ const Dashboard = () => {
           badge={stats.lowStockItems > 0 ? { variant: "destructive", text: "Atenção" } : null}
         />
         <StatsCard
-          title="Valor Total do Estoque"
-          value={`R$ ${stats.totalValue.toLocaleString('pt-BR', { minimumFractionDigits: 2 })}`}
+          title="Registros de Inventário"
+          value={stats.inventoryRecords.toLocaleString('pt-BR')}
           icon={TrendingUp}
           color="purple"
         />
@@ -189,13 +185,16 @@ const Dashboard = () => {
       {/* Main Content */}
       <Tabs defaultValue="inventory" className="space-y-4">
         <TabsList>
-          <TabsTrigger value="inventory">Inventário Geral</TabsTrigger>
+          <TabsTrigger value="inventory">Menores Estoques</TabsTrigger>
           <TabsTrigger value="low-stock">Estoque Baixo</TabsTrigger>
           <TabsTrigger value="notifications">Notificações</TabsTrigger>
         </TabsList>
 
         <TabsContent value="inventory">
-          <InventoryTable data={inventory} title="Inventário Completo" />
+          <InventoryTable
+            data={inventory}
+            title={`${inventory.length} itens com menor estoque de ${stats.inventoryRecords} registros`}
+          />
         </TabsContent>
 
         <TabsContent value="low-stock">
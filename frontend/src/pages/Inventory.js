@@ -7,13 +7,20 @@ import { inventoryAPI, storeAPI, productAPI } from '../services/api';
 import { Package, Plus, Minus, ArrowRightLeft, Search } from 'lucide-react';
 import { toast } from 'sonner';
 
+const PAGE_SIZE = 50;
+
 const Inventory = () => {
   const [inventory, setInventory] = useState([]);
   const [stores, setStores] = useState([]);
   const [products, setProducts] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [categories, setCategories] = useState([]);
   const [searchTerm, setSearchTerm] = useState('');
   const [selectedStore, setSelectedStore] = useState('all');
+  const [selectedCategory, setSelectedCategory] = useState('all');
+  const [nextPageToken, setNextPageToken] = useState(null);
+  const [totalEstimate, setTotalEstimate] = useState(0);
+  const [loadingMore, setLoadingMore] = useState(false);
   
   // Modal states
   const [showStockModal, setShowStockModal] = useState(false);
@@ -30,18 +37,61 @@ const Inventory = () => {
     loadData();
   }, []);
 
+  // Filters are applied by the backend; typing waits a moment before asking for the first page again
+  useEffect(() => {
+    if (loading) return;
+    const timer = setTimeout(() => {
+      loadInventory().catch((error) => {
+        toast.error('Erro ao carregar inventário');
+        console.error('Error loading inventory:', error);
+      });
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [searchTerm, selectedStore, selectedCategory]);
+
+  const pageParams = (pageToken) => ({
+    limit: PAGE_SIZE,
+    pageToken: pageToken || undefined,
+    storeId: selectedStore === 'all' ? undefined : selectedStore,
+    category: selectedCategory === 'all' ? undefined : selectedCategory,
+    search: searchTerm.trim() || undefined
+  });
+
+  // First page for the current filters
+  const loadInventory = async () => {
+    const inventoryRes = await inventoryAPI.getInventoryPage(pageParams());
+    setInventory(inventoryRes.data.items);
+    setNextPageToken(inventoryRes.data.nextPageToken);
+    setTotalEstimate(inventoryRes.data.totalEstimate);
+  };
+
+  const loadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const inventoryRes = await inventoryAPI.getInventoryPage(pageParams(nextPageToken));
+      setInventory(current => [...current, ...inventoryRes.data.items]);
+      setNextPageToken(inventoryRes.data.nextPageToken);
+    } catch (error) {
+      toast.error('Erro ao carregar mais itens');
+      console.error('Error loading more inventory:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const loadData = async () => {
     setLoading(true);
     try {
-      const [inventoryRes, storesRes, productsRes] = await Promise.all([
-        inventoryAPI.getAllInventory(),
+      const [storesRes, productsRes, categoriesRes] = await Promise.all([
         storeAPI.getAllStores(),
-        productAPI.getAllProducts()
+        productAPI.getAllProducts(),
+        productAPI.getCategories(),
+        loadInventory()
       ]);
       
-      setInventory(inventoryRes.data);
       setStores(storesRes.data);
       setProducts(productsRes.data);
+      setCategories(categoriesRes.data);
     } catch (error) {
       toast.error('Erro ao carregar dados');
       console.error('Error loading data:', error);
@@ -50,18 +100,6 @@ const Inventory = () => {
     }
   };
 
-  const filteredInventory = inventory.filter(item => {
-    const matchesSearch = !searchTerm || 
-      item.product?.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      item.product?.sku.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      item.store?.name.toLowerCase().includes(searchTerm.toLowerCase());
-    
-    const matchesStore = selectedStore === 'all' || 
-      item.store?.id.toString() === selectedStore;
-    
-    return matchesSearch && matchesStore;
-  });
-
   const handleStockOperation = async (operation) => {
     try {
       const data = {
@@ -169,6 +207,18 @@ const Inventory = () => {
                 </option>
               ))}
             </select>
+            <select
+              value={selectedCategory}
+              onChange={(e) => setSelectedCategory(e.target.value)}
+              className="h-10 px-3 py-2 border border-gray-300 rounded-md"
+            >
+              <option value="all">Todas as Categorias</option>
+              {categories.map(category => (
+                <option key={category} value={category}>
+                  {category}
+                </option>
+              ))}
+            </select>
           </div>
         </CardContent>
       </Card>
@@ -176,7 +226,7 @@ const Inventory = () => {
       {/* Inventory Table */}
       <Card>
         <CardHeader>
-          <CardTitle>Inventário ({filteredInventory.length} itens)</CardTitle>
+          <CardTitle>Inventário ({inventory.length} de {totalEstimate} itens)</CardTitle>
         </CardHeader>
         <CardContent>
           <div className="overflow-x-auto">
@@ -192,7 +242,7 @@ const Inventory = () => {
                 </tr>
               </thead>
               <tbody>
-                {filteredInventory.map((item, index) => (
+                {inventory.map((item, index) => (
                   <tr key={index} className="border-b hover:bg-gray-50">
                     <td className="p-3">
                       <div>
@@ -250,6 +300,13 @@ const Inventory = () => {
               </tbody>
             </table>
           </div>
+          {nextPageToken && (
+            <div className="flex justify-center pt-4">
+              <Button variant="outline" onClick={loadMore} disabled={loadingMore}>
+                {loadingMore ? 'Carregando...' : 'Carregar mais'}
+              </Button>
+            </div>
+          )}
         </CardContent>
       </Card>
 
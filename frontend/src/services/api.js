@@ -34,7 +34,9 @@ api.interceptors.response.use(
 // API Services
 export const inventoryAPI = {
   // Inventory operations
-  getAllInventory: () => api.get('/inventory'),
+  // One page: { items, nextPageToken, hasMore, totalEstimate }; params: storeId, category, skuPrefix,
+  // minQuantity, maxQuantity, availableOnly, sort, pageToken, limit
+  getInventoryPage: (params = {}) => api.get('/inventory', { params }),
   getInventoryByStore: (storeId) => api.get(`/inventory/store/${storeId}`),
   getLowStock: (threshold = 10) => api.get(`/inventory/low-stock?threshold=${threshold}`),
   
@@ -21,14 +21,16 @@ def test_stock_operations():
     # Test 1: Get current inventory state
     print("\n1. Getting current inventory state...")
     try:
-        response = session.get(f"{BACKEND_URL}/api/inventory")
+        # GET /api/inventory returns one page; the store filter keeps the row we need on the first one
+        test_store_id = 1
+        test_product_id = 1
+        response = session.get(f"{BACKEND_URL}/api/inventory", params={"storeId": test_store_id, "limit": 500})
         if response.status_code == 200:
-            inventory = response.json()
-            print(f"✅ Current inventory has {len(inventory)} records")
+            page = response.json()
+            inventory = page['items']
+            print(f"✅ Current inventory has {page['totalEstimate']} records in store {test_store_id}")
             
             # Find a product with existing inventory
-            test_store_id = 1
-            test_product_id = 1
             current_quantity = 0
             
             for item in inventory: